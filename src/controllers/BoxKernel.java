@@ -0,0 +1,94 @@
+package controllers;
+
+/**
+ * Tests a single query box against many boxes of the same size, whose positions are stored in primitive arrays, and
+ * finds the first one it intersects.
+ *
+ * The boxes are tested in fixed size blocks. Inside a block every box is tested without any branches, with the result
+ * of each test packed in to a bit mask, and the block is only inspected further when the mask isn't empty. This keeps
+ * the inner loop a straight run of integer arithmetic, which the JIT compiler is able to unroll and vectorise.
+ *
+ * Each test matches {@code Rectangle.intersects}; a box with no width or height intersects nothing.
+ *
+ * @author Harry Felton - 18032692
+ */
+public final class BoxKernel {
+    /**
+     * The amount of boxes tested in each block
+     */
+    public static final int BLOCK = 8;
+
+    private BoxKernel() {}
+
+    /**
+     * Finds the first box, between the indexes provided, that intersects the query box
+     *
+     * @param xs The X position of each box
+     * @param ys The Y position of each box
+     * @param from The index of the first box to test
+     * @param to The index after the last box to test
+     * @param width The width of every box
+     * @param height The height of every box
+     * @param qX The X position of the query box
+     * @param qY The Y position of the query box
+     * @param qW The width of the query box
+     * @param qH The height of the query box
+     * @return Returns the index of the first box intersecting the query box, or -1 if there is none
+     */
+    public static int firstHit(int[] xs, int[] ys, int from, int to, int width, int height, int qX, int qY, int qW, int qH) {
+        if(width <= 0 || height <= 0 || qW <= 0 || qH <= 0) return -1;
+
+        // A box intersects when its position is within [lowX, lowX + spanX] and [lowY, lowY + spanY]; both are tested
+        // at once by checking the sign bit of the offset from the low end, and of the distance left to the high end
+        int lowX = qX - width + 1;
+        int lowY = qY - height + 1;
+        int spanX = qW + width - 2;
+        int spanY = qH + height - 2;
+
+        int i = from;
+        for(; i + BLOCK <= to; i += BLOCK) {
+            int hits = 0;
+            for(int lane = 0; lane < BLOCK; lane++) {
+                int x = xs[i + lane] - lowX;
+                int y = ys[i + lane] - lowY;
+                hits |= (~(x | (spanX - x) | y | (spanY - y)) >>> 31) << lane;
+            }
+
+            if(hits != 0) return i + Integer.numberOfTrailingZeros(hits);
+        }
+
+        for(; i < to; i++) {
+            int x = xs[i] - lowX;
+            int y = ys[i] - lowY;
+            if((x | (spanX - x) | y | (spanY - y)) >= 0) return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds the first box intersecting the query box by testing each box in turn, with an early exit. Used as a
+     * reference for {@link #firstHit(int[], int[], int, int, int, int, int, int, int, int)}.
+     *
+     * @param xs The X position of each box
+     * @param ys The Y position of each box
+     * @param from The index of the first box to test
+     * @param to The index after the last box to test
+     * @param width The width of every box
+     * @param height The height of every box
+     * @param qX The X position of the query box
+     * @param qY The Y position of the query box
+     * @param qW The width of the query box
+     * @param qH The height of the query box
+     * @return Returns the index of the first box intersecting the query box, or -1 if there is none
+     */
+    public static int firstHitScalar(int[] xs, int[] ys, int from, int to, int width, int height, int qX, int qY, int qW, int qH) {
+        if(width <= 0 || height <= 0 || qW <= 0 || qH <= 0) return -1;
+
+        for(int i = from; i < to; i++) {
+            if(xs[i] < qX + qW && qX < xs[i] + width && ys[i] < qY + qH && qY < ys[i] + height) return i;
+        }
+
+        return -1;
+    }
+}
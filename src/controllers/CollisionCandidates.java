@@ -0,0 +1,81 @@
+package controllers;
+
+import interfaces.CollisionElement;
+
+import java.util.Arrays;
+
+/**
+ * Holds the elements found by a broad phase query, sorted by the order they were added to the broad phase. Each
+ * caller keeps it's own, so that a query can safely be made while the results of another are still being used.
+ *
+ * @author Harry Felton - 18032692
+ * @see interfaces.BroadPhase
+ */
+public class CollisionCandidates {
+    /**
+     * The elements found
+     */
+    private CollisionElement[] elements = new CollisionElement[8];
+
+    /**
+     * The order each element was added to the broad phase in
+     */
+    private long[] orders = new long[8];
+
+    /**
+     * The amount of elements found
+     */
+    private int count = 0;
+
+    /**
+     * Fetch an element found by the query
+     *
+     * @param i The index of the result, from 0 to the amount returned by the query
+     * @return Returns the element
+     */
+    public CollisionElement get(int i) {
+        return elements[i];
+    }
+
+    /**
+     * Fetch the amount of elements found
+     *
+     * @return Returns the amount of elements
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Removes every result, ready for the next query
+     */
+    void clear() {
+        Arrays.fill(elements, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Adds an element to the results, keeping them sorted by the order they were added to the broad phase. An element
+     * already in the results, which has the same order, isn't added again.
+     *
+     * @param element The element to add
+     * @param order The order the element was added to the broad phase
+     */
+    void add(CollisionElement element, long order) {
+        // Insertion sort; only a handful of elements are ever found
+        int j = count;
+        while(j > 0 && orders[j - 1] > order) j--;
+        if(j > 0 && orders[j - 1] == order) return;
+
+        if(count == elements.length) {
+            elements = Arrays.copyOf(elements, count * 2);
+            orders = Arrays.copyOf(orders, count * 2);
+        }
+
+        System.arraycopy(elements, j, elements, j + 1, count - j);
+        System.arraycopy(orders, j, orders, j + 1, count - j);
+        elements[j] = element;
+        orders[j] = order;
+        count++;
+    }
+}
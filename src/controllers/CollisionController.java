@@ -1,10 +1,13 @@
 package controllers;
 
 import entity.Entity;
+import interfaces.BroadPhase;
 import interfaces.CollisionElement;
 import main.SnakeGame;
+import profiling.TickProfiler;
 
 import java.awt.*;
+import java.util.Arrays;
 
 /**
  * CollisionController is responsible for checking for collisions between entities running inside the
@@ -15,6 +18,64 @@ import java.awt.*;
 public class CollisionController extends Controller {
     EntityController entities;
 
+    /**
+     * The broad phases that can be used to find the entities a collision box could be touching
+     */
+    public enum BROAD_PHASE {
+        /**
+         * A uniform grid, holding every piece of every entity
+         *
+         * @see SpatialGrid
+         */
+        GRID,
+
+        /**
+         * The bounding box of each entity, sorted along the X-axis
+         *
+         * @see SweepAndPrune
+         */
+        SWEEP_AND_PRUNE
+    }
+
+    /**
+     * The spatial index of every entity that can be collided with
+     *
+     * @see #getGrid()
+     */
+    protected final SpatialGrid grid = new SpatialGrid();
+
+    /**
+     * The broad phase currently in use
+     *
+     * @see #setBroadPhase(BROAD_PHASE)
+     */
+    protected BroadPhase broadPhase = grid;
+
+    /**
+     * The sweep and prune broad phase, used in place of the grid when selected
+     *
+     * @see #setBroadPhase(BROAD_PHASE)
+     */
+    protected final SweepAndPrune sweepAndPrune = new SweepAndPrune();
+
+    /**
+     * Answers nearest and radius queries from the grid
+     *
+     * @see #getSpatialQueries()
+     */
+    protected final SpatialQueries spatialQueries = new SpatialQueries(grid);
+
+    /**
+     * The results of the broad phase queries currently being tested, one per level of nesting; a collision callback
+     * can cause another collision check (such as finding a free spot to respawn a pickup) before the first has finished
+     */
+    protected CollisionCandidates[] queryResults = new CollisionCandidates[0];
+
+    /**
+     * The amount of collision checks currently running
+     */
+    protected int queryDepth = 0;
+
     /**
      * Instantiate the controller by passing the SnakeGame instance to the super class,
      * and storing a reference to the EntityController from the game.
@@ -26,6 +87,84 @@ public class CollisionController extends Controller {
         entities = g.getEntityController();
     }
 
+    /**
+     * Fetch the spatial index of the entities that can be collided with. Entities are added to it when they're added
+     * to the {@code EntityController}, and keep their position in the grid up to date as they move. The grid is kept
+     * up to date whichever broad phase is in use, as it also tracks the free space used to spawn pickups.
+     *
+     * @return Returns the grid
+     * @see Entity#addToCollisionGrid(SpatialGrid)
+     */
+    public SpatialGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Fetch the queries used to find the pickups and snakes near a position
+     *
+     * @return Returns the queries
+     */
+    public SpatialQueries getSpatialQueries() {
+        return spatialQueries;
+    }
+
+    /**
+     * Changes the broad phase used to find the entities a collision box could be touching. Every entity currently
+     * registered is added to the new broad phase.
+     *
+     * @param phase The broad phase to use
+     * @return Returns the controller to enable method chaining
+     */
+    public CollisionController setBroadPhase(BROAD_PHASE phase) {
+        BroadPhase next = phase == BROAD_PHASE.GRID ? grid : sweepAndPrune;
+        if(next == broadPhase) return this;
+
+        // The grid always holds every entity, so only the other broad phases need filling and emptying
+        if(broadPhase != grid) broadPhase.clear();
+        broadPhase = next;
+        if(broadPhase != grid) entities.forEachEntity(broadPhase::add);
+
+        return this;
+    }
+
+    /**
+     * Adds an entity to the grid and the broad phase, so that it can be collided with
+     *
+     * @param entity The entity to add
+     */
+    public void addEntity(Entity entity) {
+        grid.add(entity);
+        if(broadPhase != grid) broadPhase.add(entity);
+    }
+
+    /**
+     * Removes an entity from the grid and the broad phase
+     *
+     * @param entity The entity to remove
+     */
+    public void removeEntity(Entity entity) {
+        grid.remove(entity);
+        if(broadPhase != grid) broadPhase.remove(entity);
+    }
+
+    /**
+     * Informs the broad phase that an entity has moved or changed size. Must be called before the entity checks for
+     * collisions with it's new position.
+     *
+     * @param entity The entity that has moved
+     */
+    public void entityMoved(Entity entity) {
+        broadPhase.update(entity);
+    }
+
+    /**
+     * Removes every entity from the grid and the broad phase, ready for a new game
+     */
+    public void clearEntities() {
+        grid.clear();
+        if(broadPhase != grid) broadPhase.clear();
+    }
+
     /**
      * Checks to see if the {@code collisionBox} provided is colliding with any registered elements
      * from {@code EntityController}, including any {@code SnakeEntity} or the boundary of the game.
@@ -33,23 +172,124 @@ public class CollisionController extends Controller {
      * @param source The source of the collision
      * @param collisionBox The collision boundary to be tested
      * @return If a collision occurred
+     * @see #checkCollision(CollisionElement, int, int, int, int)
      */
     public boolean checkCollision(CollisionElement source, Rectangle collisionBox) {
+        return checkCollision(source, collisionBox.x, collisionBox.y, collisionBox.width, collisionBox.height);
+    }
+
+    /**
+     * Checks to see if the collision box provided is colliding with any registered elements from
+     * {@code EntityController}, including any {@code SnakeEntity} or the boundary of the game.
+     *
+     * @param source The source of the collision
+     * @param x The X position of the collision box
+     * @param y The Y position of the collision box
+     * @param width The width of the collision box
+     * @param height The height of the collision box
+     * @return If a collision occurred
+     */
+    public boolean checkCollision(CollisionElement source, int x, int y, int width, int height) {
+        TickProfiler profiler = gameInstance.getProfiler();
+        long start = profiler.start();
+        boolean collided = testCollision(source, x, y, width, height);
+        profiler.record(TickProfiler.PHASE.COLLISION_CHECK, start);
+
+        return collided;
+    }
+
+    /**
+     * Finds every collision of the collision boxes provided with the game boundary and registered entities, without
+     * notifying any of the elements involved. Nothing is changed but {@code found}, so collisions can be found for
+     * several sources at once on different threads, as long as no entity is added, moved or removed meanwhile.
+     *
+     * @param source The source of the collision boxes
+     * @param boxes The collision boxes, stored as {@code x, y, width, height} for each box
+     * @param count The amount of collision boxes, from the start of {@code boxes}, to be tested
+     * @param found Where to store the collisions found
+     * @see #resolveCollisions(CollisionElement, int[], CollisionHits)
+     */
+    public void findCollisions(CollisionElement source, int[] boxes, int count, CollisionHits found) {
+        found.clear();
+        for(int box = 0; box < count; box++) {
+            int x = boxes[box * 4], y = boxes[box * 4 + 1], width = boxes[box * 4 + 2], height = boxes[box * 4 + 3];
+            if(x < 0 || x + width > SnakeGame.WIDTH || y < 0 || y + height > SnakeGame.HEIGHT) {
+                found.add(box, null, CollisionElement.NO_COLLISION);
+            }
+
+            for(int i = 0, candidates = broadPhase.query(x, y, width, height, found.candidates); i < candidates; i++) {
+                CollisionElement p = found.candidates.get(i);
+                int hit = p.findCollision(x, y, width, height, source);
+                if(hit != CollisionElement.NO_COLLISION) found.add(box, p, hit);
+            }
+        }
+        found.candidates.clear();
+    }
+
+    /**
+     * Notifies the elements involved in each collision found by
+     * {@link #findCollisions(CollisionElement, int[], int, CollisionHits)}, in the order they were found. As with
+     * {@link #checkCollision(CollisionElement, int, int, int, int)}, once a collision of a box is consumed the rest of
+     * the collisions found by that box are ignored.
+     *
+     * @param source The source of the collision boxes
+     * @param boxes The collision boxes the collisions were found with
+     * @param found The collisions found
+     */
+    public void resolveCollisions(CollisionElement source, int[] boxes, CollisionHits found) {
+        int consumed = -1;
+        for(int i = 0; i < found.size(); i++) {
+            int box = found.getBox(i);
+            if(box == consumed) continue;
+
+            int x = boxes[box * 4], y = boxes[box * 4 + 1], width = boxes[box * 4 + 2], height = boxes[box * 4 + 3];
+            CollisionElement p = found.getElement(i);
+            boolean consumes = p == null
+                    ? source.collidedWithGameBoundary(x, y, width, height)
+                    : p.collidedWithBy(x, y, width, height, source, found.getHit(i));
+            if(consumes) consumed = box;
+        }
+    }
+
+    /**
+     * Tests the collision box provided against the game boundary and registered entities, notifying the elements
+     * involved of any collision found.
+     *
+     * @param source The source of the collision
+     * @param x The X position of the collision box
+     * @param y The Y position of the collision box
+     * @param width The width of the collision box
+     * @param height The height of the collision box
+     * @return If a collision occurred
+     * @see #checkCollision(CollisionElement, int, int, int, int)
+     */
+    private boolean testCollision(CollisionElement source, int x, int y, int width, int height) {
         // If the source is colliding with the game boundary
-        if(collisionBox.x < 0 || collisionBox.x + collisionBox.width > SnakeGame.WIDTH || collisionBox.y < 0 || collisionBox.y + collisionBox.height > SnakeGame.HEIGHT) {
-            if(source.collidedWithGameBoundary( collisionBox )) {
+        if(x < 0 || x + width > SnakeGame.WIDTH || y < 0 || y + height > SnakeGame.HEIGHT) {
+            if(source.collidedWithGameBoundary(x, y, width, height)) {
                 return true;
             }
         }
 
-        // Check with the entity controller for currently on-map entities
-        for(Entity p : entities.entities) {
-            Rectangle collidedWith = p.isCollisionBoxIntersecting(collisionBox, source);
-            if(collidedWith != null) {
-                if(p.collidedWithBy(collisionBox, source, collidedWith)) {
-                    return true;
+        // Check the currently on-map entities near the collision box, in the order they were added to the entity controller
+        if(queryDepth == queryResults.length) {
+            queryResults = Arrays.copyOf(queryResults, queryDepth + 1);
+            queryResults[queryDepth] = new CollisionCandidates();
+        }
+
+        CollisionCandidates results = queryResults[queryDepth++];
+        try {
+            for(int i = 0, count = broadPhase.query(x, y, width, height, results); i < count; i++) {
+                CollisionElement p = results.get(i);
+                int hit = p.findCollision(x, y, width, height, source);
+                if(hit != CollisionElement.NO_COLLISION) {
+                    if(p.collidedWithBy(x, y, width, height, source, hit)) {
+                        return true;
+                    }
                 }
             }
+        } finally {
+            queryDepth--;
         }
 
         return false;
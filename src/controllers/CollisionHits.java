@@ -0,0 +1,109 @@
+package controllers;
+
+import interfaces.CollisionElement;
+
+import java.util.Arrays;
+
+/**
+ * Holds the collisions found for the collision boxes of a single source, so that they can be found on one thread and
+ * acted upon later on another. Each collision is stored with the index of the box that found it, in the order the
+ * boxes were tested and, for each box, the order the elements were added to the broad phase.
+ *
+ * A collision with the boundary of the game is stored with no element, before any collisions found by the same box.
+ *
+ * @author Harry Felton - 18032692
+ * @see CollisionController#findCollisions(CollisionElement, int[], int, CollisionHits)
+ * @see CollisionController#resolveCollisions(CollisionElement, int[], CollisionHits)
+ */
+public class CollisionHits {
+    /**
+     * The candidates found by the broad phase for the box being tested; kept here so that each source has it's own
+     */
+    final CollisionCandidates candidates = new CollisionCandidates();
+
+    /**
+     * The index of the collision box that found each collision
+     */
+    private int[] boxes = new int[8];
+
+    /**
+     * The element collided with, or null for the boundary of the game
+     */
+    private CollisionElement[] elements = new CollisionElement[8];
+
+    /**
+     * The part of the element collided with, as returned by {@code findCollision}
+     */
+    private int[] hits = new int[8];
+
+    /**
+     * The amount of collisions stored
+     */
+    private int count = 0;
+
+    /**
+     * Fetch the amount of collisions found
+     *
+     * @return Returns the amount of collisions
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Fetch the index of the collision box that found a collision
+     *
+     * @param i The index of the collision
+     * @return Returns the index of the box
+     */
+    public int getBox(int i) {
+        return boxes[i];
+    }
+
+    /**
+     * Fetch the element a collision is with
+     *
+     * @param i The index of the collision
+     * @return Returns the element, or null if the collision is with the boundary of the game
+     */
+    public CollisionElement getElement(int i) {
+        return elements[i];
+    }
+
+    /**
+     * Fetch the part of the element a collision is with
+     *
+     * @param i The index of the collision
+     * @return Returns the part collided with, or {@code NO_COLLISION} for the boundary of the game
+     */
+    public int getHit(int i) {
+        return hits[i];
+    }
+
+    /**
+     * Removes every collision, ready for the boxes to be tested again
+     */
+    void clear() {
+        Arrays.fill(elements, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Adds a collision to the end of those found
+     *
+     * @param box The index of the collision box that found the collision
+     * @param element The element collided with, or null for the boundary of the game
+     * @param hit The part of the element collided with
+     */
+    void add(int box, CollisionElement element, int hit) {
+        if(count == boxes.length) {
+            boxes = Arrays.copyOf(boxes, count * 2);
+            elements = Arrays.copyOf(elements, count * 2);
+            hits = Arrays.copyOf(hits, count * 2);
+        }
+
+        boxes[count] = box;
+        elements[count] = element;
+        hits[count++] = hit;
+    }
+}
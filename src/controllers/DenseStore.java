@@ -0,0 +1,236 @@
+package controllers;
+
+import interfaces.Handled;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+/**
+ * Stores objects of a single type in a dense array, so that they can be updated and drawn with a tight loop over
+ * objects of exactly that type. The {@code EntityController} keeps a store for each type of entity, and the
+ * {@code EffectController} one for its effects.
+ *
+ * Each object is given a handle when it's added, made up of the slot it was given and the generation of that slot.
+ * The slot never changes while the object is stored, even as other objects are removed and the dense array is
+ * compacted; when the object is removed the generation of its slot is increased, so any handle still held for it is
+ * detected as stale rather than finding whichever object reuses the slot.
+ *
+ * Removing an object moves the last object in to it's place, so adding and removing both take constant time; the order
+ * of the dense array is only the order objects were added until the first removal.
+ *
+ * @param <T> The type of object stored
+ * @author Harry Felton - 18032692
+ */
+public class DenseStore<T extends Handled> {
+    /**
+     * The type of object stored
+     */
+    private final Class<T> type;
+
+    /**
+     * The objects stored
+     */
+    private T[] objects;
+
+    /**
+     * The amount of objects stored
+     */
+    private int size = 0;
+
+    /**
+     * The slot held by each object, matching the order of {@code objects}
+     */
+    private int[] slots = new int[16];
+
+    /**
+     * The index inside {@code objects} of the object holding each slot, or -1 if the slot is free
+     */
+    private int[] indexes = new int[16];
+
+    /**
+     * The generation of each slot; increased each time the slot is freed
+     */
+    private int[] generations = new int[16];
+
+    /**
+     * Slots that have been freed, ready to be reused
+     */
+    private int[] freeSlots = new int[16];
+
+    /**
+     * The amount of slots stored in {@code freeSlots}
+     */
+    private int freeCount = 0;
+
+    /**
+     * The amount of slots that have ever been used
+     */
+    private int slotCount = 0;
+
+    /**
+     * Constructs an empty store
+     *
+     * @param type The type of object stored
+     */
+    @SuppressWarnings("unchecked")
+    public DenseStore(Class<T> type) {
+        this.type = type;
+        objects = (T[]) Array.newInstance(type, 16);
+    }
+
+    /**
+     * Fetch the type of object stored
+     *
+     * @return Returns the type
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Fetch the amount of objects stored
+     *
+     * @return Returns the amount of objects
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fetch an object by it's position in the store
+     *
+     * @param i The index of the object, from 0 to {@code size() - 1}
+     * @return Returns the object
+     */
+    public T get(int i) {
+        return objects[i];
+    }
+
+    /**
+     * Adds an object to the end of the store
+     *
+     * @param object The object to add
+     * @return Returns the handle of the object
+     */
+    public long add(T object) {
+        int slot;
+        if(freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = slotCount++;
+            if(slot == indexes.length) {
+                indexes = Arrays.copyOf(indexes, slot * 2);
+                generations = Arrays.copyOf(generations, slot * 2);
+            }
+        }
+
+        if(size == objects.length) {
+            objects = Arrays.copyOf(objects, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+
+        objects[size] = object;
+        slots[size] = slot;
+        indexes[slot] = size++;
+
+        long handle = handleOf(slot, generations[slot]);
+        object.setHandle(handle);
+        return handle;
+    }
+
+    /**
+     * Finds the object a handle was given to
+     *
+     * @param handle The handle of the object
+     * @return Returns the object, or null if the handle is stale or was never given out
+     */
+    public T get(long handle) {
+        int index = indexOf(handle);
+        return index < 0 ? null : objects[index];
+    }
+
+    /**
+     * Tests if the object a handle was given to is still stored
+     *
+     * @param handle The handle of the object
+     * @return Returns true if the handle is valid
+     */
+    public boolean contains(long handle) {
+        return indexOf(handle) >= 0;
+    }
+
+    /**
+     * Removes the object a handle was given to, by moving the last object in to it's place. The handle, and any copies
+     * of it, become stale.
+     *
+     * @param handle The handle of the object
+     * @return Returns the object removed, or null if the handle was already stale
+     */
+    public T remove(long handle) {
+        int index = indexOf(handle);
+        if(index < 0) return null;
+
+        T object = objects[index];
+        int slot = slots[index];
+
+        int last = --size;
+        objects[index] = objects[last];
+        slots[index] = slots[last];
+        indexes[slots[index]] = index;
+        objects[last] = null;
+
+        free(slot);
+        object.setHandle(Handled.NO_HANDLE);
+        return object;
+    }
+
+    /**
+     * Removes every object. Every handle given out becomes stale.
+     */
+    public void clear() {
+        for(int i = 0; i < size; i++) {
+            objects[i].setHandle(Handled.NO_HANDLE);
+            free(slots[i]);
+        }
+
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Frees a slot so it can be reused, increasing it's generation
+     *
+     * @param slot The slot to free
+     */
+    private void free(int slot) {
+        indexes[slot] = -1;
+        generations[slot]++;
+        if(freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Finds the position of an object inside the store by it's handle
+     *
+     * @param handle The handle of the object
+     * @return Returns the index of the object, or -1 if the handle is stale or was never given out
+     */
+    private int indexOf(long handle) {
+        if(handle < 0) return -1;
+
+        int slot = (int)handle;
+        if(slot >= slotCount || handleOf(slot, generations[slot]) != handle) return -1;
+        return indexes[slot];
+    }
+
+    /**
+     * Creates a handle from a slot and it's generation
+     *
+     * @param slot The slot
+     * @param generation The generation of the slot
+     * @return Returns the handle
+     */
+    private static long handleOf(int slot, int generation) {
+        return ((long)(generation & Integer.MAX_VALUE) << 32) | slot;
+    }
+}
@@ -1,9 +1,14 @@
 package controllers;
 
 import effects.Effect;
+import effects.ParticleLayer;
+import effects.ParticleSystem;
+import main.RenderSnapshot;
 import main.SnakeGame;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.function.Supplier;
 
 /**
  * EffectController facilitates the spawning and animation of effects in the game
@@ -11,27 +16,61 @@ import java.util.LinkedList;
  * @author Harry Felton - 18032692
  */
 public class EffectController extends Controller {
+    /**
+     * The most finished effects of each type kept to be shown again
+     *
+     * @see #obtainEffect(Class, Supplier)
+     */
+    protected static final int EFFECT_POOL_CAPACITY = 256;
+
     /**
      * The effects currently being shown
      *
      * @see #redraw()
      * @see #update(double)
      */
-    protected LinkedList<Effect> effects = new LinkedList<>();
+    protected final DenseStore<Effect> effects = new DenseStore<>(Effect.class);
 
     /**
-     * The effects to be removed after the next tick update
+     * The effects to be removed after the next tick update. Each is found by it's handle when removed, so an effect
+     * queued more than once, or already removed, is skipped.
      *
      * @see #removeEffects()
      */
-    protected LinkedList<Effect> effectsToRemove = new LinkedList<>();
+    protected final ArrayList<Effect> effectsToRemove = new ArrayList<>();
 
     /**
      * The effects to spawn before the next tick cycle starts
      *
      * @see #spawnEffects()
      */
-    protected LinkedList<Effect> effectsToSpawn = new LinkedList<>();
+    protected final ArrayList<Effect> effectsToSpawn = new ArrayList<>();
+
+    /**
+     * The finished effects of each type, kept to be shown again rather than creating new effects
+     *
+     * @see #obtainEffect(Class, Supplier)
+     */
+    protected final IdentityHashMap<Class<? extends Effect>, ObjectPool<Effect>> effectPools = new IdentityHashMap<>();
+
+    /**
+     * The particles currently being shown, updated alongside the effects
+     *
+     * @see #getParticles()
+     */
+    protected final ParticleSystem particles = new ParticleSystem();
+
+    /**
+     * The layer the particles are drawn to. Created when first drawn, so that headless games never allocate it.
+     */
+    protected ParticleLayer particleLayer;
+
+    /**
+     * The position and colour of each particle, copied from {@code particles} ready to be drawn
+     *
+     * @see ParticleSystem#copyTo(int[], int[], int[])
+     */
+    private int[] particleXs = new int[0], particleYs = new int[0], particleColors = new int[0];
 
     /**
      * Instantiates the {@code EffectController} and stores the {@code SnakeGame} instance for use later
@@ -64,14 +103,62 @@ public class EffectController extends Controller {
     }
 
     /**
-     * Removes all {@code Effect} instances queued for destruction
+     * Takes an effect of the type provided from the pool of finished effects, or creates one if there are none, ready
+     * to be set up and spawned. The effect is restarted, but otherwise left as it was when it finished.
+     *
+     * @param type The type of effect
+     * @param factory Creates a new effect when there are none of the type finished
+     * @param <T> The type of effect
+     * @return Returns the effect
+     */
+    public <T extends Effect> T obtainEffect(Class<T> type, Supplier<T> factory) {
+        Effect effect = getEffectPool(type).poll();
+        if(effect == null) return factory.get();
+
+        effect.reset();
+        return type.cast(effect);
+    }
+
+    /**
+     * Returns a finished effect to the pool for it's type
+     *
+     * @param effect The effect to return
+     * @see #obtainEffect(Class, Supplier)
+     */
+    public void recycleEffect(Effect effect) {
+        getEffectPool(effect.getClass()).recycle(effect);
+    }
+
+    /**
+     * Fetches the pool of finished effects of the type provided, creating it if needed
+     *
+     * @param type The type of effect
+     * @return Returns the pool
+     */
+    protected ObjectPool<Effect> getEffectPool(Class<? extends Effect> type) {
+        ObjectPool<Effect> pool = effectPools.get(type);
+        if(pool == null) {
+            pool = new ObjectPool<>(EFFECT_POOL_CAPACITY);
+            effectPools.put(type, pool);
+        }
+
+        return pool;
+    }
+
+    /**
+     * Removes all {@code Effect} instances queued for destruction, returning them to their pool. Each removal moves the
+     * last effect in to the place of the one removed, so it takes constant time however many effects are being shown.
      *
      * @see #effectsToRemove
      * @see #destroyEffect(Effect)
      * @see #update(double)
      */
     private void removeEffects() {
-        effects.removeAll(effectsToRemove);
+        for(int i = 0; i < effectsToRemove.size(); i++) {
+            // An effect can be queued more than once; only the first removal finds it
+            Effect effect = effects.remove(effectsToRemove.get(i).getHandle());
+            if(effect != null) recycleEffect(effect);
+        }
         effectsToRemove.clear();
     }
 
@@ -83,7 +170,9 @@ public class EffectController extends Controller {
      * @see #update(double)
      */
     private void spawnEffects() {
-        effects.addAll(effectsToSpawn);
+        for(int i = 0; i < effectsToSpawn.size(); i++) {
+            effects.add(effectsToSpawn.get(i));
+        }
         effectsToSpawn.clear();
     }
 
@@ -92,25 +181,80 @@ public class EffectController extends Controller {
      * active effects will be updated to advance the animation. Finally, any queued {@code effects} to be removed, will
      * be removed.
      *
-     * @param dt Measure of time since last update
+     * @param dt Measure of time since last update, in seconds
      * @see #spawnEffects()
      * @see #removeEffects()
      */
     public void update(double dt){
         spawnEffects();
-        for(Effect effect : effects) {
-            effect.update(dt);
+        for(int i = 0; i < effects.size(); i++) {
+            effects.get(i).update(dt);
         }
+        particles.update(dt);
 
         removeEffects();
     }
 
+    /**
+     * Adds each registered {@code effect} to the snapshot being built
+     *
+     * @param frame The snapshot being built
+     */
+    public void snapshot(RenderSnapshot.Builder frame) {
+        for(int i = 0; i < effects.size(); i++) {
+            effects.get(i).snapshot(frame);
+        }
+
+        int count = copyParticles();
+        frame.addParticles(particleXs, particleYs, particleColors, count);
+    }
+
     /**
      * Requests each registered {@code effect} to redraw itself.
      */
     public void redraw(){
-        for(Effect effect : effects) {
-            effect.paintComponent();
+        for(int i = 0; i < effects.size(); i++) {
+            effects.get(i).paintComponent();
+        }
+
+        int count = copyParticles();
+        getParticleLayer().draw(gameInstance.getGameGraphics(), particleXs, particleYs, particleColors, count);
+    }
+
+    /**
+     * Fetch the particles shown in the game, which bursts of particles can be emitted from
+     *
+     * @return Returns the particles
+     */
+    public ParticleSystem getParticles() {
+        return particles;
+    }
+
+    /**
+     * Fetch the layer the particles are drawn to, creating it if it doesn't already exist. Must only be used by the
+     * thread drawing the game.
+     *
+     * @return Returns the particle layer
+     */
+    public ParticleLayer getParticleLayer() {
+        if(particleLayer == null) particleLayer = new ParticleLayer();
+        return particleLayer;
+    }
+
+    /**
+     * Copies the position and colour of each particle in to the scratch arrays, growing them if needed
+     *
+     * @return Returns the amount of particles copied
+     */
+    private int copyParticles() {
+        int count = particles.size();
+        if(count > particleColors.length) {
+            int capacity = Math.max(count, particleColors.length * 2);
+            particleXs = new int[capacity];
+            particleYs = new int[capacity];
+            particleColors = new int[capacity];
         }
+
+        return particles.copyTo(particleXs, particleYs, particleColors);
     }
 }
@@ -5,11 +5,20 @@ import entity.Pickup;
 import entity.SnakeEntity;
 import main.Player;
 import main.RandomPoint;
+import main.RenderSnapshot;
 import main.SnakeGame;
+import profiling.TickProfiler;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.util.LinkedList;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * The EntityController class handles the adding, removal, updating and drawing of onscreen elements, such
@@ -18,35 +27,155 @@ import java.util.LinkedList;
  * @author Harry Felton - 18032692
  */
 public class EntityController extends Controller {
+    /**
+     * The ways the snakes can be updated each tick
+     */
+    public enum UPDATE_MODE {
+        /**
+         * Each snake is moved and then checks it's collisions before the next snake moves
+         */
+        SERIAL,
+
+        /**
+         * Every snake is moved, in parallel, and then every snake finds it's collisions against the world after the
+         * move, in parallel; the collisions are then acted upon one snake at a time, in the order of the snakes. The
+         * result doesn't depend on the amount of threads used, so a game plays out the same on any machine.
+         */
+        PARALLEL
+    }
+
+    /**
+     * The least amount of snakes that are worth updating on more than one thread; with fewer, or when the pool only
+     * has a single thread, the phases of a parallel update are run on the calling thread instead, with the same result
+     */
+    protected static final int PARALLEL_THRESHOLD = 4;
+
+    /**
+     * The keys controlling each player by default, indexed by the ID of the player, as {@code up, down, left, right}
+     *
+     * @see #setControls(int, int, int, int, int)
+     */
+    protected static final int[][] DEFAULT_CONTROLS = {
+            {KeyEvent.VK_W, KeyEvent.VK_S, KeyEvent.VK_A, KeyEvent.VK_D},
+            {KeyEvent.VK_UP, KeyEvent.VK_DOWN, KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT},
+            {KeyEvent.VK_I, KeyEvent.VK_K, KeyEvent.VK_J, KeyEvent.VK_L},
+            {KeyEvent.VK_NUMPAD8, KeyEvent.VK_NUMPAD5, KeyEvent.VK_NUMPAD4, KeyEvent.VK_NUMPAD6}
+    };
+
+    /**
+     * The directions matching the keys of each set of controls
+     */
+    private static final SnakeEntity.DIRECTION[] CONTROL_DIRECTIONS = {
+            SnakeEntity.DIRECTION.UP, SnakeEntity.DIRECTION.DOWN, SnakeEntity.DIRECTION.LEFT, SnakeEntity.DIRECTION.RIGHT
+    };
+
+    /**
+     * The most pickups of each type kept for reuse after being destroyed
+     *
+     * @see #obtainPickup(Class, Function)
+     */
+    protected static final int PICKUP_POOL_CAPACITY = 4096;
+
+    /**
+     * The way the snakes are updated
+     *
+     * @see #setUpdateMode(UPDATE_MODE)
+     */
+    protected UPDATE_MODE updateMode = UPDATE_MODE.SERIAL;
+
+    /**
+     * The pool used to run the phases of a parallel update
+     */
+    protected final ForkJoinPool pool = ForkJoinPool.commonPool();
+
     /**
      * The amount of players registered inside the {@code EntityController}
      */
     protected int playerCount;
 
     /**
-     * The entities currently registered inside this controller; they'll receive requests to update
-     * and redraw themselves
+     * The largest key code that can be used as a control. Extended key codes, which start at {@code 0x01000000}, are
+     * rejected rather than growing the table of keys to millions of entries.
+     *
+     * @see #setControls(int, int, int, int, int)
+     */
+    public static final int MAX_KEY_CODE = 0xFFFF;
+
+    /**
+     * The keys controlling each player, indexed by the ID of the player, as {@code up, down, left, right}
+     *
+     * @see #setControls(int, int, int, int, int)
+     */
+    protected int[][] controls = new int[DEFAULT_CONTROLS.length][];
+
+    /**
+     * The ID of the player each key controls, indexed by the code of the key, or -1 if it doesn't control a player.
+     * Controls for a player that isn't playing are given to the last player, so that a single player can use any of
+     * them.
+     *
+     * @see #keyPressed(KeyEvent)
+     */
+    protected int[] keyPlayers = new int[0];
+
+    /**
+     * The direction each key turns the player it controls, indexed by the code of the key
+     */
+    protected SnakeEntity.DIRECTION[] keyDirections = new SnakeEntity.DIRECTION[0];
+
+    /**
+     * The snakes currently registered inside this controller, in the order of the players they belong to; they'll
+     * receive requests to update and redraw themselves
      *
      * @see #update(double)
      * @see #redraw()
      */
-    protected final LinkedList<Entity> entities = new LinkedList<>();
+    protected final DenseStore<SnakeEntity> snakes = new DenseStore<>(SnakeEntity.class);
+
+    /**
+     * The handle of the snake belonging to each player, indexed by the ID of the player
+     *
+     * @see #getPlayer(int)
+     */
+    protected long[] playerHandles = new long[0];
+
+    /**
+     * The pickups currently registered inside this controller, with a store for each type of pickup in the order
+     * they were first spawned; they'll receive requests to update and redraw themselves after the snakes
+     *
+     * @see #getPickupStore(Class)
+     */
+    protected final ArrayList<DenseStore<? extends Pickup>> pickups = new ArrayList<>();
+
+    /**
+     * Pickups that have been destroyed, kept by type to be spawned again
+     *
+     * @see #obtainPickup(Class, Function)
+     */
+    protected final IdentityHashMap<Class<? extends Pickup>, ObjectPool<Pickup>> pickupPools = new IdentityHashMap<>();
+
+    /**
+     * The positions of the pickups being drawn in a batch
+     *
+     * @see #batchPickups(DenseStore, int)
+     */
+    private int[] batchXs = new int[64], batchYs = new int[64];
 
     /**
-     * Entities to be destroyed after the end of the next update cycle
+     * Pickups to be destroyed after the end of the next update cycle. Each is found by it's handle when destroyed, so
+     * a pickup queued more than once, or already destroyed, is skipped.
      *
      * @see #destroyPickup(Pickup)
      * @see #destroyPickups()
      */
-    protected final LinkedList<Entity> entitiesToDestroy = new LinkedList<>();
+    protected final ArrayList<Pickup> pickupsToDestroy = new ArrayList<>();
 
     /**
-     * Entities to be spawned at the beginning of an update cycle
+     * Pickups to be spawned at the beginning of an update cycle
      *
      * @see #spawnPickup(Pickup, Point)
      * @see #spawnPickups()
      */
-    protected final LinkedList<Entity> entitiesToSpawn = new LinkedList<>();
+    protected final ArrayList<Pickup> pickupsToSpawn = new ArrayList<>();
 
     /**
      * Instantiates the controller with the {@code SnakeGame} instance to be used later
@@ -55,6 +184,7 @@ public class EntityController extends Controller {
      */
     public EntityController(SnakeGame g) {
         super(g);
+        for(int i = 0; i < DEFAULT_CONTROLS.length; i++) controls[i] = DEFAULT_CONTROLS[i].clone();
     }
 
     /**
@@ -64,12 +194,78 @@ public class EntityController extends Controller {
      */
     public void initWithPlayers(Player[] players) {
 
-        entities.clear();
+        snakes.clear();
+        for(DenseStore<? extends Pickup> store : pickups) {
+            for(int i = 0; i < store.size(); i++) recyclePickup(store.get(i));
+            store.clear();
+        }
+        CollisionController collisions = gameInstance.getCollisionController();
+        collisions.clearEntities();
+
         playerCount = players.length;
+        playerHandles = new long[playerCount];
         for(int i = 0; i < playerCount; i++) {
-            SnakeEntity e = new SnakeEntity(gameInstance, players[i]);
-            entities.add(e);
+            SnakeEntity e = new SnakeEntity(gameInstance, players[i], playerCount);
+            playerHandles[players[i].getId()] = snakes.add(e);
+            collisions.addEntity(e);
+        }
+
+        buildKeyTable();
+    }
+
+    /**
+     * Changes the keys controlling a player. Players without controls of their own can't be controlled from the
+     * keyboard.
+     *
+     * @param playerId The ID of the player
+     * @param up The code of the key turning the player up
+     * @param down The code of the key turning the player down
+     * @param left The code of the key turning the player left
+     * @param right The code of the key turning the player right
+     * @return Returns the controller to enable method chaining
+     * @throws IllegalArgumentException If the player ID is negative, or a key code is outside
+     *                                  {@code 0..MAX_KEY_CODE}
+     */
+    public EntityController setControls(int playerId, int up, int down, int left, int right) {
+        if(playerId < 0) throw new IllegalArgumentException("Invalid player ID " + playerId);
+        int[] keys = {up, down, left, right};
+        for(int key : keys) {
+            if(key < 0 || key > MAX_KEY_CODE) throw new IllegalArgumentException("Invalid control key code " + key);
+        }
+
+        if(playerId >= controls.length) controls = Arrays.copyOf(controls, playerId + 1);
+        controls[playerId] = keys;
+
+        buildKeyTable();
+        return this;
+    }
+
+    /**
+     * Rebuilds the table of keys used to dispatch key presses, from the controls of each player
+     *
+     * @see #keyPressed(KeyEvent)
+     */
+    protected void buildKeyTable() {
+        int size = 0;
+        for(int[] keys : controls) {
+            if(keys == null) continue;
+            for(int key : keys) size = Math.max(size, key + 1);
+        }
+
+        int[] players = new int[size];
+        SnakeEntity.DIRECTION[] directions = new SnakeEntity.DIRECTION[size];
+        Arrays.fill(players, -1);
+        // Earlier players keep their keys if they're shared
+        for(int id = controls.length - 1; id >= 0; id--) {
+            if(controls[id] == null) continue;
+            for(int k = 0; k < controls[id].length; k++) {
+                players[controls[id][k]] = Math.max(0, Math.min(id, playerCount - 1));
+                directions[controls[id][k]] = CONTROL_DIRECTIONS[k];
+            }
         }
+
+        keyPlayers = players;
+        keyDirections = directions;
     }
 
     /**
@@ -77,47 +273,319 @@ public class EntityController extends Controller {
      * completion, remove any entities that have been queued for removal
      *
      * @param dt Time passed since last tick
-     * @see #entities
-     * @see #entitiesToSpawn
-     * @see #entitiesToDestroy
+     * @see #snakes
+     * @see #pickups
+     * @see #pickupsToSpawn
+     * @see #pickupsToDestroy
      */
     public void update(double dt) {
         spawnPickups();
-        for (Entity entity : entities) {
-            entity.update(dt);
+        if(updateMode == UPDATE_MODE.PARALLEL) {
+            updateSnakesInPhases(dt);
+        } else {
+            for(int i = 0; i < snakes.size(); i++) {
+                snakes.get(i).update(dt);
+            }
+        }
+        for(int p = 0; p < pickups.size(); p++) {
+            DenseStore<? extends Pickup> store = pickups.get(p);
+            for(int i = 0; i < store.size(); i++) {
+                store.get(i).update(dt);
+            }
         }
         destroyPickups();
     }
 
+    /**
+     * Updates every snake in two phases. First every snake is moved, and the collision grid and broad phase are then
+     * told of each move in turn. With the world in a consistent state, every snake finds the collisions of it's move,
+     * which are then acted upon one snake at a time in the order of the snakes, so the result is the same however
+     * many threads are used.
+     *
+     * @param dt Time passed since last tick
+     * @see #setUpdateMode(UPDATE_MODE)
+     */
+    protected void updateSnakesInPhases(double dt) {
+        TickProfiler profiler = gameInstance.getProfiler();
+        long start = profiler.start();
+        forEachSnake(SnakeEntity::advance);
+        profiler.record(TickProfiler.PHASE.MOVE_SNAKE, start);
+
+        for(int i = 0; i < snakes.size(); i++) {
+            snakes.get(i).publishMove();
+        }
+
+        start = profiler.start();
+        forEachSnake(SnakeEntity::detectCollisions);
+        profiler.record(TickProfiler.PHASE.COLLISION_CHECK, start);
+
+        for(int i = 0; i < snakes.size(); i++) {
+            snakes.get(i).resolveCollisions(dt);
+        }
+    }
+
+    /**
+     * Passes every snake to the action provided, on the threads of {@code pool} when there are enough snakes and the
+     * pool has more than one thread, and returns once the action has been completed for every snake
+     *
+     * @param action The action to perform on each snake; must only change the snake it's given
+     */
+    protected void forEachSnake(Consumer<SnakeEntity> action) {
+        if(snakes.size() < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            for(int i = 0; i < snakes.size(); i++) {
+                action.accept(snakes.get(i));
+            }
+        } else {
+            pool.invoke(new SnakeTask(action, 0, snakes.size()));
+        }
+    }
+
+    /**
+     * Performs an action on a range of snakes, splitting the range in half until each task has a single snake
+     */
+    private class SnakeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Consumer<SnakeEntity> action;
+        private final int from, to;
+
+        SnakeTask(Consumer<SnakeEntity> action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                action.accept(snakes.get(from));
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new SnakeTask(action, from, mid), new SnakeTask(action, mid, to));
+        }
+    }
+
+    /**
+     * Changes the way the snakes are updated each tick
+     *
+     * @param mode The update mode to use
+     * @return Returns the controller to enable method chaining
+     */
+    public EntityController setUpdateMode(UPDATE_MODE mode) {
+        updateMode = mode;
+        return this;
+    }
+
+    /**
+     * Fetch the way the snakes are updated each tick
+     *
+     * @return Returns the update mode
+     */
+    public UPDATE_MODE getUpdateMode() {
+        return updateMode;
+    }
+
     /**
      * Redraws all entities currently registered
      *
-     * @see #entities
+     * @see #snakes
+     * @see #pickups
      */
     public void redraw() {
-        for(Entity entity : entities) {
-            entity.paintComponent();
+        for(int i = 0; i < snakes.size(); i++) {
+            snakes.get(i).paintComponent();
+        }
+        for(int p = 0; p < pickups.size(); p++) {
+            DenseStore<? extends Pickup> store = pickups.get(p);
+            for(int i = 0; i < store.size(); ) {
+                BufferedImage sprite = store.get(i).getSprite();
+                if(sprite == null) {
+                    store.get(i++).paintComponent();
+                } else {
+                    int end = batchPickups(store, i);
+                    gameInstance.drawImages(sprite, batchXs, batchYs, end - i);
+                    i = end;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds all entities currently registered to the snapshot being built
+     *
+     * @param frame The snapshot being built
+     * @see #snakes
+     * @see #pickups
+     */
+    public void snapshot(RenderSnapshot.Builder frame) {
+        for(int i = 0; i < snakes.size(); i++) {
+            snakes.get(i).snapshot(frame);
+        }
+        for(int p = 0; p < pickups.size(); p++) {
+            DenseStore<? extends Pickup> store = pickups.get(p);
+            for(int i = 0; i < store.size(); ) {
+                BufferedImage sprite = store.get(i).getSprite();
+                if(sprite == null) {
+                    store.get(i++).snapshot(frame);
+                } else {
+                    int end = batchPickups(store, i);
+                    frame.addSprites(sprite, batchXs, batchYs, end - i);
+                    i = end;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the positions of the run of pickups, starting at the index provided, that share the same image, in to
+     * {@code batchXs} and {@code batchYs}, so that they can be drawn together
+     *
+     * @param store The store holding the pickups
+     * @param from The index of the first pickup of the run
+     * @return Returns the index after the last pickup of the run
+     */
+    private int batchPickups(DenseStore<? extends Pickup> store, int from) {
+        BufferedImage sprite = store.get(from).getSprite();
+        int i = from;
+        for(int size = store.size(); i < size; i++) {
+            Pickup pickup = store.get(i);
+            if(pickup.getSprite() != sprite) break;
+
+            int b = i - from;
+            if(b == batchXs.length) {
+                batchXs = Arrays.copyOf(batchXs, b * 2);
+                batchYs = Arrays.copyOf(batchYs, b * 2);
+            }
+            batchXs[b] = pickup.getX();
+            batchYs[b] = pickup.getY();
+        }
+
+        return i;
+    }
+
+    /**
+     * Passes every entity currently registered to the action provided; snakes first, followed by the pickups
+     *
+     * @param action The action to perform on each entity
+     */
+    public void forEachEntity(Consumer<Entity> action) {
+        for(int i = 0; i < snakes.size(); i++) {
+            action.accept(snakes.get(i));
+        }
+        for(DenseStore<? extends Pickup> store : pickups) {
+            for(int i = 0; i < store.size(); i++) {
+                action.accept(store.get(i));
+            }
+        }
+    }
+
+    /**
+     * Fetches the store holding every pickup of the type provided, creating it if no pickup of that type has been
+     * spawned before
+     *
+     * @param type The type of pickup
+     * @param <T> The type of pickup
+     * @return Returns the store
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Pickup> DenseStore<T> getPickupStore(Class<T> type) {
+        for(DenseStore<? extends Pickup> store : pickups) {
+            if(store.getType() == type) return (DenseStore<T>) store;
         }
+
+        DenseStore<T> store = new DenseStore<>(type);
+        pickups.add(store);
+        return store;
     }
 
     /**
-     * Destroys all entities that have been queued to be removed
+     * Adds a pickup to the store for it's type
      *
-     * @see #entitiesToDestroy
+     * @param pickup The pickup to add
+     * @param <T> The type of pickup
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Pickup> void addPickup(T pickup) {
+        getPickupStore((Class<T>) pickup.getClass()).add(pickup);
+    }
+
+    /**
+     * Destroys all pickups that have been queued to be removed. Each removal moves the last pickup of the same type in
+     * to the place of the one removed, so it takes constant time however many pickups are alive.
+     *
+     * @see #pickupsToDestroy
      */
     protected void destroyPickups() {
-        entities.removeAll(entitiesToDestroy);
-        entitiesToDestroy.clear();
+        CollisionController collisions = gameInstance.getCollisionController();
+        for(int i = 0; i < pickupsToDestroy.size(); i++) {
+            Pickup p = pickupsToDestroy.get(i);
+            // A pickup can be queued more than once; only the first removal finds it
+            if(getPickupStore(p.getClass()).remove(p.getHandle()) != null) {
+                collisions.removeEntity(p);
+                recyclePickup(p);
+            }
+        }
+        pickupsToDestroy.clear();
     }
 
     /**
-     * Spawns any entities that are currently queued
+     * Spawns any pickups that are currently queued
      *
-     * @see #entitiesToSpawn
+     * @see #pickupsToSpawn
      */
     protected void spawnPickups() {
-        entities.addAll(entitiesToSpawn);
-        entitiesToSpawn.clear();
+        CollisionController collisions = gameInstance.getCollisionController();
+        for(int i = 0; i < pickupsToSpawn.size(); i++) {
+            Pickup p = pickupsToSpawn.get(i);
+            addPickup(p);
+            collisions.addEntity(p);
+        }
+        pickupsToSpawn.clear();
+    }
+
+    /**
+     * Takes a pickup of the type provided from the pool of destroyed pickups, or creates one if there are none, ready
+     * to be spawned. A pickup must not be used once it's been destroyed, as it may be spawned again.
+     *
+     * @param type The type of pickup
+     * @param factory Creates a new pickup for the game provided, if there are none to reuse
+     * @param <T> The type of pickup
+     * @return Returns the pickup
+     */
+    public <T extends Pickup> T obtainPickup(Class<T> type, Function<SnakeGame, T> factory) {
+        Pickup pickup = getPickupPool(type).poll();
+        if(pickup == null) return factory.apply(gameInstance);
+
+        pickup.reset();
+        return type.cast(pickup);
+    }
+
+    /**
+     * Returns a pickup that is no longer in the game to the pool for it's type
+     *
+     * @param pickup The pickup to return
+     * @see #obtainPickup(Class, Function)
+     */
+    public void recyclePickup(Pickup pickup) {
+        getPickupPool(pickup.getClass()).recycle(pickup);
+    }
+
+    /**
+     * Fetches the pool of destroyed pickups of the type provided, creating it if needed
+     *
+     * @param type The type of pickup
+     * @return Returns the pool
+     */
+    protected ObjectPool<Pickup> getPickupPool(Class<? extends Pickup> type) {
+        ObjectPool<Pickup> pool = pickupPools.get(type);
+        if(pool == null) {
+            pool = new ObjectPool<>(PICKUP_POOL_CAPACITY);
+            pickupPools.put(type, pool);
+        }
+
+        return pool;
     }
 
     /**
@@ -127,67 +595,41 @@ public class EntityController extends Controller {
      * @return Returns the matching {@code SnakeEntity}, or {@code null} if no match was found
      */
     public SnakeEntity getPlayer(int playerId) {
-        if(playerCount < 1 || playerId > playerCount || playerId < 0)
+        if(playerId >= playerCount || playerId < 0)
             return null;
-        for(Entity entity : entities) {
-            if(entity instanceof SnakeEntity && ((SnakeEntity) entity).getPlayerId() == playerId)
-                return (SnakeEntity)entity;
-        }
 
-        return null;
+        return snakes.get(playerHandles[playerId]);
     }
 
     /**
-     * Handles incoming key presses by dispatching them to the players currently registered
+     * Handles incoming key presses by dispatching them to the players currently registered. The player and direction
+     * of the key are looked up in a table, so nothing is searched or created.
      *
      * @param event The {@code KeyEvent} to be dispatched
-     * @see #getPlayer(int)
+     * @see #buildKeyTable()
      */
     public void keyPressed(KeyEvent event) {
-        SnakeEntity[] players = {getPlayer(0), getPlayer(1)};
         int keycode = event.getKeyCode();
-        int i = 0;
-        switch(keycode) {
-            // Control UP
-            case KeyEvent.VK_UP:
-                i = 1;
-            case KeyEvent.VK_W:
-                players[Math.min(i, playerCount-1)].changeDirection(SnakeEntity.DIRECTION.UP);
-                break;
-
-            // Control DOWN
-            case KeyEvent.VK_DOWN:
-                i = 1;
-            case KeyEvent.VK_S:
-                players[Math.min(i, playerCount-1)].changeDirection(SnakeEntity.DIRECTION.DOWN);
-                break;
-
-            // Control RIGHT
-            case KeyEvent.VK_RIGHT:
-                i = 1;
-            case KeyEvent.VK_D:
-                players[Math.min(i, playerCount-1)].changeDirection(SnakeEntity.DIRECTION.RIGHT);
-                break;
-
-            // Control LEFT
-            case KeyEvent.VK_LEFT:
-                i = 1;
-            case KeyEvent.VK_A:
-                players[Math.min(i, playerCount-1)].changeDirection(SnakeEntity.DIRECTION.LEFT);
-                break;
-        }
+        if(keycode < 0 || keycode >= keyPlayers.length || keyPlayers[keycode] < 0) return;
+
+        SnakeEntity snake = getPlayer(keyPlayers[keycode]);
+        if(snake != null) snake.changeDirection(keyDirections[keycode]);
     }
 
     /**
      * Given a {@code Pickup} instance, this function generates a random point for it, ensuring that
-     * the pickup is clear of any other entities inside the game.
+     * the pickup is clear of any other entities inside the game. If the game is too full to fit the pickup, it isn't
+     * spawned.
      *
      * @param e The {@code Pickup} instance to be spawned
+     * @return Returns true if the pickup was spawned, false if there was no free space for it
      */
-    public void spawnPickupRandom(Pickup e) {
+    public boolean spawnPickupRandom(Pickup e) {
         RandomPoint p = new RandomPoint(e);
-        p.selectPoint();
+        if(!p.selectPoint()) return false;
+
         spawnPickup(e, p);
+        return true;
     }
 
     /**
@@ -201,7 +643,7 @@ public class EntityController extends Controller {
         e.setX(p.x);
         e.setY(p.y);
 
-        entitiesToSpawn.add(e);
+        pickupsToSpawn.add(e);
     }
 
     /**
@@ -211,6 +653,6 @@ public class EntityController extends Controller {
      * @see #destroyPickups()
      */
     public void destroyPickup(Pickup p) {
-        entitiesToDestroy.add(p);
+        pickupsToDestroy.add(p);
     }
 }
@@ -0,0 +1,129 @@
+package controllers;
+
+import java.util.Arrays;
+
+/**
+ * A record of changes to be made to the pieces of a single element inside a {@code SpatialGrid}. An element can
+ * record the changes caused by moving while other elements are moving on other threads, and the changes are then
+ * applied to the grid, which isn't safe to change from more than one thread, one element at a time.
+ *
+ * Changes are applied in the order they were recorded, so applying them straight after recording leaves the grid
+ * exactly as if each change had been made directly.
+ *
+ * @author Harry Felton - 18032692
+ * @see SpatialGrid
+ */
+public class GridChanges {
+    /**
+     * The kinds of change that can be recorded, matching the methods of {@code SpatialGrid} of the same name
+     */
+    private static final int MOVE = 0, INSERT_LINE = 1, EXTEND_LINE = 2, REMOVE_LINE = 3;
+
+    /**
+     * The changes recorded, stored as {@code kind, fromX, fromY, toX, toY} for each change
+     */
+    private int[] changes = new int[5 * 16];
+
+    /**
+     * The amount of values stored in {@code changes}
+     */
+    private int size = 0;
+
+    /**
+     * Records a piece moving. Nothing is recorded unless the piece has moved in to a different cell.
+     *
+     * @param fromX The X position the piece has moved from
+     * @param fromY The Y position the piece has moved from
+     * @param toX The X position the piece has moved to
+     * @param toY The Y position the piece has moved to
+     * @see SpatialGrid#move(int, int, int, int, int)
+     */
+    public void move(int fromX, int fromY, int toX, int toY) {
+        if(SpatialGrid.cellAt(fromX, fromY) != SpatialGrid.cellAt(toX, toY)) record(MOVE, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * Records a line being added
+     *
+     * @param fromX The X position of the start of the line
+     * @param fromY The Y position of the start of the line
+     * @param toX The X position of the end of the line
+     * @param toY The Y position of the end of the line
+     * @see SpatialGrid#insertLine(int, int, int, int, int)
+     */
+    public void insertLine(int fromX, int fromY, int toX, int toY) {
+        record(INSERT_LINE, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * Records a line being extended
+     *
+     * @param fromX The X position the line currently ends at
+     * @param fromY The Y position the line currently ends at
+     * @param toX The X position the line now ends at
+     * @param toY The Y position the line now ends at
+     * @see SpatialGrid#extendLine(int, int, int, int, int)
+     */
+    public void extendLine(int fromX, int fromY, int toX, int toY) {
+        record(EXTEND_LINE, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * Records a line being removed
+     *
+     * @param fromX The X position of the start of the line
+     * @param fromY The Y position of the start of the line
+     * @param toX The X position of the end of the line
+     * @param toY The Y position of the end of the line
+     * @see SpatialGrid#removeLine(int, int, int, int, int)
+     */
+    public void removeLine(int fromX, int fromY, int toX, int toY) {
+        record(REMOVE_LINE, fromX, fromY, toX, toY);
+    }
+
+    /**
+     * Makes every change recorded to the grid provided, in the order they were recorded, and then forgets them
+     *
+     * @param grid The grid to change
+     * @param handle The handle of the element inside the grid
+     */
+    public void applyTo(SpatialGrid grid, int handle) {
+        for(int i = 0; i < size; i += 5) {
+            int fromX = changes[i + 1], fromY = changes[i + 2], toX = changes[i + 3], toY = changes[i + 4];
+            switch(changes[i]) {
+                case MOVE:          grid.move(handle, fromX, fromY, toX, toY); break;
+                case INSERT_LINE:   grid.insertLine(handle, fromX, fromY, toX, toY); break;
+                case EXTEND_LINE:   grid.extendLine(handle, fromX, fromY, toX, toY); break;
+                default:            grid.removeLine(handle, fromX, fromY, toX, toY); break;
+            }
+        }
+
+        clear();
+    }
+
+    /**
+     * Forgets every change recorded, without making them
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a change to the end of the record
+     *
+     * @param kind The kind of change
+     * @param fromX The first X position of the change
+     * @param fromY The first Y position of the change
+     * @param toX The second X position of the change
+     * @param toY The second Y position of the change
+     */
+    private void record(int kind, int fromX, int fromY, int toX, int toY) {
+        if(size + 5 > changes.length) changes = Arrays.copyOf(changes, changes.length * 2);
+
+        changes[size++] = kind;
+        changes[size++] = fromX;
+        changes[size++] = fromY;
+        changes[size++] = toX;
+        changes[size++] = toY;
+    }
+}
@@ -0,0 +1,85 @@
+package controllers;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Keeps objects that are no longer in use, so that they can be used again instead of creating new ones. Used where
+ * objects are created and thrown away in large numbers every second.
+ *
+ * @param <T> The type of object kept
+ * @author Harry Felton - 18032692
+ */
+public class ObjectPool<T> {
+    /**
+     * The objects waiting to be used again
+     */
+    private Object[] free = new Object[16];
+
+    /**
+     * The amount of objects stored in {@code free}
+     */
+    private int size = 0;
+
+    /**
+     * The most objects the pool will keep; any more returned to the pool are left to be garbage collected
+     */
+    private final int capacity;
+
+    /**
+     * Constructs an empty pool
+     *
+     * @param capacity The most objects the pool will keep
+     */
+    public ObjectPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes an object from the pool, creating a new one if the pool is empty. An object taken from the pool is in the
+     * state it was in when returned, so must be reset by the caller.
+     *
+     * @param factory Creates a new object when the pool is empty
+     * @return Returns the object
+     */
+    public T obtain(Supplier<? extends T> factory) {
+        T object = poll();
+        return object == null ? factory.get() : object;
+    }
+
+    /**
+     * Takes an object from the pool, if there are any. An object taken from the pool is in the state it was in when
+     * returned, so must be reset by the caller.
+     *
+     * @return Returns the object, or null if the pool is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if(size == 0) return null;
+
+        T object = (T) free[--size];
+        free[size] = null;
+        return object;
+    }
+
+    /**
+     * Returns an object to the pool, once nothing is using it
+     *
+     * @param object The object to return
+     */
+    public void recycle(T object) {
+        if(size == capacity) return;
+        if(size == free.length) free = Arrays.copyOf(free, Math.min(capacity, size * 2));
+
+        free[size++] = object;
+    }
+
+    /**
+     * Fetch the amount of objects waiting to be used again
+     *
+     * @return Returns the amount of objects
+     */
+    public int size() {
+        return size;
+    }
+}
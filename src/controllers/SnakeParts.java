@@ -0,0 +1,136 @@
+package controllers;
+
+import entity.SnakeEntity;
+
+import java.util.Arrays;
+
+/**
+ * Holds the snake parts found by a query, each stored as the snake and the index of the part along with it's squared
+ * distance from the position queried. Each caller keeps it's own, so that a query can safely be made while the
+ * results of another are still being used.
+ *
+ * @author Harry Felton - 18032692
+ * @see SpatialQueries#nearestParts(int, int, int, SnakeEntity, SnakeParts)
+ * @see SpatialQueries#partsWithin(int, int, int, SnakeEntity, SnakeParts)
+ */
+public class SnakeParts {
+    /**
+     * The snake each part belongs to
+     */
+    private SnakeEntity[] snakes = new SnakeEntity[8];
+
+    /**
+     * The index of each part inside it's snake, 0 being the head
+     */
+    private int[] parts = new int[8];
+
+    /**
+     * The squared distance of each part from the position queried
+     */
+    private long[] distances = new long[8];
+
+    /**
+     * The amount of parts found
+     */
+    private int count = 0;
+
+    /**
+     * Fetch the amount of parts found
+     *
+     * @return Returns the amount of parts
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Fetch the snake a part found belongs to
+     *
+     * @param i The index of the result, from 0 to the amount returned by the query
+     * @return Returns the snake
+     */
+    public SnakeEntity getSnake(int i) {
+        return snakes[i];
+    }
+
+    /**
+     * Fetch the index of a part found inside it's snake
+     *
+     * @param i The index of the result, from 0 to the amount returned by the query
+     * @return Returns the index of the part, 0 being the head
+     */
+    public int getPart(int i) {
+        return parts[i];
+    }
+
+    /**
+     * Fetch the squared distance of a part found from the position queried
+     *
+     * @param i The index of the result, from 0 to the amount returned by the query
+     * @return Returns the squared distance
+     */
+    public long getDistance(int i) {
+        return distances[i];
+    }
+
+    /**
+     * Removes every result, ready for the next query
+     */
+    void clear() {
+        Arrays.fill(snakes, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Adds a part to the end of the results
+     *
+     * @param snake The snake the part belongs to
+     * @param part The index of the part
+     * @param distance The squared distance of the part from the position queried
+     */
+    public void add(SnakeEntity snake, int part, long distance) {
+        if(count == snakes.length) grow();
+
+        snakes[count] = snake;
+        parts[count] = part;
+        distances[count] = distance;
+        count++;
+    }
+
+    /**
+     * Offers a part to results that hold the nearest parts found so far, nearest first. The part is kept if there are
+     * fewer than {@code k} results, or if it's nearer than the furthest, which is then dropped.
+     *
+     * @param snake The snake the part belongs to
+     * @param part The index of the part
+     * @param distance The squared distance of the part from the position queried
+     * @param k The most results to keep
+     * @return Returns true if the part was kept, false if the results are full of nearer parts
+     */
+    public boolean offer(SnakeEntity snake, int part, long distance, int k) {
+        if(count == k && distance >= distances[k - 1]) return false;
+        if(count < k && count == snakes.length) grow();
+
+        // Insertion sort; only the handful of parts asked for are ever kept
+        int j = count < k ? count++ : k - 1;
+        while(j > 0 && distances[j - 1] > distance) {
+            snakes[j] = snakes[j - 1];
+            parts[j] = parts[j - 1];
+            distances[j] = distances[j - 1];
+            j--;
+        }
+        snakes[j] = snake;
+        parts[j] = part;
+        distances[j] = distance;
+        return true;
+    }
+
+    /**
+     * Doubles the capacity of the results
+     */
+    private void grow() {
+        snakes = Arrays.copyOf(snakes, count * 2);
+        parts = Arrays.copyOf(parts, count * 2);
+        distances = Arrays.copyOf(distances, count * 2);
+    }
+}
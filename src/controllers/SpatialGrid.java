@@ -0,0 +1,615 @@
+package controllers;
+
+import entity.Entity;
+import interfaces.BroadPhase;
+import interfaces.CollisionElement;
+import main.SnakeGame;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A uniform grid covering the game, used by the {@code CollisionController} to find the elements that a collision
+ * box could be touching without testing every element in the game.
+ *
+ * Elements are registered once, receiving a handle, and then add pieces of themselves to the grid by position. A
+ * piece is placed in the cell holding its top-left corner, and queries are widened by the size of the largest
+ * element registered, so a piece only ever needs to be in a single cell. When a piece moves it's moved from one cell
+ * to another; nothing is ever rebuilt. Each cell counts the pieces of each element inside it, so an element is only
+ * removed from a cell once all of it's pieces have left.
+ *
+ * Positions outside of the game are clamped in to the cells along the edge of the grid.
+ *
+ * The grid also tracks the free space on the board, for spawning pickups. A cell is free when no piece of a solid
+ * element could overlap it; as a piece is held by the cell of its top-left corner and is no larger than a cell, that
+ * is when neither the cell nor the cells above and to the left of it hold a solid element. The free cells are kept in
+ * a dense index, updated as elements enter and leave cells, so a random free cell can be picked without searching.
+ *
+ * @author Harry Felton - 18032692
+ * @see CollisionController#getGrid()
+ */
+public class SpatialGrid implements BroadPhase {
+    /**
+     * The width and height of each cell, in pixels
+     */
+    public static final int CELL_SIZE = 20;
+
+    /**
+     * The amount of columns of cells
+     */
+    protected static final int COLUMNS = (SnakeGame.WIDTH + CELL_SIZE - 1) / CELL_SIZE;
+
+    /**
+     * The amount of rows of cells
+     */
+    protected static final int ROWS = (SnakeGame.HEIGHT + CELL_SIZE - 1) / CELL_SIZE;
+
+    /**
+     * The handles of the elements inside each cell
+     */
+    private final int[][] cellHandles = new int[COLUMNS * ROWS][4];
+
+    /**
+     * The amount of pieces each element has inside each cell, matching the order of {@code cellHandles}
+     */
+    private final int[][] cellCounts = new int[COLUMNS * ROWS][4];
+
+    /**
+     * The amount of elements inside each cell
+     */
+    private final int[] cellSizes = new int[COLUMNS * ROWS];
+
+    /**
+     * The amount of solid elements inside each cell
+     */
+    private final int[] solidSizes = new int[COLUMNS * ROWS];
+
+    /**
+     * The amount of cells holding a solid element that could overlap each cell; itself, and the cells above and to the
+     * left of it. A cell is free when this is 0
+     */
+    private final byte[] blockers = new byte[COLUMNS * ROWS];
+
+    /**
+     * The index of every free cell, in no particular order
+     */
+    private final int[] freeCells = new int[COLUMNS * ROWS];
+
+    /**
+     * The position of each cell inside {@code freeCells}, or -1 if the cell isn't free
+     */
+    private final int[] freeSlots = new int[COLUMNS * ROWS];
+
+    /**
+     * The amount of cells stored in {@code freeCells}
+     */
+    private int freeCellCount = 0;
+
+    /**
+     * The element registered under each handle, or null if the handle is free
+     */
+    private CollisionElement[] elements = new CollisionElement[16];
+
+    /**
+     * The order each element was registered in; queries return elements in this order
+     */
+    private long[] orders = new long[16];
+
+    /**
+     * The amount of cells holding a piece of each element; once it reaches zero, no cell needs to be searched to
+     * remove the element
+     */
+    private int[] cellsHeld = new int[16];
+
+    /**
+     * Whether each element is solid, stopping pickups from being spawned on top of it
+     */
+    private boolean[] solid = new boolean[16];
+
+    /**
+     * Handles that have been unregistered, ready to be reused
+     */
+    private int[] freeHandles = new int[16];
+
+    /**
+     * The amount of handles stored in {@code freeHandles}
+     */
+    private int freeCount = 0;
+
+    /**
+     * The amount of handles that have ever been given out since the grid was last cleared
+     */
+    private int handleCount = 0;
+
+    /**
+     * The order given to the next element registered
+     */
+    private long nextOrder = 0;
+
+    /**
+     * The largest width or height of any element registered. Queries are widened by this amount, so that pieces
+     * whose top-left corner is outside of the query, but overlap it, are still found.
+     */
+    private int reach = 0;
+
+    /**
+     * Constructs an empty grid, with every cell free
+     */
+    public SpatialGrid() {
+        clear();
+    }
+
+    /**
+     * Registers an element with the grid. The element won't be found by any queries until it adds pieces to the grid.
+     *
+     * @param element The element to register
+     * @param width The width of the pieces of the element
+     * @param height The height of the pieces of the element
+     * @param isSolid Whether the element stops pickups from being spawned on top of it
+     * @return Returns the handle used to add, move and remove pieces of the element
+     */
+    public int register(CollisionElement element, int width, int height, boolean isSolid) {
+        int handle;
+        if(freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            handle = handleCount++;
+            if(handle == elements.length) {
+                int capacity = handle * 2;
+                elements = Arrays.copyOf(elements, capacity);
+                orders = Arrays.copyOf(orders, capacity);
+                cellsHeld = Arrays.copyOf(cellsHeld, capacity);
+                solid = Arrays.copyOf(solid, capacity);
+            }
+        }
+
+        elements[handle] = element;
+        cellsHeld[handle] = 0;
+        solid[handle] = isSolid;
+        orders[handle] = nextOrder++;
+        reach = Math.max(reach, Math.max(width, height));
+
+        return handle;
+    }
+
+    /**
+     * Removes an element, and all of it's pieces, from the grid. The cells are searched for any pieces that are left,
+     * so an element that knows where it's pieces are should remove them first.
+     *
+     * @param handle The handle of the element
+     */
+    public void unregister(int handle) {
+        if(handle < 0 || elements[handle] == null) return;
+
+        for(int cell = 0; cell < cellSizes.length && cellsHeld[handle] > 0; cell++) {
+            int index = indexOf(cell, handle);
+            if(index >= 0) removeAt(cell, index);
+        }
+
+        elements[handle] = null;
+        if(freeCount == freeHandles.length) freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        freeHandles[freeCount++] = handle;
+    }
+
+    /**
+     * Adds an entity to the grid, by asking it to register and add it's pieces
+     *
+     * @param entity The entity to add
+     */
+    @Override
+    public void add(Entity entity) {
+        entity.addToCollisionGrid(this);
+    }
+
+    /**
+     * Removes an entity, and all of it's pieces, from the grid
+     *
+     * @param entity The entity to remove
+     */
+    @Override
+    public void remove(Entity entity) {
+        entity.removeFromCollisionGrid();
+    }
+
+    /**
+     * Entities move their own pieces as they move, so nothing is needed here
+     *
+     * @param entity The entity that has moved
+     */
+    @Override
+    public void update(Entity entity) {}
+
+    /**
+     * Removes every element from the grid
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(cellSizes, 0);
+        Arrays.fill(elements, null);
+        handleCount = 0;
+        freeCount = 0;
+        reach = 0;
+
+        Arrays.fill(solidSizes, 0);
+        Arrays.fill(blockers, (byte)0);
+        for(int cell = 0; cell < freeCells.length; cell++) {
+            freeCells[cell] = cell;
+            freeSlots[cell] = cell;
+        }
+        freeCellCount = freeCells.length;
+    }
+
+    /**
+     * Adds a piece of an element to the grid
+     *
+     * @param handle The handle of the element
+     * @param x The X position of the top-left of the piece
+     * @param y The Y position of the top-left of the piece
+     */
+    public void insert(int handle, int x, int y) {
+        addToCell(cellOf(column(x), row(y)), handle);
+    }
+
+    /**
+     * Removes a piece of an element from the grid
+     *
+     * @param handle The handle of the element
+     * @param x The X position of the top-left of the piece
+     * @param y The Y position of the top-left of the piece
+     */
+    public void remove(int handle, int x, int y) {
+        removeFromCell(cellOf(column(x), row(y)), handle);
+    }
+
+    /**
+     * Moves a piece of an element. Nothing is changed unless the piece has moved in to a different cell.
+     *
+     * @param handle The handle of the element
+     * @param fromX The X position the piece has moved from
+     * @param fromY The Y position the piece has moved from
+     * @param toX The X position the piece has moved to
+     * @param toY The Y position the piece has moved to
+     */
+    public void move(int handle, int fromX, int fromY, int toX, int toY) {
+        int from = cellOf(column(fromX), row(fromY));
+        int to = cellOf(column(toX), row(toY));
+        if(from == to) return;
+
+        removeFromCell(from, handle);
+        addToCell(to, handle);
+    }
+
+    /**
+     * Adds a straight, horizontal or vertical, line of pieces to the grid; one piece in every cell the line passes
+     * through. Used for elements made of continuous lines rather than separate pieces.
+     *
+     * @param handle The handle of the element
+     * @param fromX The X position of the start of the line
+     * @param fromY The Y position of the start of the line
+     * @param toX The X position of the end of the line
+     * @param toY The Y position of the end of the line
+     */
+    public void insertLine(int handle, int fromX, int fromY, int toX, int toY) {
+        int c1 = column(fromX), c2 = column(toX), r1 = row(fromY), r2 = row(toY);
+        for(int c = Math.min(c1, c2); c <= Math.max(c1, c2); c++) {
+            for(int r = Math.min(r1, r2); r <= Math.max(r1, r2); r++) addToCell(cellOf(c, r), handle);
+        }
+    }
+
+    /**
+     * Extends a line added by {@link #insertLine(int, int, int, int, int)}, adding a piece to each cell the extension
+     * passes through other than the cell the line already ends in
+     *
+     * @param handle The handle of the element
+     * @param fromX The X position the line currently ends at
+     * @param fromY The Y position the line currently ends at
+     * @param toX The X position the line now ends at
+     * @param toY The Y position the line now ends at
+     */
+    public void extendLine(int handle, int fromX, int fromY, int toX, int toY) {
+        int c1 = column(fromX), c2 = column(toX), r1 = row(fromY), r2 = row(toY);
+        if(c1 == c2 && r1 == r2) return;
+
+        int stepC = Integer.signum(c2 - c1), stepR = Integer.signum(r2 - r1);
+        for(int c = c1 + stepC, r = r1 + stepR; ; c += stepC, r += stepR) {
+            addToCell(cellOf(c, r), handle);
+            if(c == c2 && r == r2) break;
+        }
+    }
+
+    /**
+     * Removes a line added by {@link #insertLine(int, int, int, int, int)}
+     *
+     * @param handle The handle of the element
+     * @param fromX The X position of the start of the line
+     * @param fromY The Y position of the start of the line
+     * @param toX The X position of the end of the line
+     * @param toY The Y position of the end of the line
+     */
+    public void removeLine(int handle, int fromX, int fromY, int toX, int toY) {
+        int c1 = column(fromX), c2 = column(toX), r1 = row(fromY), r2 = row(toY);
+        for(int c = Math.min(c1, c2); c <= Math.max(c1, c2); c++) {
+            for(int r = Math.min(r1, r2); r <= Math.max(r1, r2); r++) removeFromCell(cellOf(c, r), handle);
+        }
+    }
+
+    /**
+     * Tests if a box of the size provided, placed anywhere inside a free cell, is guaranteed not to overlap any solid
+     * element
+     *
+     * @param width The width of the box
+     * @param height The height of the box
+     * @return Returns true if free cells can be used to place the box
+     * @see #randomFreeCell(Random, int, int, int, int)
+     */
+    public boolean fitsInFreeCell(int width, int height) {
+        return width <= CELL_SIZE && height <= CELL_SIZE && reach <= CELL_SIZE;
+    }
+
+    /**
+     * Fetch the amount of free cells on the board
+     *
+     * @return Returns the amount of free cells
+     */
+    public int getFreeCellCount() {
+        return freeCellCount;
+    }
+
+    /**
+     * Picks a random free cell, with it's top-left corner inside the area provided. A few cells are picked directly
+     * from the index of free cells; if none of those are inside the area, the free cells are searched instead.
+     *
+     * @param random The random number generator to pick with
+     * @param minX The smallest X position of the top-left of the cell
+     * @param minY The smallest Y position of the top-left of the cell
+     * @param maxX The largest X position of the top-left of the cell
+     * @param maxY The largest Y position of the top-left of the cell
+     * @return Returns the index of the cell, or -1 if there are no free cells inside the area
+     */
+    public int randomFreeCell(Random random, int minX, int minY, int maxX, int maxY) {
+        if(freeCellCount == 0) return -1;
+
+        for(int attempt = 0; attempt < 8; attempt++) {
+            int cell = freeCells[random.nextInt(freeCellCount)];
+            if(isCellInside(cell, minX, minY, maxX, maxY)) return cell;
+        }
+
+        // Most of the free cells are outside of the area; pick evenly from those inside it
+        int picked = -1;
+        for(int i = 0, found = 0; i < freeCellCount; i++) {
+            int cell = freeCells[i];
+            if(isCellInside(cell, minX, minY, maxX, maxY) && random.nextInt(++found) == 0) picked = cell;
+        }
+
+        return picked;
+    }
+
+    /**
+     * Finds the X position of the left of a cell
+     *
+     * @param cell The index of the cell
+     * @return Returns the X position
+     */
+    public static int cellX(int cell) {
+        return (cell % COLUMNS) * CELL_SIZE;
+    }
+
+    /**
+     * Finds the Y position of the top of a cell
+     *
+     * @param cell The index of the cell
+     * @return Returns the Y position
+     */
+    public static int cellY(int cell) {
+        return (cell / COLUMNS) * CELL_SIZE;
+    }
+
+    /**
+     * Tests if the top-left of a cell is inside the area provided
+     *
+     * @param cell The index of the cell
+     * @param minX The smallest X position
+     * @param minY The smallest Y position
+     * @param maxX The largest X position
+     * @param maxY The largest Y position
+     * @return Returns true if the cell is inside the area
+     */
+    private static boolean isCellInside(int cell, int minX, int minY, int maxX, int maxY) {
+        int x = cellX(cell), y = cellY(cell);
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    /**
+     * Finds the elements with a piece that could be touching the box provided. Only the cells overlapping the box
+     * are visited. Nothing is changed by a query, so queries can be made from several threads at once as long as
+     * nothing is being added, moved or removed.
+     *
+     * @param x The X position of the box to search
+     * @param y The Y position of the box to search
+     * @param width The width of the box to search
+     * @param height The height of the box to search
+     * @param results Where to store the elements found, in the order they were registered
+     * @return Returns the amount of elements found
+     */
+    @Override
+    public int query(int x, int y, int width, int height, CollisionCandidates results) {
+        results.clear();
+
+        int c1 = column(x - reach + 1), c2 = column(x + width - 1);
+        int r1 = row(y - reach + 1), r2 = row(y + height - 1);
+        for(int c = c1; c <= c2; c++) {
+            for(int r = r1; r <= r2; r++) {
+                int cell = cellOf(c, r);
+                int[] cellHandle = cellHandles[cell];
+                for(int i = 0, size = cellSizes[cell]; i < size; i++) {
+                    // An element with pieces in several cells is only kept once by the results
+                    int handle = cellHandle[i];
+                    results.add(elements[handle], orders[handle]);
+                }
+            }
+        }
+
+        return results.size();
+    }
+
+    /**
+     * Fetch the amount of elements with a piece inside a cell
+     *
+     * @param cell The index of the cell
+     * @return Returns the amount of elements
+     */
+    int getCellSize(int cell) {
+        return cellSizes[cell];
+    }
+
+    /**
+     * Fetch an element with a piece inside a cell
+     *
+     * @param cell The index of the cell
+     * @param i The index of the element inside the cell, from 0 to {@code getCellSize(cell) - 1}
+     * @return Returns the element
+     */
+    CollisionElement getCellElement(int cell, int i) {
+        return elements[cellHandles[cell][i]];
+    }
+
+    /**
+     * Finds the cell holding the position provided
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @return Returns the index of the cell, clamped to the grid
+     */
+    static int cellAt(int x, int y) {
+        return cellOf(column(x), row(y));
+    }
+
+    /**
+     * Finds the column of cells holding the X position provided
+     *
+     * @param x The X position
+     * @return Returns the column, clamped to the grid
+     */
+    static int column(int x) {
+        return Math.max(0, Math.min(COLUMNS - 1, Math.floorDiv(x, CELL_SIZE)));
+    }
+
+    /**
+     * Finds the row of cells holding the Y position provided
+     *
+     * @param y The Y position
+     * @return Returns the row, clamped to the grid
+     */
+    static int row(int y) {
+        return Math.max(0, Math.min(ROWS - 1, Math.floorDiv(y, CELL_SIZE)));
+    }
+
+    /**
+     * Finds the index of a cell
+     *
+     * @param column The column of the cell
+     * @param row The row of the cell
+     * @return Returns the index of the cell
+     */
+    static int cellOf(int column, int row) {
+        return row * COLUMNS + column;
+    }
+
+    /**
+     * Finds where an element is stored inside a cell
+     *
+     * @param cell The index of the cell
+     * @param handle The handle of the element
+     * @return Returns the index of the element inside the cell, or -1 if it isn't in the cell
+     */
+    private int indexOf(int cell, int handle) {
+        int[] cellHandle = cellHandles[cell];
+        for(int i = 0, size = cellSizes[cell]; i < size; i++) {
+            if(cellHandle[i] == handle) return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Adds a piece of an element to a cell
+     *
+     * @param cell The index of the cell
+     * @param handle The handle of the element
+     */
+    private void addToCell(int cell, int handle) {
+        int index = indexOf(cell, handle);
+        if(index >= 0) {
+            cellCounts[cell][index]++;
+            return;
+        }
+
+        int size = cellSizes[cell];
+        if(size == cellHandles[cell].length) {
+            cellHandles[cell] = Arrays.copyOf(cellHandles[cell], size * 2);
+            cellCounts[cell] = Arrays.copyOf(cellCounts[cell], size * 2);
+        }
+
+        cellHandles[cell][size] = handle;
+        cellCounts[cell][size] = 1;
+        cellSizes[cell]++;
+        cellsHeld[handle]++;
+        if(solid[handle] && solidSizes[cell]++ == 0) changeBlockers(cell, 1);
+    }
+
+    /**
+     * Removes a piece of an element from a cell, removing the element from the cell if it was the last piece
+     *
+     * @param cell The index of the cell
+     * @param handle The handle of the element
+     */
+    private void removeFromCell(int cell, int handle) {
+        int index = indexOf(cell, handle);
+        if(index >= 0 && --cellCounts[cell][index] == 0) removeAt(cell, index);
+    }
+
+    /**
+     * Removes an element from a cell, by moving the last element of the cell in to it's place
+     *
+     * @param cell The index of the cell
+     * @param index The index of the element inside the cell
+     */
+    private void removeAt(int cell, int index) {
+        int handle = cellHandles[cell][index];
+        cellsHeld[handle]--;
+        if(solid[handle] && --solidSizes[cell] == 0) changeBlockers(cell, -1);
+
+        int last = --cellSizes[cell];
+        cellHandles[cell][index] = cellHandles[cell][last];
+        cellCounts[cell][index] = cellCounts[cell][last];
+    }
+
+    /**
+     * Updates the cells that a solid element inside the cell provided could overlap, after the cell has gained it's
+     * first, or lost it's last, solid element; moving any cell that has become blocked or free in the free cell index
+     *
+     * @param cell The index of the cell
+     * @param change 1 if the cell has gained a solid element, -1 if it's lost one
+     */
+    private void changeBlockers(int cell, int change) {
+        int column = cell % COLUMNS, row = cell / COLUMNS;
+        for(int c = column; c <= Math.min(column + 1, COLUMNS - 1); c++) {
+            for(int r = row; r <= Math.min(row + 1, ROWS - 1); r++) {
+                int blocked = cellOf(c, r);
+                blockers[blocked] += change;
+
+                if(change > 0 && blockers[blocked] == 1) {
+                    // Swap the last free cell in to it's place
+                    int slot = freeSlots[blocked];
+                    int last = freeCells[--freeCellCount];
+                    freeCells[slot] = last;
+                    freeSlots[last] = slot;
+                    freeSlots[blocked] = -1;
+                } else if(change < 0 && blockers[blocked] == 0) {
+                    freeCells[freeCellCount] = blocked;
+                    freeSlots[blocked] = freeCellCount++;
+                }
+            }
+        }
+    }
+}
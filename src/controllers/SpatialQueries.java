@@ -0,0 +1,299 @@
+package controllers;
+
+import entity.Pickup;
+import entity.SnakeEntity;
+import interfaces.CollisionElement;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers questions about what is near a position, such as the nearest apple to the head of a snake or the closest
+ * parts of other snakes, for bots and analytics. Pickups and snake parts can each be queried for the {@code k}
+ * nearest to a position, or for every one within a distance of it.
+ *
+ * Every query is answered from the {@code SpatialGrid}, which is kept up to date as entities move, so nothing needs
+ * building before a query. The cells around the position are searched in rings of increasing distance, and the search
+ * stops once no unsearched cell could hold anything closer than what's been found; only the cells near the answer are
+ * visited, rather than every entity in the game.
+ *
+ * Distances are measured between the positions of the top-left corners of pickups and snake parts. A single instance
+ * is shared by the game, so queries must be made from the thread updating the game.
+ *
+ * @author Harry Felton - 18032692
+ * @see CollisionController#getSpatialQueries()
+ */
+public class SpatialQueries {
+    /**
+     * The ring of cells that covers the entire grid, wherever the search starts
+     */
+    private static final int MAX_RING = Math.max(SpatialGrid.COLUMNS, SpatialGrid.ROWS);
+
+    /**
+     * The grid the queries are answered from
+     */
+    private final SpatialGrid grid;
+
+    /**
+     * The squared distance of each pickup found by {@link #nearestPickups(int, int, int, Class, Pickup[])}
+     */
+    private long[] distances = new long[8];
+
+    /**
+     * The snakes already measured by the current query of snake parts, as a snake is held by many cells
+     */
+    private SnakeEntity[] measured = new SnakeEntity[4];
+
+    /**
+     * The result of {@link #nearestSnake(int, int, SnakeEntity)}, found as the single nearest part
+     */
+    private final SnakeParts nearestPart = new SnakeParts();
+
+    /**
+     * Constructs the queries over the grid provided
+     *
+     * @param grid The grid to answer queries from
+     */
+    public SpatialQueries(SpatialGrid grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * Finds the pickups nearest to the position provided
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param k The most pickups to find
+     * @param type The type of pickup to find, or null to find pickups of any type
+     * @param nearest Where to store the pickups found, nearest first; at most {@code nearest.length} are found
+     * @return Returns the amount of pickups found
+     */
+    public int nearestPickups(int x, int y, int k, Class<? extends Pickup> type, Pickup[] nearest) {
+        k = Math.min(k, nearest.length);
+        if(k <= 0) return 0;
+        if(distances.length < k) distances = new long[k];
+
+        int found = 0;
+        int column = SpatialGrid.column(x), row = SpatialGrid.row(y);
+        for(int ring = 0; ring <= MAX_RING; ring++) {
+            if(found == k && distances[k - 1] <= square(getRingDistance(x, y, column, row, ring))) break;
+
+            for(int c = column - ring; c <= column + ring; c++) {
+                if(c < 0 || c >= SpatialGrid.COLUMNS) continue;
+
+                // Only the edges of the ring; the inside has already been searched
+                int step = c == column - ring || c == column + ring ? 1 : Math.max(1, 2 * ring);
+                for(int r = row - ring; r <= row + ring; r += step) {
+                    if(r < 0 || r >= SpatialGrid.ROWS) continue;
+
+                    int cell = SpatialGrid.cellOf(c, r);
+                    for(int i = 0, size = grid.getCellSize(cell); i < size; i++) {
+                        CollisionElement element = grid.getCellElement(cell, i);
+                        if(element.getKind() != CollisionElement.KIND.PICKUP) continue;
+
+                        Pickup pickup = (Pickup) element;
+                        if(type != null && !type.isInstance(pickup)) continue;
+
+                        long distance = square(pickup.getX() - x) + square(pickup.getY() - y);
+                        if(found == k && distance >= distances[k - 1]) continue;
+
+                        // Insertion sort in to the pickups found so far, dropping the furthest when full
+                        int j = found < k ? found++ : k - 1;
+                        while(j > 0 && distances[j - 1] > distance) {
+                            distances[j] = distances[j - 1];
+                            nearest[j] = nearest[j - 1];
+                            j--;
+                        }
+                        distances[j] = distance;
+                        nearest[j] = pickup;
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds every pickup within the distance provided of the position provided
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param radius The distance from the position
+     * @param type The type of pickup to find, or null to find pickups of any type
+     * @param within Where to add the pickups found, in no particular order
+     * @return Returns the amount of pickups found
+     */
+    public int pickupsWithin(int x, int y, int radius, Class<? extends Pickup> type, List<? super Pickup> within) {
+        long limit = square(radius);
+        int found = 0;
+        for(int c = SpatialGrid.column(x - radius), c2 = SpatialGrid.column(x + radius); c <= c2; c++) {
+            for(int r = SpatialGrid.row(y - radius), r2 = SpatialGrid.row(y + radius); r <= r2; r++) {
+                int cell = SpatialGrid.cellOf(c, r);
+                for(int i = 0, size = grid.getCellSize(cell); i < size; i++) {
+                    CollisionElement element = grid.getCellElement(cell, i);
+                    if(element.getKind() != CollisionElement.KIND.PICKUP) continue;
+
+                    Pickup pickup = (Pickup) element;
+                    if((type == null || type.isInstance(pickup))
+                            && square(pickup.getX() - x) + square(pickup.getY() - y) <= limit) {
+                        within.add(pickup);
+                        found++;
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds the snake with a part nearest to the position provided. The part itself can then be found with
+     * {@link SnakeEntity#findNearestPart(int, int)}.
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param exclude A snake to ignore, such as the snake asking, or null to consider every snake
+     * @return Returns the nearest snake, or null if there are no other snakes
+     */
+    public SnakeEntity nearestSnake(int x, int y, SnakeEntity exclude) {
+        SnakeEntity nearest = nearestParts(x, y, 1, exclude, nearestPart) > 0 ? nearestPart.getSnake(0) : null;
+        nearestPart.clear();
+        return nearest;
+    }
+
+    /**
+     * Finds the snake parts nearest to the position provided. Each snake found in the cells searched offers it's
+     * nearest parts, so a snake is only measured once however many cells it's held by.
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param k The most parts to find
+     * @param exclude A snake to ignore, such as the snake asking, or null to consider every snake
+     * @param nearest Where to store the parts found, nearest first; cleared before the query
+     * @return Returns the amount of parts found
+     * @see SnakeEntity#findNearestParts(int, int, int, SnakeParts)
+     */
+    public int nearestParts(int x, int y, int k, SnakeEntity exclude, SnakeParts nearest) {
+        nearest.clear();
+        if(k <= 0) return 0;
+        int measuredCount = 0;
+
+        int column = SpatialGrid.column(x), row = SpatialGrid.row(y);
+        for(int ring = 0; ring <= MAX_RING; ring++) {
+            if(nearest.size() == k && nearest.getDistance(k - 1) <= square(getRingDistance(x, y, column, row, ring))) break;
+
+            for(int c = column - ring; c <= column + ring; c++) {
+                if(c < 0 || c >= SpatialGrid.COLUMNS) continue;
+
+                int step = c == column - ring || c == column + ring ? 1 : Math.max(1, 2 * ring);
+                for(int r = row - ring; r <= row + ring; r += step) {
+                    if(r < 0 || r >= SpatialGrid.ROWS) continue;
+
+                    int cell = SpatialGrid.cellOf(c, r);
+                    for(int i = 0, size = grid.getCellSize(cell); i < size; i++) {
+                        CollisionElement element = grid.getCellElement(cell, i);
+                        if(element.getKind() != CollisionElement.KIND.SNAKE || element == exclude) continue;
+
+                        SnakeEntity snake = (SnakeEntity) element;
+                        if(isMeasured(snake, measuredCount)) continue;
+
+                        if(measuredCount == measured.length) measured = Arrays.copyOf(measured, measuredCount * 2);
+                        measured[measuredCount++] = snake;
+
+                        snake.findNearestParts(x, y, k, nearest);
+                    }
+                }
+            }
+        }
+
+        Arrays.fill(measured, 0, measuredCount, null);
+        return nearest.size();
+    }
+
+    /**
+     * Finds every snake part within the distance provided of the position provided
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param radius The distance from the position
+     * @param exclude A snake to ignore, such as the snake asking, or null to consider every snake
+     * @param within Where to store the parts found, in no particular order; cleared before the query
+     * @return Returns the amount of parts found
+     * @see SnakeEntity#findPartsWithin(int, int, int, SnakeParts)
+     */
+    public int partsWithin(int x, int y, int radius, SnakeEntity exclude, SnakeParts within) {
+        within.clear();
+        int measuredCount = 0;
+
+        for(int c = SpatialGrid.column(x - radius), c2 = SpatialGrid.column(x + radius); c <= c2; c++) {
+            for(int r = SpatialGrid.row(y - radius), r2 = SpatialGrid.row(y + radius); r <= r2; r++) {
+                int cell = SpatialGrid.cellOf(c, r);
+                for(int i = 0, size = grid.getCellSize(cell); i < size; i++) {
+                    CollisionElement element = grid.getCellElement(cell, i);
+                    if(element.getKind() != CollisionElement.KIND.SNAKE || element == exclude) continue;
+
+                    SnakeEntity snake = (SnakeEntity) element;
+                    if(isMeasured(snake, measuredCount)) continue;
+
+                    if(measuredCount == measured.length) measured = Arrays.copyOf(measured, measuredCount * 2);
+                    measured[measuredCount++] = snake;
+
+                    snake.findPartsWithin(x, y, radius, within);
+                }
+            }
+        }
+
+        Arrays.fill(measured, 0, measuredCount, null);
+        return within.size();
+    }
+
+    /**
+     * Tests if a snake has already been measured by the current query
+     *
+     * @param snake The snake
+     * @param count The amount of snakes measured so far
+     * @return Returns true if the snake has been measured
+     */
+    private boolean isMeasured(SnakeEntity snake, int count) {
+        for(int i = 0; i < count; i++) {
+            if(measured[i] == snake) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the least distance from the position provided to anything held by a cell in the ring provided, or any ring
+     * further out. Sides of the grid that have already been searched up to the edge are ignored.
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param column The column of the cell the search started from
+     * @param row The row of the cell the search started from
+     * @param ring The ring of cells
+     * @return Returns the least distance, or {@code Integer.MAX_VALUE} if every cell has been searched
+     */
+    private static int getRingDistance(int x, int y, int column, int row, int ring) {
+        if(ring == 0) return 0;
+
+        // Everything outside of the cells already searched
+        int distance = Integer.MAX_VALUE;
+        if(column - ring >= 0) distance = Math.min(distance, x - (column - ring + 1) * SpatialGrid.CELL_SIZE);
+        if(column + ring < SpatialGrid.COLUMNS) distance = Math.min(distance, (column + ring) * SpatialGrid.CELL_SIZE - x);
+        if(row - ring >= 0) distance = Math.min(distance, y - (row - ring + 1) * SpatialGrid.CELL_SIZE);
+        if(row + ring < SpatialGrid.ROWS) distance = Math.min(distance, (row + ring) * SpatialGrid.CELL_SIZE - y);
+
+        return Math.max(0, distance);
+    }
+
+    /**
+     * Squares a value, without overflowing
+     *
+     * @param value The value
+     * @return Returns the square of the value
+     */
+    private static long square(long value) {
+        return value * value;
+    }
+}
@@ -0,0 +1,345 @@
+package controllers;
+
+import entity.Entity;
+import interfaces.BroadPhase;
+
+import java.util.Arrays;
+
+/**
+ * A sweep and prune broad phase. The bounding box of every entity is kept in arrays sorted by it's left edge, so
+ * a query only has to look at the entities whose left edge falls inside a small window around the box, rather than
+ * every entity in the game.
+ *
+ * When an entity moves it's bounding box is refreshed and it's moved along the arrays until the order is restored.
+ * Entities only move a few pixels each tick, so this is normally a single comparison.
+ *
+ * Each entity holds the position of it's box as it's broad phase handle, so no lookup is needed to find it. Added
+ * boxes are appended after the sorted boxes, and removing an entity leaves a tombstone in place of it's box; both are
+ * dealt with by the sort pass run by the next update. A few added boxes are inserted in to place one at a time, while
+ * many added boxes, or a build up of tombstones, are dealt with by compacting and sorting every box at once. Adding and
+ * removing entities therefore take constant time, amortised over the sort passes. Queries never change the arrays, so
+ * they can be run from several threads at once.
+ *
+ * @author Harry Felton - 18032692
+ */
+public class SweepAndPrune implements BroadPhase {
+    /**
+     * The fraction of the boxes, as a right shift, that may be tombstones before the next sort pass compacts them
+     */
+    private static final int TOMBSTONE_SHIFT = 3;
+
+    /**
+     * The most added boxes the sort pass inserts one at a time; any more and every box is sorted at once
+     */
+    private static final int INSERTION_LIMIT = 16;
+
+    /**
+     * The entity owning each box, or null for a tombstone. The boxes before {@code sortedSize} are sorted by their left
+     * edge, and those after are in the order they were added.
+     */
+    private Entity[] entities = new Entity[16];
+
+    /**
+     * The order each entity was added in; queries return entities in this order
+     */
+    private long[] orders = new long[16];
+
+    /**
+     * The edges of each box
+     */
+    private int[] minXs = new int[16], minYs = new int[16], maxXs = new int[16], maxYs = new int[16];
+
+    /**
+     * The arrays the boxes are copied in to when every box is sorted at once, swapped with the arrays above afterwards
+     */
+    private Entity[] spareEntities = new Entity[16];
+    private long[] spareOrders = new long[16];
+    private int[] spareMinXs = new int[16], spareMinYs = new int[16], spareMaxXs = new int[16], spareMaxYs = new int[16];
+
+    /**
+     * The left edge and position of each box, packed to be sorted when every box is sorted at once
+     */
+    private long[] sortKeys = new long[16];
+
+    /**
+     * The amount of boxes stored, including tombstones
+     */
+    private int size = 0;
+
+    /**
+     * The amount of boxes, from the start of the arrays, that are sorted
+     */
+    private int sortedSize = 0;
+
+    /**
+     * The amount of tombstones stored
+     */
+    private int tombstones = 0;
+
+    /**
+     * The order given to the next entity added
+     */
+    private long nextOrder = 0;
+
+    /**
+     * The width of the widest box; a box whose left edge is further than this from a query can't overlap it. May be
+     * wider than the widest box left after removals, until the next compaction.
+     */
+    private int maxWidth = 0;
+
+    @Override
+    public void add(Entity entity) {
+        if(entity.getBroadPhaseHandle() >= 0) return;
+
+        if(size == entities.length) grow();
+        int i = size++;
+        entities[i] = entity;
+        orders[i] = nextOrder++;
+        entity.setBroadPhaseHandle(i);
+        refresh(i);
+        maxWidth = Math.max(maxWidth, maxXs[i] - minXs[i]);
+    }
+
+    @Override
+    public void remove(Entity entity) {
+        int i = entity.getBroadPhaseHandle();
+        if(i < 0 || i >= size || entities[i] != entity) return;
+
+        entities[i] = null;
+        entity.setBroadPhaseHandle(-1);
+        tombstones++;
+    }
+
+    @Override
+    public void update(Entity entity) {
+        if(entity.getBroadPhaseHandle() < 0) return;
+
+        sortPass();
+        int i = entity.getBroadPhaseHandle();
+        int oldWidth = maxXs[i] - minXs[i];
+        refresh(i);
+        sift(i, size);
+
+        int width = maxXs[entity.getBroadPhaseHandle()] - minXs[entity.getBroadPhaseHandle()];
+        if(width > maxWidth) {
+            maxWidth = width;
+        } else if(oldWidth == maxWidth && width < oldWidth) {
+            recalculateMaxWidth();
+        }
+    }
+
+    @Override
+    public void clear() {
+        for(int i = 0; i < size; i++) {
+            if(entities[i] != null) entities[i].setBroadPhaseHandle(-1);
+        }
+        Arrays.fill(entities, 0, size, null);
+        size = 0;
+        sortedSize = 0;
+        tombstones = 0;
+        maxWidth = 0;
+    }
+
+    @Override
+    public int query(int x, int y, int width, int height, CollisionCandidates results) {
+        results.clear();
+
+        // Only sorted boxes starting within maxWidth to the left of the query can reach it
+        int right = x + width;
+        for(int i = lowerBound(x - maxWidth); i < sortedSize; i++) {
+            if(minXs[i] >= right) break;
+            if(overlaps(i, x, y, right, y + height)) results.add(entities[i], orders[i]);
+        }
+
+        // Boxes added since the last sort pass are tested in turn
+        for(int i = sortedSize; i < size; i++) {
+            if(overlaps(i, x, y, right, y + height)) results.add(entities[i], orders[i]);
+        }
+
+        return results.size();
+    }
+
+    /**
+     * Tests if a box overlaps the area provided
+     *
+     * @param i The position of the box
+     * @param x1 The left of the area
+     * @param y1 The top of the area
+     * @param x2 The right of the area
+     * @param y2 The bottom of the area
+     * @return Returns true if the box isn't a tombstone and overlaps the area
+     */
+    private boolean overlaps(int i, int x1, int y1, int x2, int y2) {
+        return entities[i] != null && minXs[i] < x2 && maxXs[i] > x1 && minYs[i] < y2 && maxYs[i] > y1;
+    }
+
+    /**
+     * Refreshes a box from the bounds of it's entity
+     *
+     * @param i The position of the box
+     */
+    private void refresh(int i) {
+        Entity entity = entities[i];
+        minXs[i] = entity.getBoundsX();
+        minYs[i] = entity.getBoundsY();
+        maxXs[i] = minXs[i] + entity.getBoundsWidth();
+        maxYs[i] = minYs[i] + entity.getBoundsHeight();
+    }
+
+    /**
+     * Brings every box in to order. The boxes added since the last pass are inserted in to place if there are only a
+     * few of them, otherwise the tombstones are compacted away and every box is sorted at once, as they are when the
+     * tombstones have built up past {@link #TOMBSTONE_SHIFT}.
+     */
+    private void sortPass() {
+        if(size - sortedSize > INSERTION_LIMIT || tombstones > size >> TOMBSTONE_SHIFT) {
+            sortAll();
+            return;
+        }
+
+        while(sortedSize < size) {
+            sift(sortedSize, sortedSize + 1);
+            sortedSize++;
+        }
+    }
+
+    /**
+     * Compacts away the tombstones and sorts every box at once, recalculating the width of the widest box
+     */
+    private void sortAll() {
+        int live = 0;
+        for(int i = 0; i < size; i++) {
+            // The left edge is kept in the high bits, so the packed keys sort by it; negative edges sort first
+            if(entities[i] != null) sortKeys[live++] = ((long)minXs[i] << 32) | i;
+        }
+        Arrays.sort(sortKeys, 0, live);
+
+        maxWidth = 0;
+        for(int k = 0; k < live; k++) {
+            int i = (int)sortKeys[k];
+            spareEntities[k] = entities[i];
+            spareOrders[k] = orders[i];
+            spareMinXs[k] = minXs[i];
+            spareMinYs[k] = minYs[i];
+            spareMaxXs[k] = maxXs[i];
+            spareMaxYs[k] = maxYs[i];
+            spareEntities[k].setBroadPhaseHandle(k);
+            maxWidth = Math.max(maxWidth, maxXs[i] - minXs[i]);
+        }
+        Arrays.fill(entities, 0, size, null);
+
+        Entity[] e = entities; entities = spareEntities; spareEntities = e;
+        long[] o = orders; orders = spareOrders; spareOrders = o;
+        int[] t = minXs; minXs = spareMinXs; spareMinXs = t;
+        t = minYs; minYs = spareMinYs; spareMinYs = t;
+        t = maxXs; maxXs = spareMaxXs; spareMaxXs = t;
+        t = maxYs; maxYs = spareMaxYs; spareMaxYs = t;
+
+        size = live;
+        sortedSize = live;
+        tombstones = 0;
+    }
+
+    /**
+     * Moves a box along the arrays until it's in order, shifting the boxes it passes. The box may be a tombstone
+     *
+     * @param from The position of the box
+     * @param end The position after the last box it may move past
+     */
+    private void sift(int from, int end) {
+        Entity entity = entities[from];
+        long order = orders[from];
+        int minX = minXs[from], minY = minYs[from], maxX = maxXs[from], maxY = maxYs[from];
+
+        int i = from;
+        while(i > 0 && minXs[i - 1] > minX) {
+            move(i - 1, i);
+            i--;
+        }
+        if(i == from) {
+            while(i < end - 1 && minXs[i + 1] < minX) {
+                move(i + 1, i);
+                i++;
+            }
+        }
+        if(i == from) return;
+
+        entities[i] = entity;
+        orders[i] = order;
+        minXs[i] = minX;
+        minYs[i] = minY;
+        maxXs[i] = maxX;
+        maxYs[i] = maxY;
+        // Tombstones are sifted too, keeping their last left edge, so the sorted boxes stay in order
+        if(entity != null) entity.setBroadPhaseHandle(i);
+    }
+
+    /**
+     * Moves a box to another position, updating the handle of it's entity
+     *
+     * @param from The position of the box
+     * @param to The position to move it to
+     */
+    private void move(int from, int to) {
+        Entity entity = entities[from];
+        entities[to] = entity;
+        orders[to] = orders[from];
+        minXs[to] = minXs[from];
+        minYs[to] = minYs[from];
+        maxXs[to] = maxXs[from];
+        maxYs[to] = maxYs[from];
+        if(entity != null) entity.setBroadPhaseHandle(to);
+    }
+
+    /**
+     * Doubles the capacity of the arrays
+     */
+    private void grow() {
+        int capacity = entities.length * 2;
+        entities = Arrays.copyOf(entities, capacity);
+        orders = Arrays.copyOf(orders, capacity);
+        minXs = Arrays.copyOf(minXs, capacity);
+        minYs = Arrays.copyOf(minYs, capacity);
+        maxXs = Arrays.copyOf(maxXs, capacity);
+        maxYs = Arrays.copyOf(maxYs, capacity);
+
+        spareEntities = new Entity[capacity];
+        spareOrders = new long[capacity];
+        spareMinXs = new int[capacity];
+        spareMinYs = new int[capacity];
+        spareMaxXs = new int[capacity];
+        spareMaxYs = new int[capacity];
+        sortKeys = new long[capacity];
+    }
+
+    /**
+     * Finds the first sorted box with a left edge at or after the position provided
+     *
+     * @param x The position to search for
+     * @return Returns the index of the box, or the amount of sorted boxes if there is none
+     */
+    private int lowerBound(int x) {
+        int low = 0;
+        int high = sortedSize;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(minXs[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Finds the width of the widest box
+     */
+    private void recalculateMaxWidth() {
+        maxWidth = 0;
+        for(int i = 0; i < size; i++) {
+            if(entities[i] != null) maxWidth = Math.max(maxWidth, maxXs[i] - minXs[i]);
+        }
+    }
+}
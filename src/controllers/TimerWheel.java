@@ -0,0 +1,329 @@
+package controllers;
+
+import java.util.Arrays;
+
+/**
+ * Schedules callbacks to run after a delay, for timed game events such as pickups expiring or delayed respawns. Rather
+ * than each subsystem counting down it's own timers every tick, they register a callback with the wheel, and the
+ * wheel runs it when it's due.
+ *
+ * The wheel is a ring of {@link #WHEEL_SIZE} buckets, one per tick, with each timer kept in the bucket of the tick it's
+ * due on, wrapping around the ring for timers due further away than the size of the ring. Each tick only the timers in
+ * a single bucket are looked at, so the cost of a tick doesn't depend on how many timers are waiting. The timers of a
+ * bucket are linked to each other through primitive arrays, so scheduling and cancelling a timer both take constant
+ * time and create nothing.
+ *
+ * Each timer is given a handle when scheduled, made up of the slot it was given and the generation of that slot, in
+ * the same way as a {@code DenseStore}, so a handle kept after the timer has run or been cancelled is detected as stale.
+ *
+ * @author Harry Felton - 18032692
+ * @see main.SnakeGame#getTimers()
+ */
+public class TimerWheel {
+    /**
+     * The amount of buckets in the wheel; must be a power of two
+     */
+    public static final int WHEEL_SIZE = 512;
+
+    /**
+     * The length of a tick of the wheel, in seconds
+     */
+    private final double tickLength;
+
+    /**
+     * The time passed that hasn't yet made up a whole tick, in seconds
+     */
+    private double accumulator = 0;
+
+    /**
+     * The amount of ticks the wheel has advanced
+     */
+    private long currentTick = 0;
+
+    /**
+     * The first timer in each bucket, or -1 if the bucket is empty
+     */
+    private final int[] heads = new int[WHEEL_SIZE];
+
+    /**
+     * The callback of the timer in each slot, or null if the slot is free
+     */
+    private Runnable[] callbacks = new Runnable[16];
+
+    /**
+     * The tick each timer is due on
+     */
+    private long[] deadlines = new long[16];
+
+    /**
+     * The next timer in the same bucket as each timer, or the next free slot for a free slot, or -1 if there is none
+     */
+    private int[] next = new int[16];
+
+    /**
+     * The previous timer in the same bucket as each timer, or -1 if it's the first
+     */
+    private int[] previous = new int[16];
+
+    /**
+     * The bucket holding each timer, or -1 if the timer isn't in a bucket
+     */
+    private int[] buckets = new int[16];
+
+    /**
+     * The generation of each slot; increased each time the slot is freed
+     */
+    private int[] generations = new int[16];
+
+    /**
+     * The first free slot, or -1 if there is none
+     */
+    private int freeHead = -1;
+
+    /**
+     * The amount of slots that have ever been used
+     */
+    private int slotCount = 0;
+
+    /**
+     * The amount of timers waiting to run
+     */
+    private int pending = 0;
+
+    /**
+     * The slot and generation of each timer due on the current tick, collected before any are run so that callbacks
+     * can schedule and cancel timers safely
+     */
+    private int[] dueSlots = new int[16], dueGenerations = new int[16];
+
+    /**
+     * Constructs an empty wheel
+     *
+     * @param ticksPerSecond The amount of ticks the wheel advances each second
+     */
+    public TimerWheel(int ticksPerSecond) {
+        tickLength = 1.0 / ticksPerSecond;
+        Arrays.fill(heads, -1);
+    }
+
+    /**
+     * Schedules a callback to be run once the time provided has passed, rounded up to a whole tick
+     *
+     * @param seconds The time to wait, in seconds
+     * @param callback The callback to run
+     * @return Returns the handle of the timer, which can be used to cancel it
+     * @see #cancel(long)
+     */
+    public long schedule(double seconds, Runnable callback) {
+        // Allow for rounding, so that a delay of a whole number of ticks isn't rounded up to the next
+        return scheduleTicks((int) Math.ceil(seconds / tickLength - 1e-9), callback);
+    }
+
+    /**
+     * Schedules a callback to be run once the amount of ticks provided have passed. A callback is never run on the
+     * tick it's scheduled, so a delay of less than one tick is run on the next tick.
+     *
+     * @param ticks The amount of ticks to wait
+     * @param callback The callback to run
+     * @return Returns the handle of the timer, which can be used to cancel it
+     * @see #cancel(long)
+     */
+    public long scheduleTicks(int ticks, Runnable callback) {
+        int slot = allocate();
+        long deadline = currentTick + Math.max(1, ticks);
+        callbacks[slot] = callback;
+        deadlines[slot] = deadline;
+        link(slot, (int) (deadline & (WHEEL_SIZE - 1)));
+        pending++;
+
+        return handleOf(slot, generations[slot]);
+    }
+
+    /**
+     * Cancels a timer, so it's callback is never run
+     *
+     * @param handle The handle of the timer
+     * @return Returns true if the timer was cancelled, or false if it had already run or been cancelled
+     */
+    public boolean cancel(long handle) {
+        int slot = slotOf(handle);
+        if(slot < 0) return false;
+
+        if(buckets[slot] >= 0) unlink(slot);
+        free(slot);
+        return true;
+    }
+
+    /**
+     * Tests if a timer is still waiting to run
+     *
+     * @param handle The handle of the timer
+     * @return Returns true if the timer is waiting, false if it has run or been cancelled
+     */
+    public boolean isPending(long handle) {
+        return slotOf(handle) >= 0;
+    }
+
+    /**
+     * Fetch the amount of timers waiting to run
+     *
+     * @return Returns the amount of timers
+     */
+    public int size() {
+        return pending;
+    }
+
+    /**
+     * Advances the wheel by the time provided, running the callbacks of the timers that become due
+     *
+     * @param dt The time passed since the last advance, in seconds
+     */
+    public void advance(double dt) {
+        accumulator += dt;
+        // Allow for rounding, so that advancing by exactly a tick always ticks
+        while(accumulator >= tickLength - 1e-9) {
+            accumulator -= tickLength;
+            tick();
+        }
+    }
+
+    /**
+     * Advances the wheel by a single tick, running the callbacks of the timers due on that tick
+     */
+    public void tick() {
+        currentTick++;
+        if(pending == 0) return;
+
+        // Timers due on a later turn of the wheel are left in the bucket
+        int due = 0;
+        int slot = heads[(int) (currentTick & (WHEEL_SIZE - 1))];
+        while(slot >= 0) {
+            int following = next[slot];
+            if(deadlines[slot] <= currentTick) {
+                unlink(slot);
+                if(due == dueSlots.length) {
+                    dueSlots = Arrays.copyOf(dueSlots, due * 2);
+                    dueGenerations = Arrays.copyOf(dueGenerations, due * 2);
+                }
+                dueSlots[due] = slot;
+                dueGenerations[due] = generations[slot];
+                due++;
+            }
+            slot = following;
+        }
+
+        for(int i = 0; i < due; i++) {
+            slot = dueSlots[i];
+            // A callback run earlier in this tick may have cancelled the timer
+            if(generations[slot] != dueGenerations[i]) continue;
+
+            Runnable callback = callbacks[slot];
+            free(slot);
+            callback.run();
+        }
+    }
+
+    /**
+     * Cancels every timer. Every handle given out becomes stale.
+     */
+    public void clear() {
+        for(int slot = 0; slot < slotCount; slot++) {
+            if(callbacks[slot] == null) continue;
+
+            if(buckets[slot] >= 0) unlink(slot);
+            free(slot);
+        }
+        accumulator = 0;
+    }
+
+    /**
+     * Takes a free slot, growing the arrays if there are none
+     *
+     * @return Returns the slot
+     */
+    private int allocate() {
+        if(freeHead >= 0) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+
+        if(slotCount == callbacks.length) {
+            int capacity = slotCount * 2;
+            callbacks = Arrays.copyOf(callbacks, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+        }
+
+        return slotCount++;
+    }
+
+    /**
+     * Frees a slot so it can be reused, increasing it's generation
+     *
+     * @param slot The slot to free
+     */
+    private void free(int slot) {
+        callbacks[slot] = null;
+        generations[slot]++;
+        next[slot] = freeHead;
+        freeHead = slot;
+        pending--;
+    }
+
+    /**
+     * Adds a timer to the front of a bucket
+     *
+     * @param slot The slot of the timer
+     * @param bucket The bucket
+     */
+    private void link(int slot, int bucket) {
+        int head = heads[bucket];
+        next[slot] = head;
+        previous[slot] = -1;
+        if(head >= 0) previous[head] = slot;
+        heads[bucket] = slot;
+        buckets[slot] = bucket;
+    }
+
+    /**
+     * Removes a timer from it's bucket
+     *
+     * @param slot The slot of the timer
+     */
+    private void unlink(int slot) {
+        int before = previous[slot], after = next[slot];
+        if(before >= 0) next[before] = after;
+        else heads[buckets[slot]] = after;
+        if(after >= 0) previous[after] = before;
+        buckets[slot] = -1;
+    }
+
+    /**
+     * Finds the slot of a timer by it's handle
+     *
+     * @param handle The handle of the timer
+     * @return Returns the slot, or -1 if the handle is stale or was never given out
+     */
+    private int slotOf(long handle) {
+        if(handle < 0) return -1;
+
+        int slot = (int) handle;
+        if(slot >= slotCount || callbacks[slot] == null || handleOf(slot, generations[slot]) != handle) return -1;
+        return slot;
+    }
+
+    /**
+     * Creates a handle from a slot and it's generation
+     *
+     * @param slot The slot
+     * @param generation The generation of the slot
+     * @return Returns the handle
+     */
+    private static long handleOf(int slot, int generation) {
+        return ((long) (generation & Integer.MAX_VALUE) << 32) | slot;
+    }
+}
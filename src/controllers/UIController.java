@@ -1,10 +1,11 @@
 package controllers;
 
 import fragment.Fragment;
+import main.RenderSnapshot;
 import main.SnakeGame;
 
 import java.awt.event.MouseEvent;
-import java.util.LinkedList;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The UIController is responsible for managing and drawing {@code Fragments} on screen
@@ -13,9 +14,10 @@ import java.util.LinkedList;
  */
 public class UIController extends Controller {
     /**
-     * The fragments currently being handled
+     * The fragments currently being handled. Fragments are updated on the simulation thread (if running) while
+     * being drawn on the Swing thread, so a copy-on-write list is used to let both iterate safely.
      */
-    protected LinkedList<Fragment> fragments = new LinkedList<>();
+    protected CopyOnWriteArrayList<Fragment> fragments = new CopyOnWriteArrayList<>();
 
     /**
      * Instantiates the UIController with the {@code SnakeGame} instance
@@ -84,6 +86,16 @@ public class UIController extends Controller {
             f.redraw();
     }
 
+    /**
+     * Records all {@code Fragment} instances currently registered and active into the snapshot provided
+     *
+     * @param frame The builder of the snapshot being published
+     */
+    public void snapshot(RenderSnapshot.Builder frame) {
+        for(Fragment f : fragments)
+            f.snapshot(frame);
+    }
+
     /**
      * Dispatches a MouseEvent representing the depression of the mouse button to all active {@code Fragment} instances
      *
@@ -3,17 +3,16 @@ package effects;
 import controllers.EffectController;
 import interfaces.EffectFrame;
 import interfaces.EngineComponent;
+import interfaces.Handled;
+import main.RenderSnapshot;
 import main.SnakeGame;
 
-import java.util.Arrays;
-import java.util.LinkedList;
-
 /**
  * The Effect class is responsible for animating effects inside the game window
  *
  * @author Harry Felton - 18032692
  */
-public abstract class Effect implements EngineComponent {
+public abstract class Effect implements EngineComponent, Handled {
     /**
      * The current frame index to be displayed
      */
@@ -27,17 +26,27 @@ public abstract class Effect implements EngineComponent {
     /**
      * The frames provided to this {@code Effect}. The frame at {@code frame} will be displayed
      */
-    protected final LinkedList<EffectFrame> frames = new LinkedList<>();
+    protected EffectFrame[] frames = new EffectFrame[0];
 
     /**
-     * The x position of the {@code Effect}
+     * The time the {@code Effect} has been shown for, in seconds
+     */
+    protected double elapsed = 0;
+
+    /**
+     * The time taken to play every frame of the {@code Effect}, in seconds
      */
-    protected final int x;
+    protected double duration;
 
     /**
      * The x position of the {@code Effect}
      */
-    protected final int y;
+    protected int x;
+
+    /**
+     * The y position of the {@code Effect}
+     */
+    protected int y;
 
     /**
      * The {@code SnakeGame} instance this {@code Effect} is attached to
@@ -49,6 +58,14 @@ public abstract class Effect implements EngineComponent {
      */
     protected final EffectController fx;
 
+    /**
+     * The handle of this {@code Effect} inside the {@code EffectController}, or {@code NO_HANDLE} if it isn't being
+     * shown
+     *
+     * @see controllers.DenseStore
+     */
+    protected long handle = NO_HANDLE;
+
     /**
      * Instantiate the {@code Effect} with the position provided. The {@code SnakeGame} instance is retrieved via the
      * static {@code SnakeGame.getGameInstance()}.
@@ -65,29 +82,87 @@ public abstract class Effect implements EngineComponent {
     }
 
     /**
-     * This method is used to provide the {@code EffectFrame} instances. These frames will then be displayed based on
-     * the {@code frame} selected
+     * Instantiate the {@code Effect} without a position, to be positioned when shown. Used by effects kept in a pool.
+     *
+     * @see controllers.EffectController#obtainEffect(Class, java.util.function.Supplier)
+     */
+    protected Effect() {
+        this(0, 0);
+    }
+
+    /**
+     * Called when the {@code Effect} is taken from a pool to be shown again, restarting the animation
+     *
+     * @see controllers.EffectController#obtainEffect(Class, java.util.function.Supplier)
+     */
+    public void reset() {
+        frame = 0;
+        elapsed = 0;
+    }
+
+    /**
+     * Fetch the handle of this {@code Effect} inside the {@code EffectController}
+     *
+     * @return Returns the handle, or {@code NO_HANDLE} if the effect isn't being shown
+     */
+    @Override
+    public long getHandle() {
+        return handle;
+    }
+
+    /**
+     * Sets the handle of this {@code Effect}; called by the {@code DenseStore} storing it
+     *
+     * @param handle The new handle
+     */
+    @Override
+    public void setHandle(long handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * This method is used to provide the {@code EffectFrame} instances, with each frame being shown for a single tick
+     * at the tick rate of the game.
      *
-     * @param frames The list of {@code EffectFrames} to be added to the frames list
+     * @param frames The {@code EffectFrames} to be displayed
+     * @see #provideFrames(EffectFrame[], double)
+     */
+    protected void provideFrames(EffectFrame[] frames) {
+        provideFrames(frames, (double) frames.length / SnakeGame.TICKRATE);
+    }
+
+    /**
+     * This method is used to provide the {@code EffectFrame} instances. The frames are spread evenly over the duration
+     * provided, and the frame displayed is chosen by the time passed, so the effect plays at the same speed at any
+     * tick rate. The array is kept rather than copied, so it can be shared between effects.
+     *
+     * @param frames The {@code EffectFrames} to be displayed
+     * @param duration The time taken to play every frame, in seconds
      * @see #frames
      * @see #frame
      */
-    protected void provideFrames(EffectFrame[] frames) {
-        this.frames.addAll(Arrays.asList(frames));
-        endFrame = this.frames.size();
+    protected void provideFrames(EffectFrame[] frames, double duration) {
+        this.frames = frames;
+        this.duration = duration;
+        endFrame = frames.length;
     }
 
     /**
-     * Called on each update tick, advances the {@code Effect} to the next frame.
+     * Called on each update tick, advances the {@code Effect} to the frame for the time passed.
      * If no frames left, the {@code Effect} is destroyed
      *
-     * @param dt The time passed since the last update
+     * @param dt The time passed since the last update, in seconds
      */
     @Override
     public void update(double dt) {
-        frame++;
-        if(frame >= endFrame)
+        elapsed += dt;
+        // Allow for the rounding of dt, so that an effect lasting a whole number of ticks ends on the last of them
+        if(elapsed >= duration - 1e-9) {
+            frame = endFrame;
             destroyEffect();
+        } else {
+            frame = Math.min(endFrame - 1, (int) (elapsed / duration * endFrame));
+        }
     }
 
     /**
@@ -98,7 +173,16 @@ public abstract class Effect implements EngineComponent {
      */
     @Override
     public void paintComponent() {
-        if(frame < endFrame) frames.get(frame).drawFrame(gameInstance.getGameGraphics(), x, y);
+        if(frame < endFrame) frames[frame].drawFrame(gameInstance.getGameGraphics(), x, y);
+    }
+
+    /**
+     * Adds the {@code EffectFrame} currently selected by {@code frame} to the snapshot being built
+     *
+     * @param snapshot The snapshot being built
+     */
+    public void snapshot(RenderSnapshot.Builder snapshot) {
+        if(frame < endFrame) snapshot.addEffect(frames[frame], x, y);
     }
 
     /**
@@ -0,0 +1,91 @@
+package effects;
+
+import main.SnakeGame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Draws particles in a single batch. Each particle is blended straight in to the pixels of an image covering the game,
+ * which is then drawn in one call, rather than asking the graphics to draw each particle.
+ *
+ * Only the area covered by the particles of the last batch is cleared before the next, so an empty batch costs next
+ * to nothing. A layer must only be drawn from one thread.
+ *
+ * @author Harry Felton - 18032692
+ * @see ParticleSystem#copyTo(int[], int[], int[])
+ */
+public class ParticleLayer {
+    /**
+     * The width and height of each particle, in pixels
+     */
+    public static final int PARTICLE_SIZE = 2;
+
+    /**
+     * The image the particles are drawn to
+     */
+    private final BufferedImage image = new BufferedImage(SnakeGame.WIDTH, SnakeGame.HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+
+    /**
+     * The pixels of {@code image}, as premultiplied ARGB
+     */
+    private final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+    /**
+     * The rows covered by the particles of the last batch, or an empty range if nothing was drawn
+     */
+    private int dirtyTop = 0, dirtyBottom = -1;
+
+    /**
+     * Blends the particles provided in to the layer, and draws the layer
+     *
+     * @param graphics The graphics to draw the layer with
+     * @param xs The X position of each particle
+     * @param ys The Y position of each particle
+     * @param colors The colour of each particle, as premultiplied ARGB
+     * @param count The amount of particles
+     */
+    public void draw(Graphics2D graphics, int[] xs, int[] ys, int[] colors, int count) {
+        int width = SnakeGame.WIDTH, height = SnakeGame.HEIGHT;
+        if(dirtyTop <= dirtyBottom) Arrays.fill(pixels, dirtyTop * width, (dirtyBottom + 1) * width, 0);
+        dirtyTop = height;
+        dirtyBottom = -1;
+        if(count == 0) return;
+
+        for(int i = 0; i < count; i++) {
+            int color = colors[i];
+            int inverse = 255 - (color >>> 24);
+            int x1 = Math.max(0, xs[i]), x2 = Math.min(width, xs[i] + PARTICLE_SIZE);
+            int y1 = Math.max(0, ys[i]), y2 = Math.min(height, ys[i] + PARTICLE_SIZE);
+            if(x1 >= x2 || y1 >= y2) continue;
+
+            dirtyTop = Math.min(dirtyTop, y1);
+            dirtyBottom = Math.max(dirtyBottom, y2 - 1);
+            for(int y = y1; y < y2; y++) {
+                for(int p = y * width + x1, end = y * width + x2; p < end; p++) {
+                    pixels[p] = blend(color, pixels[p], inverse);
+                }
+            }
+        }
+
+        if(dirtyTop <= dirtyBottom) graphics.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * Blends a premultiplied colour over another
+     *
+     * @param src The colour being drawn
+     * @param dst The colour being drawn over
+     * @param inverse 255 minus the alpha of {@code src}
+     * @return Returns the blended colour
+     */
+    private static int blend(int src, int dst, int inverse) {
+        int a = (src >>> 24) + ((dst >>> 24) * inverse) / 255;
+        int r = ((src >> 16) & 0xFF) + (((dst >> 16) & 0xFF) * inverse) / 255;
+        int g = ((src >> 8) & 0xFF) + (((dst >> 8) & 0xFF) * inverse) / 255;
+        int b = (src & 0xFF) + ((dst & 0xFF) * inverse) / 255;
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+}
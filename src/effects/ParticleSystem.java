@@ -0,0 +1,212 @@
+package effects;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Simulates short lived particles, such as the bursts shown when an apple is eaten or a snake dies.
+ *
+ * Rather than an object for each particle, every property of every particle is kept in it's own primitive array, so
+ * that updating the particles is a single tight loop over arrays, and spawning or killing a particle creates nothing.
+ * A dead particle is replaced by the last particle, keeping the live particles at the start of the arrays.
+ *
+ * Particles move in a straight line, slowing down as they go, and fade out over their life.
+ *
+ * @author Harry Felton - 18032692
+ * @see ParticleLayer
+ */
+public class ParticleSystem {
+    /**
+     * The most particles that can be alive at once; particles emitted past this are dropped
+     */
+    public static final int MAX_PARTICLES = 1 << 16;
+
+    /**
+     * The fraction of it's speed a particle keeps after each second
+     */
+    protected static final float DRAG = 0.1f;
+
+    /**
+     * The position of each particle
+     */
+    private float[] xs = new float[256], ys = new float[256];
+
+    /**
+     * The velocity of each particle, in pixels per second
+     */
+    private float[] vxs = new float[256], vys = new float[256];
+
+    /**
+     * The time each particle has left to live, and the time it was given when emitted, in seconds
+     */
+    private float[] lives = new float[256], maxLives = new float[256];
+
+    /**
+     * The colour of each particle, from 0 to 1, before fading
+     */
+    private float[] reds = new float[256], greens = new float[256], blues = new float[256], alphas = new float[256];
+
+    /**
+     * The amount of particles alive
+     */
+    private int count = 0;
+
+    /**
+     * The state of the random number generator used to scatter particles. The particles have their own, rather than
+     * using the game's, so that showing particles never changes how a game plays out.
+     */
+    private int seed = 0x2545F491;
+
+    /**
+     * Fetch the amount of particles alive
+     *
+     * @return Returns the amount of particles
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Emits a burst of particles from a point, travelling in random directions
+     *
+     * @param x The X position of the burst
+     * @param y The Y position of the burst
+     * @param amount The amount of particles to emit
+     * @param speed The fastest a particle can travel when emitted, in pixels per second
+     * @param life The longest a particle can live, in seconds
+     * @param color The colour of the particles
+     */
+    public void burst(float x, float y, int amount, float speed, float life, Color color) {
+        float red = color.getRed() / 255f, green = color.getGreen() / 255f, blue = color.getBlue() / 255f;
+        float alpha = color.getAlpha() / 255f;
+
+        amount = Math.min(amount, MAX_PARTICLES - count);
+        ensureCapacity(count + amount);
+        for(int n = 0; n < amount; n++) {
+            double angle = nextFloat() * Math.PI * 2;
+            float v = speed * (0.25f + 0.75f * nextFloat());
+            float l = life * (0.5f + 0.5f * nextFloat());
+
+            int i = count++;
+            xs[i] = x;
+            ys[i] = y;
+            vxs[i] = (float) Math.cos(angle) * v;
+            vys[i] = (float) Math.sin(angle) * v;
+            lives[i] = l;
+            maxLives[i] = l;
+            reds[i] = red;
+            greens[i] = green;
+            blues[i] = blue;
+            alphas[i] = alpha;
+        }
+    }
+
+    /**
+     * Moves every particle, and removes the particles that have reached the end of their life
+     *
+     * @param dt The time passed since the last update, in seconds
+     */
+    public void update(double dt) {
+        float step = (float) dt;
+        float drag = (float) Math.pow(DRAG, dt);
+        for(int i = 0; i < count; ) {
+            float life = lives[i] - step;
+            if(life <= 0) {
+                kill(i);
+                continue;
+            }
+
+            lives[i] = life;
+            xs[i] += vxs[i] * step;
+            ys[i] += vys[i] * step;
+            vxs[i] *= drag;
+            vys[i] *= drag;
+            i++;
+        }
+    }
+
+    /**
+     * Removes every particle
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Copies the position and current colour of every particle in to the arrays provided, ready to be drawn
+     *
+     * @param outXs Where to store the X position of each particle
+     * @param outYs Where to store the Y position of each particle
+     * @param outColors Where to store the colour of each particle, as premultiplied ARGB
+     * @return Returns the amount of particles copied, which is at most the length of the arrays
+     */
+    public int copyTo(int[] outXs, int[] outYs, int[] outColors) {
+        int amount = Math.min(count, Math.min(outColors.length, Math.min(outXs.length, outYs.length)));
+        for(int i = 0; i < amount; i++) {
+            outXs[i] = (int) xs[i];
+            outYs[i] = (int) ys[i];
+
+            // Fade out over the life of the particle
+            float a = alphas[i] * lives[i] / maxLives[i];
+            int alpha = (int) (a * 255);
+            int red = (int) (reds[i] * a * 255);
+            int green = (int) (greens[i] * a * 255);
+            int blue = (int) (blues[i] * a * 255);
+            outColors[i] = alpha << 24 | red << 16 | green << 8 | blue;
+        }
+
+        return amount;
+    }
+
+    /**
+     * Removes a particle, by moving the last particle in to it's place
+     *
+     * @param i The index of the particle
+     */
+    private void kill(int i) {
+        int last = --count;
+        xs[i] = xs[last];
+        ys[i] = ys[last];
+        vxs[i] = vxs[last];
+        vys[i] = vys[last];
+        lives[i] = lives[last];
+        maxLives[i] = maxLives[last];
+        reds[i] = reds[last];
+        greens[i] = greens[last];
+        blues[i] = blues[last];
+        alphas[i] = alphas[last];
+    }
+
+    /**
+     * Grows the arrays, if needed, to hold the amount of particles provided
+     *
+     * @param capacity The amount of particles
+     */
+    private void ensureCapacity(int capacity) {
+        if(capacity <= xs.length) return;
+
+        int size = Math.min(MAX_PARTICLES, Math.max(capacity, xs.length * 2));
+        xs = Arrays.copyOf(xs, size);
+        ys = Arrays.copyOf(ys, size);
+        vxs = Arrays.copyOf(vxs, size);
+        vys = Arrays.copyOf(vys, size);
+        lives = Arrays.copyOf(lives, size);
+        maxLives = Arrays.copyOf(maxLives, size);
+        reds = Arrays.copyOf(reds, size);
+        greens = Arrays.copyOf(greens, size);
+        blues = Arrays.copyOf(blues, size);
+        alphas = Arrays.copyOf(alphas, size);
+    }
+
+    /**
+     * Generates the next random number, using a xorshift generator
+     *
+     * @return Returns a random number from 0 (inclusive) to 1 (exclusive)
+     */
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return (seed >>> 8) / (float) (1 << 24);
+    }
+}
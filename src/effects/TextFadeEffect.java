@@ -1,6 +1,7 @@
 package effects;
 
 import interfaces.EffectFrame;
+import main.SnakeGame;
 import ui.Text;
 
 import java.awt.*;
@@ -11,108 +12,88 @@ import java.awt.*;
  * @author Harry Felton - 18032692
  */
 public class TextFadeEffect extends Effect {
+    /**
+     * The amount of keyframes in the effect, each lasting a single tick at the tick rate of the game
+     */
+    protected static final int KEYFRAME_COUNT = 10;
+
+    /**
+     * The amount of frames shown between each keyframe of the effect, interpolating between them
+     */
+    protected static final int FRAMES_PER_KEYFRAME = 8;
+
+    /**
+     * The time the effect lasts for, in seconds
+     */
+    protected static final double DURATION = (double) KEYFRAME_COUNT / SnakeGame.TICKRATE;
+
     /**
      * The color of the text at the start of the effect
      */
-    protected final Color color;
+    protected Color color;
 
     /**
      * The text to display
      */
-    protected final Text text;
+    protected Text text;
 
     /**
      * The amount of space the text will rise throughout the effect animation
      */
-    protected final int riseAmount;
+    protected int riseAmount;
+
+    /**
+     * The frames of the text being shown, shared with every other effect showing the same text
+     */
+    protected TextFadeSprites sprites;
 
     /**
-     * Instantiates the effect by providing the frames to the superclass.
+     * Instantiates the effect with the text provided
      *
      * @param x The position of the effect on the X-axis
      * @param y The position of the effect on the Y-axis
      * @param text The text to be displayed during the effect
      * @param color The color of the text at the start of the effect
      * @param riseAmount How far the text will rise (y-axis) during the effect
-     * @see #generateFrames(int)
-     * @see #provideFrames(EffectFrame[])
+     * @see #set(int, int, Text, Color, int)
      */
     public TextFadeEffect(int x, int y, Text text, Color color, int riseAmount) {
-        super(x, y);
-
-        this.color = color;
-        this.text = text;
-        this.riseAmount = riseAmount;
-
-        provideFrames(generateFrames(10));
+        set(x, y, text, color, riseAmount);
     }
 
     /**
-     * Generates the frames for this effect, with each frame being slightly higher and more transparent than the last.
-     * The frames will last for 'amount' of game ticks, and at the end should be completely transparent.
-     *
-     * @param amount The amount of frames to generate
-     * @return EffectFrame[] The list of frames generated
-     * @see Frame
+     * Instantiates the effect without any text, to be provided by {@link #set(int, int, Text, Color, int)}. Used to
+     * create effects kept in the pool of the {@code EffectController}.
      */
-    private EffectFrame[] generateFrames(int amount) {
-        EffectFrame[] frames = new EffectFrame[amount];
-        // Get the transparency value of the color. We need to get this to 0, so find out how much we need to reduce it by
-        // each frame.
-        double alphaReductionPerFrame = (double)color.getAlpha() / amount;
-        double yRisePerFrame = (double)riseAmount / amount;
-        for(int i = 0; i < amount; i++) {
-            Color frameColour = new Color(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha() - (int)alphaReductionPerFrame*i);
-            frames[i] = new Frame(text, frameColour, (int)yRisePerFrame * i);
-        }
-
-        return frames;
+    public TextFadeEffect() {
+        super();
     }
 
     /**
-     * This nested class serves to abstract away the information pertaining to each frame of the {@code Effect}
+     * Sets the text shown by the effect, and where it's shown, providing the frames to the superclass. The frames are
+     * shared with every other effect showing the same text, so are only created for the first, and are only looked up
+     * again when an effect taken from a pool shows different text to last time.
+     *
+     * @param x The position of the effect on the X-axis
+     * @param y The position of the effect on the Y-axis
+     * @param text The text to be displayed during the effect
+     * @param color The color of the text at the start of the effect
+     * @param riseAmount How far the text will rise (y-axis) during the effect
+     * @return Returns the {@code TextFadeEffect} instance to enable method chaining
+     * @see TextFadeSprites#of(Text, Color, int, int, int)
+     * @see #provideFrames(EffectFrame[], double)
      */
-    private static class Frame implements EffectFrame {
-        /**
-         * The text of the frame
-         */
-        private final Text text;
-
-        /**
-         * The color of the frame
-         */
-        private final Color color;
-
-        /**
-         * The amount of y-axis travel this frame is exhibiting
-         */
-        private final int yRise;
+    public TextFadeEffect set(int x, int y, Text text, Color color, int riseAmount) {
+        this.x = x;
+        this.y = y;
+        this.color = color;
+        this.text = text;
+        this.riseAmount = riseAmount;
 
-        /**
-         * Instantiates the {@code Frame} instance with the provided information
-         * @param text The text to be displayed
-         * @param color The color of the text being displayed
-         * @param yRise The amount of y-axis travel on the text
-         */
-        public Frame(Text text, Color color, int yRise) {
-            this.text = text;
-            this.color = color;
-            this.yRise = yRise;
-        }
+        if(sprites == null || !sprites.matches(text, color, riseAmount, KEYFRAME_COUNT, FRAMES_PER_KEYFRAME))
+            sprites = TextFadeSprites.of(text, color, riseAmount, KEYFRAME_COUNT, FRAMES_PER_KEYFRAME);
 
-        /**
-         * Draws the frame to the screen via the {@code Graphics2D} object {@code graphics} provided. The frame will
-         * be drawn at {@code x,y}, with the {@code yRise} adjusting the {@code y} co-ordinate provided
-         *
-         * @param graphics The graphics instance with which the frame will be drawn to the screen
-         * @param x The position of the frame on the x-axis
-         * @param y The position of the frame on the y-axis
-         */
-        @Override
-        public void drawFrame(Graphics2D graphics, int x, int y) {
-            graphics.setFont(text.getFontInstance());
-            graphics.setColor(color);
-            graphics.drawString(text.getText(), x, y - yRise);
-        }
+        provideFrames(sprites.getFrames(), DURATION);
+        return this;
     }
 }
@@ -0,0 +1,255 @@
+package effects;
+
+import interfaces.EffectFrame;
+import ui.Text;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shared frames of a {@code TextFadeEffect}. The frames of every effect showing the same text, in the same font,
+ * colour and rise, are created once and shared, so showing the effect many times a second costs almost nothing.
+ *
+ * The text is rasterised once in to an image, the first time it's drawn, and each frame draws that image with the
+ * alpha of the frame applied by an {@code AlphaComposite}, rather than laying out the text again.
+ *
+ * @author Harry Felton - 18032692
+ * @see TextFadeEffect
+ */
+public class TextFadeSprites {
+    /**
+     * The frames created for each appearance of the effect
+     */
+    private static final ConcurrentHashMap<Key, TextFadeSprites> cache = new ConcurrentHashMap<>();
+
+    /**
+     * The appearance of the effect the frames show
+     */
+    private final Key key;
+
+    /**
+     * The frames of the effect, in the order they're shown
+     */
+    private final EffectFrame[] frames;
+
+    /**
+     * The text rasterised in the colour of the effect, created when first drawn
+     */
+    private volatile BufferedImage image;
+
+    /**
+     * The position of the image, relative to the position the text is drawn at
+     */
+    private int imageX, imageY;
+
+    /**
+     * Creates the frames of the effect appearance provided
+     *
+     * @param key The appearance of the effect
+     */
+    private TextFadeSprites(Key key) {
+        this.key = key;
+
+        // Every keyframe is slightly higher and more transparent than the last, ending nearly transparent. The frames
+        // between each pair of keyframes are interpolated, so the effect stays smooth when played at higher tick rates.
+        frames = new EffectFrame[key.keyframeCount * key.framesPerKeyframe];
+        int alpha = key.color.getAlpha();
+        int alphaReductionPerKeyframe = alpha / key.keyframeCount;
+        int yRisePerKeyframe = key.riseAmount / key.keyframeCount;
+        for(int i = 0; i < frames.length; i++) {
+            double keyframe = (double) i / key.framesPerKeyframe;
+            float frameAlpha = (float) Math.max(0, alpha - alphaReductionPerKeyframe * keyframe) / 255f;
+            int yRise = (int) Math.round(yRisePerKeyframe * keyframe);
+            frames[i] = new Frame(this, AlphaComposite.getInstance(AlphaComposite.SRC_OVER, frameAlpha), yRise);
+        }
+    }
+
+    /**
+     * Fetch the frames of the effect with the appearance provided, creating them if they don't already exist. An
+     * effect shown again should check it's current frames with
+     * {@link #matches(Text, Color, int, int, int)} first, which doesn't allocate.
+     *
+     * @param text The text shown by the effect
+     * @param color The colour of the text at the start of the effect
+     * @param riseAmount How far the text rises during the effect
+     * @param keyframeCount The amount of keyframes in the effect
+     * @param framesPerKeyframe The amount of frames from each keyframe to the next, including the keyframe itself
+     * @return Returns the frames of the effect
+     */
+    public static TextFadeSprites of(Text text, Color color, int riseAmount, int keyframeCount, int framesPerKeyframe) {
+        Key key = new Key(text.getText(), text.getFont(), text.getStyle(), text.getSize(), color, riseAmount,
+                keyframeCount, framesPerKeyframe);
+        return cache.computeIfAbsent(key, TextFadeSprites::new);
+    }
+
+    /**
+     * Tests if these are the frames of the effect with the appearance provided
+     *
+     * @param text The text shown by the effect
+     * @param color The colour of the text at the start of the effect
+     * @param riseAmount How far the text rises during the effect
+     * @param keyframeCount The amount of keyframes in the effect
+     * @param framesPerKeyframe The amount of frames from each keyframe to the next, including the keyframe itself
+     * @return Returns true if the appearance matches, false otherwise
+     */
+    public boolean matches(Text text, Color color, int riseAmount, int keyframeCount, int framesPerKeyframe) {
+        return key.matches(text.getText(), text.getFont(), text.getStyle(), text.getSize(), color, riseAmount,
+                keyframeCount, framesPerKeyframe);
+    }
+
+    /**
+     * Fetch the frames of the effect, in the order they're shown
+     *
+     * @return Returns the frames, which are shared and must not be changed
+     */
+    public EffectFrame[] getFrames() {
+        return frames;
+    }
+
+    /**
+     * Fetch the text rasterised in the colour of the effect, rasterising it if it hasn't been already
+     *
+     * @return Returns the image of the text
+     */
+    private BufferedImage getImage() {
+        BufferedImage rasterised = image;
+        if(rasterised == null) {
+            synchronized(this) {
+                if(image == null) image = rasterise();
+                rasterised = image;
+            }
+        }
+
+        return rasterised;
+    }
+
+    /**
+     * Draws the text, at full opacity, in to an image only as large as the text
+     *
+     * @return Returns the image of the text
+     */
+    private BufferedImage rasterise() {
+        Font font = new Font(key.font, key.style, key.size);
+        Color opaque = new Color(key.color.getRed(), key.color.getGreen(), key.color.getBlue());
+
+        // Measure the text against a scratch image, as the size of the image depends on the measurements
+        Graphics2D scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics metrics = scratch.getFontMetrics(font);
+        scratch.dispose();
+
+        // Anti-aliasing can reach a pixel past the advance of the text, so leave a pixel either side
+        int width = Math.max(1, metrics.stringWidth(key.text) + 2);
+        int height = Math.max(1, metrics.getAscent() + metrics.getDescent());
+        imageX = -1;
+        imageY = -metrics.getAscent();
+
+        BufferedImage rasterised = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = rasterised.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setFont(font);
+        graphics.setColor(opaque);
+        graphics.drawString(key.text, 1, metrics.getAscent());
+        graphics.dispose();
+
+        return rasterised;
+    }
+
+    /**
+     * A single frame of the effect, drawing the shared image of the text with the alpha of the frame
+     */
+    private static class Frame implements EffectFrame {
+        /**
+         * The frames this frame belongs to
+         */
+        private final TextFadeSprites sprites;
+
+        /**
+         * Blends the image of the text with the alpha of this frame
+         */
+        private final AlphaComposite composite;
+
+        /**
+         * The amount of y-axis travel this frame is exhibiting
+         */
+        private final int yRise;
+
+        /**
+         * Instantiates the {@code Frame} instance with the provided information
+         *
+         * @param sprites The frames the frame belongs to
+         * @param composite The composite applying the alpha of the frame
+         * @param yRise The amount of y-axis travel on the text
+         */
+        Frame(TextFadeSprites sprites, AlphaComposite composite, int yRise) {
+            this.sprites = sprites;
+            this.composite = composite;
+            this.yRise = yRise;
+        }
+
+        /**
+         * Draws the frame with the {@code Graphics2D} provided, with the baseline of the text starting at
+         * {@code x, y}, raised by {@code yRise}
+         *
+         * @param graphics The graphics instance with which the frame will be drawn to the screen
+         * @param x The position of the frame on the x-axis
+         * @param y The position of the frame on the y-axis
+         */
+        @Override
+        public void drawFrame(Graphics2D graphics, int x, int y) {
+            BufferedImage image = sprites.getImage();
+            Composite previous = graphics.getComposite();
+            graphics.setComposite(composite);
+            graphics.drawImage(image, x + sprites.imageX, y - yRise + sprites.imageY, null);
+            graphics.setComposite(previous);
+        }
+    }
+
+    /**
+     * The appearance of a {@code TextFadeEffect}, used to find the frames shared by effects that look the same
+     */
+    private static class Key {
+        private final String text;
+        private final String font;
+        private final int style;
+        private final int size;
+        private final Color color;
+        private final int riseAmount;
+        private final int keyframeCount;
+        private final int framesPerKeyframe;
+
+        Key(String text, String font, int style, int size, Color color, int riseAmount, int keyframeCount,
+            int framesPerKeyframe) {
+            this.text = text;
+            this.font = font;
+            this.style = style;
+            this.size = size;
+            this.color = color;
+            this.riseAmount = riseAmount;
+            this.keyframeCount = keyframeCount;
+            this.framesPerKeyframe = framesPerKeyframe;
+        }
+
+        boolean matches(String text, String font, int style, int size, Color color, int riseAmount, int keyframeCount,
+                        int framesPerKeyframe) {
+            return this.style == style && this.size == size && this.riseAmount == riseAmount
+                    && this.keyframeCount == keyframeCount && this.framesPerKeyframe == framesPerKeyframe
+                    && this.text.equals(text) && this.font.equals(font) && this.color.getRGB() == color.getRGB();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof Key)) return false;
+
+            Key k = (Key) o;
+            return matches(k.text, k.font, k.style, k.size, k.color, k.riseAmount, k.keyframeCount, k.framesPerKeyframe);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, font, style, size, color.getRGB(), riseAmount, keyframeCount, framesPerKeyframe);
+        }
+    }
+}
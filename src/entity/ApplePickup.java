@@ -1,7 +1,9 @@
 package entity;
 
+import controllers.EffectController;
 import effects.TextFadeEffect;
 import interfaces.CollisionElement;
+import main.RenderSnapshot;
 import main.SnakeGame;
 import ui.Text;
 
@@ -16,6 +18,16 @@ import java.awt.image.BufferedImage;
  * @see #applyEffect(Entity)
  */
 public class ApplePickup extends Pickup {
+    /**
+     * The colour of the text and particles shown when an apple is picked up
+     */
+    protected static final Color PICKUP_COLOR = new Color(224, 192, 68);
+
+    /**
+     * The text shown when an apple is picked up
+     */
+    protected static final Text PICKUP_TEXT = new Text("+10", "Arial", 14);
+
     /**
      * The image of the apple to be displayed in-game
      */
@@ -70,10 +82,11 @@ public class ApplePickup extends Pickup {
             snake.increaseLength(1);
             snake.getPlayer().increaseScore(10);
 
-            // Spawn a text effect
-            Text t = new Text("+10", "Arial", 14);
-            TextFadeEffect fx = new TextFadeEffect(x, y, t, new Color(224, 192, 68), 10);
-            gameInstance.getEffectsController().spawnEffect(fx);
+            // Spawn a text effect, reusing a finished one if there is one, and a burst of particles from the apple
+            EffectController fx = gameInstance.getEffectsController();
+            fx.spawnEffect(fx.obtainEffect(TextFadeEffect.class, TextFadeEffect::new).set(x, y, PICKUP_TEXT, PICKUP_COLOR, 10));
+            fx.getParticles()
+                    .burst(x + width / 2f, y + height / 2f, 60, 90, 0.6f, PICKUP_COLOR);
         }
     }
 
@@ -82,14 +95,17 @@ public class ApplePickup extends Pickup {
      * that an entity has collided with this pickup. If a {@code SnakeEntity} has collided with this pickup, apply
      * the effect to it and consume the collision.
      *
-     * @param collisionBox The collision box that tripped this collision callback
+     * @param x The X position of the collision box that tripped this collision callback
+     * @param y The Y position of the collision box
+     * @param width The width of the collision box
+     * @param height The height of the collision box
      * @param source The source of the collision
-     * @param infringedBoundary The boundary of this pickup that was collided with
+     * @param hit The part of this pickup that was collided with
      * @return Returns true if the collision has been consumed, false otherwise
      */
     @Override
-    public boolean collidedWithBy(Rectangle collisionBox, CollisionElement source, Rectangle infringedBoundary) {
-        if(source instanceof SnakeEntity) {
+    public boolean collidedWithBy(int x, int y, int width, int height, CollisionElement source, int hit) {
+        if(source.getKind() == KIND.SNAKE) {
             // A snake collided with this pickup, apply our effect to the snake
             applyEffect((SnakeEntity)source);
             return true;
@@ -100,6 +116,26 @@ public class ApplePickup extends Pickup {
         return false;
     }
 
+    /**
+     * Fetch the image of the apple, so that apples are drawn in a batch
+     *
+     * @return Returns the image of the apple
+     */
+    @Override
+    public BufferedImage getSprite() {
+        return appleImage;
+    }
+
+    /**
+     * Adds the apple to the snapshot being built
+     *
+     * @param frame The snapshot being built
+     */
+    @Override
+    public void snapshot(RenderSnapshot.Builder frame) {
+        frame.addSprite(appleImage, x, y);
+    }
+
     /**
      * Draw the pickup on screen
      */
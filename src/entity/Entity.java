@@ -1,13 +1,122 @@
 package entity;
 
+import controllers.SpatialGrid;
 import interfaces.CollisionElement;
 import interfaces.EngineComponent;
+import interfaces.Handled;
+import main.RenderSnapshot;
 import main.SnakeGame;
 
-public abstract class Entity implements EngineComponent, CollisionElement {
+public abstract class Entity implements EngineComponent, CollisionElement, Handled {
     protected SnakeGame gameInstance;
 
+    /**
+     * The collision grid this entity has been added to, or null if it hasn't been added to one
+     */
+    protected SpatialGrid collisionGrid;
+
+    /**
+     * The handle of this entity inside {@code collisionGrid}
+     */
+    protected int collisionHandle = -1;
+
+    /**
+     * The handle of this entity inside the {@code EntityController}, or {@code NO_HANDLE} if it isn't stored there
+     *
+     * @see controllers.DenseStore
+     */
+    protected long handle = NO_HANDLE;
+
+    /**
+     * The position of this entity inside the broad phase storing it, or -1 if it isn't stored by one. Kept up to date
+     * by the broad phase, so it can find the entity without a lookup.
+     *
+     * @see controllers.SweepAndPrune
+     */
+    protected int broadPhaseHandle = -1;
+
     public Entity(SnakeGame game) {
         gameInstance = game;
     }
+
+    /**
+     * Fetch the position of this entity inside the broad phase storing it
+     *
+     * @return Returns the position, or -1 if the entity isn't stored by a broad phase
+     */
+    public int getBroadPhaseHandle() {
+        return broadPhaseHandle;
+    }
+
+    /**
+     * Sets the position of this entity inside the broad phase storing it; called by the broad phase
+     *
+     * @param broadPhaseHandle The new position, or -1 if the entity is no longer stored
+     */
+    public void setBroadPhaseHandle(int broadPhaseHandle) {
+        this.broadPhaseHandle = broadPhaseHandle;
+    }
+
+    /**
+     * Fetch the handle of this entity inside the {@code EntityController}
+     *
+     * @return Returns the handle, or {@code NO_HANDLE} if the entity isn't stored there
+     */
+    @Override
+    public long getHandle() {
+        return handle;
+    }
+
+    /**
+     * Sets the handle of this entity; called by the {@code DenseStore} storing it
+     *
+     * @param handle The new handle
+     */
+    @Override
+    public void setHandle(long handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Adds everything that {@code paintComponent()} would draw for this entity to the snapshot being built
+     *
+     * @param frame The snapshot being built
+     */
+    public abstract void snapshot(RenderSnapshot.Builder frame);
+
+    /**
+     * Adds this entity to the collision grid provided, so that it can be found by collision checks. Called by the
+     * {@code EntityController} when the entity is added to the game; from then on the entity must keep the grid up
+     * to date as it moves.
+     *
+     * @param grid The grid to add the entity to
+     * @see #registerWithGrid(SpatialGrid, int, int, boolean)
+     */
+    public abstract void addToCollisionGrid(SpatialGrid grid);
+
+    /**
+     * Registers this entity with the grid provided, ready for it's pieces to be added
+     *
+     * @param grid The grid to register with
+     * @param width The width of each piece of the entity
+     * @param height The height of each piece of the entity
+     * @param solid Whether the entity stops pickups from being spawned on top of it
+     * @return Returns the handle of this entity inside the grid
+     */
+    protected int registerWithGrid(SpatialGrid grid, int width, int height, boolean solid) {
+        collisionGrid = grid;
+        collisionHandle = grid.register(this, width, height, solid);
+        return collisionHandle;
+    }
+
+    /**
+     * Removes this entity from the collision grid it was added to, if any
+     */
+    public void removeFromCollisionGrid() {
+        if(collisionGrid == null) return;
+
+        collisionGrid.unregister(collisionHandle);
+        collisionGrid = null;
+        collisionHandle = -1;
+    }
 }
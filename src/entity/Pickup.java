@@ -1,9 +1,11 @@
 package entity;
 
+import controllers.SpatialGrid;
 import interfaces.CollisionElement;
 import main.SnakeGame;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 /**
  * The Pickup class handles some of the backend core functionality of on-screen Pickups
@@ -71,6 +73,25 @@ public abstract class Pickup extends Entity {
      */
     public void init(){}
 
+    /**
+     * Called when the {@code Pickup} is taken from a pool to be spawned again, after having been destroyed
+     *
+     * @see controllers.EntityController#obtainPickup(Class, java.util.function.Function)
+     */
+    public void reset() {
+        toBeDestroyed = false;
+    }
+
+    /**
+     * Fetch the image drawn for this {@code Pickup}, if it's drawn as a single image at it's position. Pickups sharing
+     * an image are drawn together in a batch by the {@code EntityController}, rather than drawing themselves.
+     *
+     * @return Returns the image, or null if the pickup draws itself
+     */
+    public BufferedImage getSprite() {
+        return null;
+    }
+
     /**
      * Applies the effect by destroying the Pickup via the {@code EntityController} attached to the {@code gameInstance}
      *
@@ -164,34 +185,124 @@ public abstract class Pickup extends Entity {
     }
 
     /**
-     * Creates a {@code Rectangle} which represents the boundary of the {@code Pickup}
+     * Adds the pickup to the collision grid. Pickups don't move once spawned, so this is the only update needed.
+     * Pickups don't block other pickups from spawning on top of them.
      *
-     * @return The boundary of the pickup
+     * @param grid The grid to add the pickup to
      */
     @Override
-    public Rectangle getBounds() {
-        return new Rectangle(x, y, width, height);
+    public void addToCollisionGrid(SpatialGrid grid) {
+        grid.insert(registerWithGrid(grid, width, height, false), x, y);
+    }
+
+    /**
+     * Removes the pickup from the collision grid. The pickup only has a single piece, at it's position, so it's
+     * removed directly rather than the grid searching for it.
+     */
+    @Override
+    public void removeFromCollisionGrid() {
+        if(collisionGrid != null) collisionGrid.remove(collisionHandle, x, y);
+        super.removeFromCollisionGrid();
+    }
+
+    /**
+     * Fetch the kind of collision element this is
+     *
+     * @return Returns {@code KIND.PICKUP}
+     */
+    @Override
+    public KIND getKind() {
+        return KIND.PICKUP;
+    }
+
+    /**
+     * Fetch the position of the left of the boundary of the {@code Pickup}
+     *
+     * @return The X position
+     */
+    @Override
+    public int getBoundsX() {
+        return x;
+    }
+
+    /**
+     * Fetch the position of the top of the boundary of the {@code Pickup}
+     *
+     * @return The Y position
+     */
+    @Override
+    public int getBoundsY() {
+        return y;
+    }
+
+    /**
+     * Fetch the width of the boundary of the {@code Pickup}
+     *
+     * @return The width
+     */
+    @Override
+    public int getBoundsWidth() {
+        return width;
+    }
+
+    /**
+     * Fetch the height of the boundary of the {@code Pickup}
+     *
+     * @return The height
+     */
+    @Override
+    public int getBoundsHeight() {
+        return height;
     }
 
     /**
      * Checks to see if the collision box provided intersects this pickups boundary
      *
-     * @param collision The collision box to test
+     * @param cX The X position of the collision box
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
      * @param source The source of the collision
-     * @return Returns true if the collision box is proven to intersect, false otherwise
+     * @return Returns 0 (the only part of a pickup) if the collision box intersects, {@code NO_COLLISION} otherwise
      */
     @Override
-    public Rectangle isCollisionBoxIntersecting(Rectangle collision, CollisionElement source) {
-        return getBounds().intersects(collision) ? getBounds() : null;
+    public int findCollision(int cX, int cY, int cW, int cH, CollisionElement source) {
+        // Matches Rectangle.intersects, which treats an empty box as never intersecting
+        if(cW <= 0 || cH <= 0 || width <= 0 || height <= 0) return NO_COLLISION;
+        return cX < x + width && x < cX + cW && cY < y + height && y < cY + cH ? 0 : NO_COLLISION;
+    }
+
+    /**
+     * Creates a {@code Rectangle} which represents the boundary of the {@code Pickup}
+     *
+     * @param hit The part collided with; a pickup only has one
+     * @return The boundary of the pickup
+     */
+    @Override
+    public Rectangle getHitBounds(int hit) {
+        return new Rectangle(x, y, width, height);
     }
 
     /**
      * Called when the pickup has collided with the border of the game; no action required
-     * @param collisionBox The collision box of the pickup that is said to be colliding with the boundary
+     *
+     * @param cX The X position of the collision box
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
      * @return Returns false as the collision is being ignored
      */
     @Override
-    public boolean collidedWithGameBoundary(Rectangle collisionBox) { return false; }
+    public boolean collidedWithGameBoundary(int cX, int cY, int cW, int cH) { return false; }
+
+    /**
+     * Fetch the dead-zone of the pickup; the distance from the edge of the game that the pickup can't be spawned within
+     *
+     * @return The dead-zone, in pixels
+     */
+    public int getSpawnDeadzone() {
+        return spawnDeadzone;
+    }
 
     /**
      * Tests that the given co-ordinates are within the eligible zone of the game (as in not outside of the deadzone)
@@ -201,8 +312,8 @@ public abstract class Pickup extends Entity {
      * @return Returns true if position is valid
      */
     public boolean checkSpawnPoint(int x, int y) {
-        Rectangle eligibleZone = new Rectangle(spawnDeadzone, spawnDeadzone, SnakeGame.WIDTH - (spawnDeadzone*2), SnakeGame.HEIGHT - (spawnDeadzone*2));
-        return eligibleZone.contains(x,y);
+        return x >= spawnDeadzone && x < SnakeGame.WIDTH - spawnDeadzone
+                && y >= spawnDeadzone && y < SnakeGame.HEIGHT - spawnDeadzone;
     }
 
     /**
@@ -0,0 +1,187 @@
+package entity;
+
+import controllers.BoxKernel;
+
+import java.util.Arrays;
+
+/**
+ * Stores the position and direction of every part of a {@code SnakeEntity} in primitive arrays, rather than as one
+ * object per part. The arrays are a plain growable store, with the head of the snake at index {@code 0} and the tail at
+ * index {@code size() - 1}. Every part is moved in place each tick, so the parts never need shifting; growing the
+ * snake appends to the tail, doubling the arrays when they're full.
+ *
+ * @author Harry Felton - 18032692
+ */
+class SnakeBody {
+    /**
+     * The capacity used when the body is first created
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Cached copy of {@code DIRECTION.values()}, used to turn the stored ordinals back in to directions
+     */
+    private static final SnakeEntity.DIRECTION[] DIRECTIONS = SnakeEntity.DIRECTION.values();
+
+    /**
+     * The x position of each part
+     */
+    private int[] xs = new int[INITIAL_CAPACITY];
+
+    /**
+     * The y position of each part
+     */
+    private int[] ys = new int[INITIAL_CAPACITY];
+
+    /**
+     * The ordinal of the direction of travel of each part
+     */
+    private byte[] dirs = new byte[INITIAL_CAPACITY];
+
+    /**
+     * The sequence number of the next {@code SnakeTurns} turn each part has to make
+     */
+    private int[] turnCursors = new int[INITIAL_CAPACITY];
+
+    /**
+     * The amount of parts stored
+     */
+    private int size = 0;
+
+    /**
+     * Fetch the amount of parts stored
+     *
+     * @return Returns the size of the body
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Fetch the x position of a part
+     *
+     * @param i The index of the part, 0 being the head
+     * @return Returns the x position
+     */
+    int x(int i) {
+        return xs[i];
+    }
+
+    /**
+     * Fetch the y position of a part
+     *
+     * @param i The index of the part, 0 being the head
+     * @return Returns the y position
+     */
+    int y(int i) {
+        return ys[i];
+    }
+
+    /**
+     * Fetch the direction of travel of a part
+     *
+     * @param i The index of the part, 0 being the head
+     * @return Returns the direction
+     */
+    SnakeEntity.DIRECTION direction(int i) {
+        return DIRECTIONS[dirs[i]];
+    }
+
+    /**
+     * Fetch the sequence number of the next turn a part has to make
+     *
+     * @param i The index of the part, 0 being the head
+     * @return Returns the turn sequence number
+     * @see SnakeTurns
+     */
+    int turnCursor(int i) {
+        return turnCursors[i];
+    }
+
+    /**
+     * Sets the sequence number of the next turn a part has to make
+     *
+     * @param i The index of the part, 0 being the head
+     * @param seq The turn sequence number
+     */
+    void setTurnCursor(int i, int seq) {
+        turnCursors[i] = seq;
+    }
+
+    /**
+     * Finds the first part, between the indexes provided, whose boundary intersects the box provided
+     *
+     * @param from The index of the first part to test, 0 being the head
+     * @param to The index after the last part to test
+     * @param width The width of each part
+     * @param height The height of each part
+     * @param qX The X position of the box
+     * @param qY The Y position of the box
+     * @param qW The width of the box
+     * @param qH The height of the box
+     * @return Returns the index of the part, or -1 if none intersect the box
+     * @see BoxKernel
+     */
+    int firstOverlap(int from, int to, int width, int height, int qX, int qY, int qW, int qH) {
+        if(from >= to) return -1;
+        return BoxKernel.firstHit(xs, ys, from, to, width, height, qX, qY, qW, qH);
+    }
+
+    /**
+     * Moves a part to a new position
+     *
+     * @param i The index of the part, 0 being the head
+     * @param x The new x position
+     * @param y The new y position
+     */
+    void setPosition(int i, int x, int y) {
+        xs[i] = x;
+        ys[i] = y;
+    }
+
+    /**
+     * Changes the direction of travel of a part
+     *
+     * @param i The index of the part, 0 being the head
+     * @param dir The new direction
+     */
+    void setDirection(int i, SnakeEntity.DIRECTION dir) {
+        dirs[i] = (byte)dir.ordinal();
+    }
+
+    /**
+     * Adds a new part to the tail of the snake, growing the arrays if they're full
+     *
+     * @param x The x position of the new part
+     * @param y The y position of the new part
+     * @param dir The direction of travel of the new part
+     * @param turnCursor The sequence number of the next turn the new part has to make
+     */
+    void append(int x, int y, SnakeEntity.DIRECTION dir, int turnCursor) {
+        if(size == xs.length) grow();
+
+        xs[size] = x;
+        ys[size] = y;
+        dirs[size] = (byte)dir.ordinal();
+        turnCursors[size] = turnCursor;
+        size++;
+    }
+
+    /**
+     * Removes every part
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Doubles the capacity of the arrays
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        dirs = Arrays.copyOf(dirs, capacity);
+        turnCursors = Arrays.copyOf(turnCursors, capacity);
+    }
+}
@@ -1,14 +1,19 @@
 package entity;
 
 import controllers.CollisionController;
+import controllers.CollisionHits;
+import controllers.GridChanges;
+import controllers.SnakeParts;
+import controllers.SpatialGrid;
 import interfaces.CollisionElement;
 import main.Player;
-import main.RandomPoint;
+import main.RenderSnapshot;
 import main.SnakeGame;
+import profiling.TickProfiler;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
  * The SnakeEntity class is responsible for moving and handling precise collision checks for the in-game snakes
@@ -16,6 +21,18 @@ import java.util.LinkedList;
  * @author Harry Felton - 18032692
  */
 public class SnakeEntity extends Entity implements CollisionElement {
+    /**
+     * The colour of the particles emitted when the snake of each player dies, matching the colour of it's body
+     */
+    protected static final Color[] DEATH_COLORS = { new Color(92, 184, 76), new Color(76, 128, 212) };
+
+    /**
+     * The distance between the starting positions of neighbouring snakes, while every snake fits inside the game
+     *
+     * @see #getStartX(int, int, int)
+     */
+    protected static final int START_SPACING = 100;
+
     /**
      * The image to be used for the head of the snake
      */
@@ -77,175 +94,159 @@ public class SnakeEntity extends Entity implements CollisionElement {
     }
 
     /**
-     * An inner class used to encapsulate the information of each part of the snake
+     * The engines that can be used to move the snake
      */
-    private static class SnakePart {
+    public enum MOVEMENT {
         /**
-         * The {@code SnakeEntity} the snake part belongs to
+         * Every part of the snake is moved individually each tick, making any turns it meets
          */
-        SnakeEntity master;
+        PER_PART,
 
         /**
-         * The x position of the snake part
+         * Only the head is moved; the path it takes is recorded, and the position of every other part is sampled
+         * from that path when needed. Moving the snake costs the same regardless of its length.
          */
-        int x;
-
-        /**
-         * The y position of the snake part
-         */
-        int y;
+        HEAD_PATH
+    }
 
-        /**
-         * The direction of movement of the snake part
-         */
-        DIRECTION direction;
+    /**
+     * Used to get the velocity coefficient in the X-axis of movement.
+     *
+     * @param direction The direction of travel
+     * @param velocity The velocity of the snake
+     * @return Returns 0 if not travelling on the X-axis, 1 if moving right, -1 if moving left
+     */
+    private static int getXVelocityCoefficient(DIRECTION direction, int velocity) {
+        return direction == DIRECTION.DOWN || direction == DIRECTION.UP ? 0 : velocity * (direction == DIRECTION.LEFT ? -1 : 1);
+    }
 
-        /**
-         * Constructs an instance of the {@code SnakePart} using the information provided
-         *
-         * @param snake The {@code SnakeEntity} this part is a part of
-         * @param X The X position of this part
-         * @param Y The Y position of this part
-         * @param dir The direction of travel this part is moving
-         */
-        public SnakePart(SnakeEntity snake, int X, int Y, DIRECTION dir) {
-            x = X;
-            y = Y;
-            direction = dir;
-            master = snake;
-        }
+    /**
+     * Used to get the velocity coefficient in the Y-axis of movement.
+     *
+     * @param direction The direction of travel
+     * @param velocity The velocity of the snake
+     * @return Returns 0 if not travelling on the Y-axis, 1 if moving down, -1 if moving up
+     */
+    private static int getYVelocityCoefficient(DIRECTION direction, int velocity) {
+        return direction == DIRECTION.LEFT || direction == DIRECTION.RIGHT ? 0 : velocity * (direction == DIRECTION.UP ? -1 : 1);
+    }
 
-        /**
-         * Used to get the velocity coefficient in the X-axis of movement.
-         *
-         * @param velocity The velocity of the snake
-         * @return Returns 0 if not travelling on the X-axis, 1 if moving right, -1 if moving left
-         */
-        public int getXVelocityCoefficient(int velocity) {
-            return direction == DIRECTION.DOWN || direction == DIRECTION.UP ? 0 : velocity * (direction == DIRECTION.LEFT ? -1 : 1);
+    /**
+     * Finds the starting X position of the snake belonging to a player. Snakes start {@code START_SPACING} apart, the
+     * first just left of the middle of the game; if that would place a snake outside of the game, every snake is
+     * instead spread evenly across it.
+     *
+     * @param playerId The ID of the player
+     * @param playerCount The amount of players in the game
+     * @param partWidth The width of each part of the snake
+     * @return Returns the starting X position
+     * @throws IllegalArgumentException If there are more players than {@link #getMaxPlayers(int)}
+     */
+    public static int getStartX(int playerId, int playerCount, int partWidth) {
+        if(playerCount > getMaxPlayers(partWidth)) {
+            throw new IllegalArgumentException("Can't place " + playerCount + " players; at most " + getMaxPlayers(partWidth) + " fit in the game");
         }
 
-        /**
-         * Used to get the velocity coefficient in the Y-axis of movement.
-         *
-         * @param velocity The velocity of the snake
-         * @return Returns 0 if not travelling on the Y-axis, 1 if moving down, -1 if moving up
-         */
-        public int getYVelocityCoefficient(int velocity) {
-            return direction == DIRECTION.LEFT || direction == DIRECTION.RIGHT ? 0 : velocity * (direction == DIRECTION.UP ? -1 : 1);
-        }
+        int first = SnakeGame.WIDTH/2 - START_SPACING;
+        if(first + START_SPACING*(playerCount - 1) + partWidth <= SnakeGame.WIDTH) return first + START_SPACING*playerId;
 
-        /**
-         * Calculates the boundary of the {@code SnakePart}
-         *
-         * @return The boundary of the {@code SnakePart} as a Rectangle
-         */
-        public Rectangle getBounds() {
-            return new Rectangle(x, y, master.partWidth, master.partHeight);
-        }
+        return SnakeGame.WIDTH / (playerCount + 1) * (playerId + 1) - partWidth/2;
     }
 
     /**
-     * An inner class used to encapsulate a turn which needs to be made by the snake
+     * Finds the most players that can start a game, with a gap at least as wide as a snake between each snake
+     *
+     * @param partWidth The width of each part of the snake
+     * @return Returns the amount of players
      */
-    private static class SnakeTurn {
-        /**
-         * The X position of the turn
-         */
-        int x;
+    public static int getMaxPlayers(int partWidth) {
+        return SnakeGame.WIDTH / (partWidth * 2) - 1;
+    }
 
-        /**
-         * The Y position of the turn
-         */
-        int y;
+    /**
+     * Tests if a point lies inside a boundary. Matches the behaviour of {@code Rectangle.contains(int, int)}, meaning a
+     * boundary with no width or height contains nothing
+     *
+     * @param px The X position of the point
+     * @param py The Y position of the point
+     * @param x The X position of the boundary
+     * @param y The Y position of the boundary
+     * @param w The width of the boundary
+     * @param h The height of the boundary
+     * @return Returns true if the point is inside the boundary, false otherwise
+     */
+    private static boolean contains(int px, int py, int x, int y, int w, int h) {
+        return w > 0 && h > 0 && px >= x && py >= y && px < x + w && py < y + h;
+    }
 
-        /**
-         * The direction that the turn needs to make the snake turn
-         */
-        DIRECTION newDirection;
+    /**
+     * The parts of the snake, stored as primitive arrays. Index 0 is the head
+     */
+    protected final SnakeBody snake = new SnakeBody();
 
-        /**
-         * Represents whether or not the turn has been completed by every {@code SnakePart}
-         */
-        protected boolean toDestroy = false;
+    /**
+     * The engine used to move this snake
+     */
+    protected final MOVEMENT movement;
 
-        /**
-         * Constructs a new {@code SnakeTurn} instance using the information provided
-         *
-         * @param X the X position of the turn
-         * @param Y the Y position of the turn
-         * @param dir The new direction of the snakes movement
-         */
-        public SnakeTurn(int X, int Y, DIRECTION dir) {
-            x = X;
-            y = Y;
-            newDirection = dir;
-        }
+    /**
+     * The path taken by the head of the snake when using {@code MOVEMENT.HEAD_PATH}, otherwise null. When set,
+     * {@code snake} only holds the head.
+     */
+    protected final SnakePath path;
 
-        /**
-         * Marks the turn for destruction
-         */
-        public void markForDestruction() {
-            toDestroy = true;
-        }
+    /**
+     * A record of turns made by the snake that haven't yet been made by every part
+     */
+    protected final SnakeTurns turns = new SnakeTurns();
 
-        /**
-         * Finds the next {@code SnakeTurn} inside the {@code bounds} provided that isn't the {@code SnakeTurn} {@code excludedTurn}
-         * provided
-         *
-         * @param bounds The boundary provided to search inside of
-         * @param turns The list of {@code SnakeTurn} instances to test
-         * @param excludedTurn The {@code SnakeTurn} to exclude
-         * @return Returns the {@code SnakeTurn} found, or null if none
-         */
-        public static SnakeTurn findNextTurn(Rectangle bounds, LinkedList<SnakeTurn> turns, SnakeTurn excludedTurn) {
-            for(SnakeTurn turn : turns) {
-                if(bounds.contains(turn.x, turn.y) && !turn.toDestroy && turn != excludedTurn) { return turn; }
-            }
+    /**
+     * The difference between the sequence number of each turn made by the head and the path vertex it added, when
+     * using {@code MOVEMENT.HEAD_PATH}
+     *
+     * @see #retireTurns()
+     */
+    protected int pathTurnOffset;
 
-            return null;
-        }
+    /**
+     * The collision boxes representing the movement of the head during the last update tick, stored as
+     * {@code x, y, width, height} for each box
+     *
+     * @see #moveSnake()
+     */
+    protected int[] collisionBoxes = new int[16];
 
-        /**
-         * Finds the next {@code SnakeTurn} inside the {@code bounds} provided.
-         *
-         * @param bounds The boundary provided to search inside of
-         * @param turns The list of {@code SnakeTurn} instances to test
-         * @return Returns the {@code SnakeTurn} found, or null if none
-         */
-        public static SnakeTurn findNextTurn(Rectangle bounds, LinkedList<SnakeTurn> turns) {
-            for(SnakeTurn turn : turns) {
-                if(bounds.contains(turn.x, turn.y) && !turn.toDestroy) { return turn; }
-            }
+    /**
+     * The amount of collision boxes stored in {@code collisionBoxes}
+     */
+    protected int collisionBoxCount = 0;
 
-            return null;
-        }
+    /**
+     * The changes to the collision grid caused by the last move, waiting to be applied
+     *
+     * @see #publishMove()
+     */
+    protected final GridChanges gridChanges = new GridChanges();
 
-        /**
-         * Destroys any turns that are marked for destruction from the list of turns provided
-         *
-         * @param turns The list of turns to search for {@code SnakeTurns} to be removed
-         */
-        public static void destroyDwindling(LinkedList<SnakeTurn> turns) {
-            // Iterate backwards to avoid index out-of-sync issues when removing elements.
-            // Also, realistically makes the most sense as the oldest turns will be at the end of the list; older=more
-            // likely to be in need of destruction.
-            for (int i = turns.size() - 1; i > 0; i--) {
-                SnakeTurn turn = turns.get(i);
-                if (turn.toDestroy) { turns.remove(i); }
-            }
-        }
-    }
+    /**
+     * The collisions found for {@code collisionBoxes} when the snake is updated in two phases
+     *
+     * @see #detectCollisions()
+     * @see #resolveCollisions(double)
+     */
+    protected final CollisionHits collisionHits = new CollisionHits();
 
     /**
-     * The parts of the snake
+     * The boundary of the snake, as last calculated
+     *
+     * @see #updateBounds()
      */
-    protected LinkedList<SnakePart> snake = new LinkedList<>();
+    private int boundsX, boundsY, boundsWidth, boundsHeight;
 
     /**
-     * A record of turns made by the snake
+     * Set when the snake has moved or grown since the boundary was last calculated
      */
-    protected LinkedList<SnakeTurn> turns = new LinkedList<>();
+    private boolean boundsChanged = true;
 
     /**
      * Constructs a snake instance, sets the initial size and direction, and finds the width and height of each
@@ -273,6 +274,9 @@ public class SnakeEntity extends Entity implements CollisionElement {
         startSize = size;
         startDirection = dir;
 
+        movement = game.getSnakeMovement();
+        path = movement == MOVEMENT.HEAD_PATH ? new SnakePath(dir == DIRECTION.LEFT || dir == DIRECTION.RIGHT ? partWidth : partHeight) : null;
+
         increaseLength(startSize);
     }
 
@@ -281,9 +285,11 @@ public class SnakeEntity extends Entity implements CollisionElement {
      *
      * @param game The {@code SnakeGame} instance the snake is attached to
      * @param player The {@code Player} instance the snake belongs to
+     * @param playerCount The amount of players in the game, used to find the starting position of the snake
+     * @see #getStartX(int, int, int)
      */
-    public SnakeEntity(SnakeGame game, Player player) {
-        this(game, 100*(player.getId()-1) + SnakeGame.WIDTH/2, SnakeGame.HEIGHT/2, 10, DIRECTION.UP, player);
+    public SnakeEntity(SnakeGame game, Player player, int playerCount) {
+        this(game, getStartX(player.getId(), playerCount, game.snakeHeadImage.getWidth()), SnakeGame.HEIGHT/2, 10, DIRECTION.UP, player);
     }
 
     /**
@@ -292,40 +298,109 @@ public class SnakeEntity extends Entity implements CollisionElement {
      * @param amount The amount that the snake should be increased by
      */
     public void increaseLength(int amount) {
-        SnakePart last = snake.peekLast();
-        int oX, oY;
+        int last = snake.size() - 1;
+        int oX, oY, oC;
         DIRECTION oD;
-        if(last == null) {
+        if(last < 0) {
             oX = startX;
             oY = startY;
             oD = startDirection;
+            oC = turns.end();
         } else {
-            oX = last.x;
-            oY = last.y;
-            oD = last.direction;
+            oX = snake.x(last);
+            oY = snake.y(last);
+            oD = snake.direction(last);
+            // New parts trail the last part, so they have the same turns still to make
+            oC = snake.turnCursor(last);
         }
 
         int offsetX = oD == DIRECTION.LEFT ? 1 : (oD == DIRECTION.RIGHT ? -1 : 0);
         int offsetY = oD == DIRECTION.UP ? 1 : (oD == DIRECTION.DOWN ? -1 : 0);
-        for (int i = 0; i < amount; i++) {
-            snake.addLast(new SnakePart(this,oX + (partWidth*(i+1)*offsetX), oY + (partHeight*(i+1)*offsetY), oD));
+        if(path != null) {
+            // Only the head is stored; the rest of the parts are sampled from the path it takes
+            if(last < 0 && amount > 0) {
+                snake.append(oX + partWidth*offsetX, oY + partHeight*offsetY, oD, oC);
+                path.start(snake.x(0), snake.y(0), oD);
+                pathTurnOffset = path.first() + 1 - turns.end();
+                amount--;
+            }
+
+            int oldFirst = path.first();
+            path.lengthen(amount);
+            if(collisionGrid != null) {
+                // The path may have been extended backwards to reach the new tail
+                for(int v = path.first(); v < oldFirst; v++) {
+                    collisionGrid.insertLine(collisionHandle, path.vertexX(v), path.vertexY(v), path.vertexX(v + 1), path.vertexY(v + 1));
+                }
+            }
+        } else {
+            for (int i = 0; i < amount; i++) {
+                int pX = oX + (partWidth*(i+1)*offsetX);
+                int pY = oY + (partHeight*(i+1)*offsetY);
+                snake.append(pX, pY, oD, oC);
+                if(collisionGrid != null) collisionGrid.insert(collisionHandle, pX, pY);
+            }
         }
+
+        // The new tail may have grown outside of the bounds the collision controller knows about
+        boundsChanged = true;
+        gameInstance.getCollisionController().entityMoved(this);
     }
 
     /**
-     * Change the direction of the snake by inserting a {@code SnakeTurn} just in front of the snake
+     * Change the direction of the snake by inserting a turn just in front of the snake
      *
      * @param newDirection The new direction of the snakes movement
      */
     public void changeDirection(DIRECTION newDirection) {
         // To change direction, we simply insert a turn in-front of the snake; when it encounters this turn during the
         // update phase of the game loop, it will execute the turn.
-        SnakePart head = snake.peekFirst();
-        if(head == null) return;
+        if(snake.size() == 0) return;
+
+        DIRECTION headDirection = snake.direction(0);
+        int offsetX = headDirection == DIRECTION.LEFT ? -1 : (headDirection == DIRECTION.RIGHT ? 1 : 0);
+        int offsetY = headDirection == DIRECTION.UP ? -1 : (headDirection == DIRECTION.DOWN ? 1 : 0);
+        int turnX = snake.x(0) + offsetX;
+        int turnY = snake.y(0) + offsetY;
+
+        // If the head hasn't yet reached the newest turn and it's in the same place, the new direction replaces it;
+        // only the latest change of direction before the head moves should be made.
+        int newest = turns.end() - 1;
+        if(newest >= snake.turnCursor(0) && turns.x(newest) == turnX && turns.y(newest) == turnY) {
+            turns.setDirection(newest, newDirection);
+        } else {
+            turns.add(turnX, turnY, newDirection);
+        }
+    }
+
+    /**
+     * Adds the snake to the collision grid. When every part is moved, each part is added and moved between cells as
+     * it travels; when following the path of the head, each segment of the path is added instead, so only the
+     * segments at the head and tail ever change.
+     *
+     * @param grid The grid to add the snake to
+     */
+    @Override
+    public void addToCollisionGrid(SpatialGrid grid) {
+        int handle = registerWithGrid(grid, partWidth, partHeight, true);
+        if(path == null) {
+            for(int i = 0, snakeSize = snake.size(); i < snakeSize; i++) grid.insert(handle, snake.x(i), snake.y(i));
+        } else if(snake.size() > 0) {
+            for(int v = path.first(); v < path.newest(); v++) {
+                grid.insertLine(handle, path.vertexX(v), path.vertexY(v), path.vertexX(v + 1), path.vertexY(v + 1));
+            }
+            grid.insertLine(handle, path.vertexX(path.newest()), path.vertexY(path.newest()), snake.x(0), snake.y(0));
+        }
+    }
 
-        int offsetX = head.direction == DIRECTION.LEFT ? -1 : (head.direction == DIRECTION.RIGHT ? 1 : 0);
-        int offsetY = head.direction == DIRECTION.UP ? -1 : (head.direction == DIRECTION.DOWN ? 1 : 0);
-        turns.addFirst(new SnakeTurn(head.x + offsetX, head.y + offsetY, newDirection));
+    /**
+     * Fetch the kind of collision element this is
+     *
+     * @return Returns {@code KIND.SNAKE}
+     */
+    @Override
+    public KIND getKind() {
+        return KIND.SNAKE;
     }
 
     /**
@@ -347,237 +422,821 @@ public class SnakeEntity extends Entity implements CollisionElement {
     }
 
     /**
-     * Creates a collision box representing the movement of the snake during the last update tick
+     * Fetch the position of the head of the snake on the X-axis
+     *
+     * @return Returns the X position of the head
+     */
+    public int getHeadX() {
+        return snake.x(0);
+    }
+
+    /**
+     * Fetch the position of the head of the snake on the Y-axis
+     *
+     * @return Returns the Y position of the head
+     */
+    public int getHeadY() {
+        return snake.y(0);
+    }
+
+    /**
+     * Fetch the direction the head of the snake is currently travelling
+     *
+     * @return Returns the direction of the head
+     */
+    public DIRECTION getDirection() {
+        return snake.direction(0);
+    }
+
+    /**
+     * Fetch the amount of parts making up this snake, including the head
+     *
+     * @return Returns the length of the snake
+     */
+    public int getLength() {
+        return path == null ? snake.size() : path.length();
+    }
+
+    /**
+     * Adds a collision box representing the movement of the snake during the last update tick
      *
      * @param x The x value of the collision
      * @param y The y value of the collision
      * @param deltaX The deltaX value of the collision
      * @param deltaY The deltaY value of the collision
-     * @return The collision box
      */
-    protected Rectangle createCollisionBox(int x, int y, int deltaX, int deltaY) {
-        return new Rectangle(Math.min(x, deltaX), Math.min(y, deltaY), partWidth, partHeight);
+    protected void addCollisionBox(int x, int y, int deltaX, int deltaY) {
+        if(collisionBoxCount * 4 == collisionBoxes.length) collisionBoxes = Arrays.copyOf(collisionBoxes, collisionBoxes.length * 2);
+
+        int b = collisionBoxCount++ * 4;
+        collisionBoxes[b] = Math.min(x, deltaX);
+        collisionBoxes[b + 1] = Math.min(y, deltaY);
+        collisionBoxes[b + 2] = partWidth;
+        collisionBoxes[b + 3] = partHeight;
     }
 
     /**
-     * Move the snake according to the {@code velocity} of the snake. Any {@code SnakeTurn} instances found
-     * in the way of the snakes movement will be executed
+     * Move the snake according to the {@code velocity} of the snake. Any turns found in the way of the snakes movement
+     * will be executed. Nothing outside of the snake is changed; the changes to the collision grid are recorded in
+     * {@code gridChanges}, to be applied by {@link #publishMove()}.
      *
-     * @return A list of collision boxes that represent the snakes movement
+     * @return The amount of collision boxes that represent the snakes movement, stored in {@code collisionBoxes}
      */
-    public LinkedList<Rectangle> moveSnake() {
+    public int moveSnake() {
         // So, when moving the snake we move all parts at the same velocity. As each part of the snake
-        // may be travelling a different direction, we use a linked list (turns) to keep track of user turns.
+        // may be travelling a different direction, we use a ring buffer (turns) to keep track of user turns.
 
-        // When a dot needs to move, we first check if it's going to pass through one of these turns (look ahead). If we
-        // are going to, we can apply the turn and continue on our new path.
+        // Every part follows the same path, so every part meets the turns in the same order; each part only needs to
+        // check the next turn it hasn't made yet (its turn cursor). When a part is going to pass through that turn
+        // (look ahead), we can apply the turn, advance the cursor and continue on our new path. The head is the
+        // exception; it can double back in to any turn the tail hasn't made yet, so it checks all of them.
 
-        // Once all dots have moved past the turn, it is destroyed from the linked list.
+        // Once the tail has moved past a turn, it is retired from the ring buffer (see update).
 
         // Store rectangles that map the movement of the head of the snake for collision testing in the next step.
         // This allows us to see if the snake left the map, collided with an entity, etc.
-        // We can't simply look ahead to see if it's GOING to hit something, as we don't know that there isn't a SnakeTurn
+        // We can't simply look ahead to see if it's GOING to hit something, as we don't know that there isn't a turn
         // before then; implementing a separate system to check seems like a waste when this entire method is essentially
         // doing that already and there's no real advantage to us calculating the path of the snake twice.
-        LinkedList<Rectangle> collisionBoxes = new LinkedList<>();
+        collisionBoxCount = 0;
+        if(snake.size() == 0) return collisionBoxCount;
+        boundsChanged = true;
+
+        // When following the path of the head, only the head is stored and moved
+        int turnsEnd = turns.end();
+        int headCursor = snake.turnCursor(0);
+        int headX = snake.x(0);
+        int headY = snake.y(0);
         for (int i = 0, snakeSize = snake.size(); i < snakeSize; i++) {
-            SnakePart s = snake.get(i);
             boolean isHead = i == 0;
-            boolean isLastPart = (i+1) == snakeSize;
 
             // Starting
-            int sX = s.x;
-            int sY = s.y;
+            int sX = snake.x(i);
+            int sY = snake.y(i);
+            DIRECTION sD = snake.direction(i);
+            int cursor = snake.turnCursor(i);
             // Target
-            int tX = s.x + s.getXVelocityCoefficient(velocity);
-            int tY = s.y + s.getYVelocityCoefficient(velocity);
+            int tX = sX + getXVelocityCoefficient(sD, velocity);
+            int tY = sY + getYVelocityCoefficient(sD, velocity);
 
-            // So, we know where we're trying to go (using velocity), check if this boundary intersects with a turn.
-            // This boundary covers where we are, and where we're going. We use Math.min/max to ensure the rectangle
+            // Where the part ends up
+            int nX = sX;
+            int nY = sY;
+
+            // So, we know where we're trying to go (using velocity), check if this boundary contains the next turn.
+            // This boundary covers where we are, and where we're going. We use Math.min/max to ensure the boundary
             // doesn't have a negative width and height, but instead just starts further up/left.
+            int bX = Math.min(sX, tX);
+            int bY = Math.min(sY, tY);
+            int bW = Math.max(1, Math.abs(tX - sX));
+            int bH = Math.max(1, Math.abs(tY - sY));
+            boolean turning;
+            if(isHead) {
+                // If the head has run back in to a turn it has already made, the turn is repeated so the rest of the
+                // snake makes it again too
+                int seq = findTurn(bX, bY, bW, bH);
+                if(seq >= 0 && seq < cursor) {
+                    cursor = turns.repeat(seq);
+                    turnsEnd = turns.end();
+                }
+                turning = seq >= 0;
+            } else {
+                turning = cursor < turnsEnd && contains(turns.x(cursor), turns.y(cursor), bX, bY, bW, bH);
+            }
 
-            Rectangle boundary = new Rectangle(Math.min(sX, tX), Math.min(sY, tY), Math.max( 1, Math.max(sX, tX) - Math.min(sX, tX) ), Math.max( 1, Math.max(sY, tY) - Math.min(sY, tY)));
+            if(turning) {
+                while (turning) {
+                    int turnX = turns.x(cursor);
+                    int turnY = turns.y(cursor);
+                    DIRECTION turnDirection = turns.direction(cursor);
 
-            SnakeTurn t = SnakeTurn.findNextTurn(boundary, turns);
-            if(t != null) {
-                while (t != null) {
                     // We're going to collide with a 'turn'; however we might not be landing right on it, we could be
                     // moving past it. Find the difference between the snake part and the turn and apply them so the
                     // dot moves fluidly around the 'turn/corner'.
-                    int dX = Math.max(t.x, tX) - Math.min(t.x, tX);
-                    int dY = Math.max(t.y, tY) - Math.min(t.y, tY);
+                    int dX = Math.abs(tX - turnX);
+                    int dY = Math.abs(tY - turnY);
 
-                    // Before we commit to the move, check if there's another turn between this turn, and the destination
-                    boundary.setRect(Math.min(t.x, tX), Math.min(t.y, tY), Math.max(t.x, tX) - Math.min(t.x, tX), Math.max(t.y, tY) - Math.min(t.y, tY));
-                    SnakeTurn nextTurn = SnakeTurn.findNextTurn(boundary, turns, t);
+                    // Before we commit to the move, check if the following turn is between this turn, and the destination
+                    cursor++;
+                    boolean nextTurn = cursor < turnsEnd && contains(turns.x(cursor), turns.y(cursor),
+                            Math.min(turnX, tX), Math.min(turnY, tY), dX, dY);
 
-                    switch(t.newDirection){
+                    switch(turnDirection){
                         case UP:
                             dY = dY * -1;
                         case DOWN:
-                            s.x = t.x;
-                            if(nextTurn != null) {
-                                s.y = t.y;
-                                tY = s.y + dY;
+                            nX = turnX;
+                            if(nextTurn) {
+                                nY = turnY;
+                                tY = nY + dY;
                             } else {
-                                s.y = t.y + dY;
+                                nY = turnY + dY;
                             }
 
                             break;
                         case LEFT:
                             dX = dX * -1;
                         case RIGHT:
-                            s.y = t.y;
-                            if(nextTurn != null) {
-                                s.x = t.x;
-                                tX = s.x + dX;
+                            nY = turnY;
+                            if(nextTurn) {
+                                nX = turnX;
+                                tX = nX + dX;
                             } else {
-                                s.x = t.x + dX;
+                                nX = turnX + dX;
                             }
 
                             break;
                     }
 
-                    if(isLastPart)  t.markForDestruction();
-                    if(isHead)      collisionBoxes.add(createCollisionBox(sX, sY, s.x, s.y));
-                    s.direction =   t.newDirection;
-                    t = nextTurn;
+                    if(isHead)      addCollisionBox(sX, sY, nX, nY);
+                    sD =            turnDirection;
+                    turning =       nextTurn;
                 }
 
+                snake.setPosition(i, nX, nY);
+                if(collisionGrid != null && path == null) gridChanges.move(sX, sY, nX, nY);
+                snake.setDirection(i, sD);
+                snake.setTurnCursor(i, cursor);
                 // Done.
             } else {
-                s.x = tX;
-                s.y = tY;
+                snake.setPosition(i, tX, tY);
+                if(collisionGrid != null && path == null) gridChanges.move(sX, sY, tX, tY);
+
+                if(isHead) addCollisionBox(sX, sY, tX, tY);
+            }
+        }
+
+        if(path != null) {
+            // Record the turns the head made, the rest of the snake will follow them as the path moves on
+            for(int c = headCursor, end = snake.turnCursor(0); c < end; c++) {
+                int turnX = turns.x(c);
+                int turnY = turns.y(c);
+                path.turn(turnX, turnY, turns.direction(c));
+
+                // The segment the head was on ends at the turn, and a new one starts from it
+                if(collisionGrid != null) {
+                    gridChanges.extendLine(headX, headY, turnX, turnY);
+                    gridChanges.insertLine(turnX, turnY, turnX, turnY);
+                }
+                headX = turnX;
+                headY = turnY;
+            }
+
+            int oldFirst = path.first();
+            path.advance(velocity, snake.x(0), snake.y(0));
+            if(collisionGrid != null) {
+                gridChanges.extendLine(headX, headY, snake.x(0), snake.y(0));
 
-                if(isHead) collisionBoxes.add(createCollisionBox(sX, sY, tX, tY));
+                // Remove the segments the tail has moved past
+                for(int v = oldFirst; v < path.first(); v++) {
+                    gridChanges.removeLine(path.vertexX(v), path.vertexY(v), path.vertexX(v + 1), path.vertexY(v + 1));
+                }
             }
         }
 
-        return collisionBoxes;
+        return collisionBoxCount;
+    }
+
+    /**
+     * Finds the newest turn inside the boundary provided that hasn't yet been made by the tail of the snake. Repeats
+     * are skipped, as they're in the same place as the turn they repeat.
+     *
+     * @param x The X position of the boundary
+     * @param y The Y position of the boundary
+     * @param w The width of the boundary
+     * @param h The height of the boundary
+     * @return Returns the sequence number of the turn found, or -1 if none
+     */
+    private int findTurn(int x, int y, int w, int h) {
+        for(int seq = turns.end() - 1; seq >= turns.first(); seq--) {
+            if(turns.isOriginal(seq) && contains(turns.x(seq), turns.y(seq), x, y, w, h)) return seq;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Retires every turn that the tail of the snake has made. When following the path of the head, the tail has made
+     * a turn once it has reached the vertex the turn added to the path.
+     */
+    protected void retireTurns() {
+        if(snake.size() == 0) return;
+
+        if(path == null) {
+            // Every turn before the one the tail is waiting on has been made by the entire snake
+            turns.retireBefore(snake.turnCursor(snake.size() - 1));
+        } else {
+            turns.retireBefore(path.first() - pathTurnOffset + 1);
+        }
+    }
+
+    /**
+     * Finds the last part of the straight run of parts starting at the part provided. Between two turns the body of
+     * the snake is a straight line, so each run can be treated as a single strip when testing collisions.
+     *
+     * When moving every part, a run is the parts waiting on the same turn; when following the path of the head, it's
+     * the parts travelling away from the vertex {@code v}.
+     *
+     * @param from The index of the first part of the run
+     * @param v The sequence number of the path vertex the run travels away from; ignored when moving every part
+     * @return Returns the index of the last part of the run, or less than {@code from} if the run is empty
+     */
+    protected int getRunEnd(int from, int v) {
+        if(path != null) return path.lastPartReaching(v);
+
+        // The turn cursors never increase from head to tail, so the end of the run can be found by a binary search
+        int cursor = snake.turnCursor(from);
+        int low = from;
+        int high = snake.size() - 1;
+        while(low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if(snake.turnCursor(mid) == cursor) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Finds the X position of a part inside a run
+     *
+     * @param i The index of the part
+     * @param v The sequence number of the path vertex the run travels away from; ignored when moving every part
+     * @return Returns the X position
+     * @see #getRunEnd(int, int)
+     */
+    private int getRunPartX(int i, int v) {
+        return path == null || i == 0 ? snake.x(i) : path.x(v, path.arcOf(i));
+    }
+
+    /**
+     * Finds the Y position of a part inside a run
+     *
+     * @param i The index of the part
+     * @param v The sequence number of the path vertex the run travels away from; ignored when moving every part
+     * @return Returns the Y position
+     * @see #getRunEnd(int, int)
+     */
+    private int getRunPartY(int i, int v) {
+        return path == null || i == 0 ? snake.y(i) : path.y(v, path.arcOf(i));
+    }
+
+    /**
+     * Fetch the position of the left of the rough bounding box of this snake
+     *
+     * @return Returns the X position
+     * @see #updateBounds()
+     */
+    @Override
+    public int getBoundsX() {
+        updateBounds();
+        return boundsX;
+    }
+
+    /**
+     * Fetch the position of the top of the rough bounding box of this snake
+     *
+     * @return Returns the Y position
+     * @see #updateBounds()
+     */
+    @Override
+    public int getBoundsY() {
+        updateBounds();
+        return boundsY;
+    }
+
+    /**
+     * Fetch the width of the rough bounding box of this snake
+     *
+     * @return Returns the width
+     * @see #updateBounds()
+     */
+    @Override
+    public int getBoundsWidth() {
+        updateBounds();
+        return boundsWidth;
     }
 
     /**
-     * Returns a rough bounding box of this snake; of course, because a snake is not always rectangular, this
-     * bounding box is for preliminary checks ONLY. It should only be used to ignore potential collisions, not to confirm
-     * them.
+     * Fetch the height of the rough bounding box of this snake
      *
-     * @return Returns the boundary
+     * @return Returns the height
+     * @see #updateBounds()
      */
-    public Rectangle getBounds() {
+    @Override
+    public int getBoundsHeight() {
+        updateBounds();
+        return boundsHeight;
+    }
+
+    /**
+     * Calculates a rough bounding box of this snake, if it has moved since it was last calculated; of course, because
+     * a snake is not always rectangular, this bounding box is for preliminary checks ONLY. It should only be used to
+     * ignore potential collisions, not to confirm them.
+     */
+    private void updateBounds() {
+        if(!boundsChanged) return;
+        boundsChanged = false;
+
         int minX = 0;
         int minY = 0;
         int maxX = 0;
         int maxY = 0;
-        // Find the min and max parts of the snake
-        for (int i = 0, snakeSize = snake.size(); i < snakeSize; i++) {
-            SnakePart part = snake.get(i);
-            if(i == 0) {
-                minX = part.x;
-                minY = part.y;
-                maxX = part.x;
-                maxY = part.y;
-            }
+        // Find the min and max parts of the snake; as each run is straight, only the ends of each run are needed
+        for (int from = 0, snakeSize = getLength(), v = path == null ? 0 : path.newest(); from < snakeSize; v--) {
+            int to = getRunEnd(from, v);
+            if(to < from) continue;
+
+            for(int i = from; i <= to; i += Math.max(1, to - from)) {
+                int partX = getRunPartX(i, v);
+                int partY = getRunPartY(i, v);
+                if(i == 0) {
+                    minX = partX;
+                    minY = partY;
+                    maxX = partX;
+                    maxY = partY;
+                }
 
-            if (part.x < minX) {
-                minX = part.x;
-            } else if (part.x > maxX) {
-                maxX = part.x;
-            }
-            if (part.y < minY) {
-                minY = part.y;
-            } else if (part.y > maxY) {
-                maxY = part.y;
+                minX = Math.min(minX, partX);
+                minY = Math.min(minY, partY);
+                maxX = Math.max(maxX, partX);
+                maxY = Math.max(maxY, partY);
             }
+
+            from = to + 1;
         }
 
-        return new Rectangle(minX, minY, maxX - minX + partWidth, maxY - minY + partHeight);
+        boundsX = minX;
+        boundsY = minY;
+        boundsWidth = maxX - minX + partWidth;
+        boundsHeight = maxY - minY + partHeight;
     }
 
     /**
-     * Prove the collision provided is with intent, and not just an incidental collision caused by the snake
-     * parts being close together.
+     * Finds the X position of a part of the snake
+     *
+     * @param i The index of the part, 0 being the head
+     * @return Returns the X position
+     */
+    public int getPartX(int i) {
+        if(path == null || i == 0) return snake.x(i);
+
+        long arc = path.arcOf(i);
+        return path.x(path.locate(arc), arc);
+    }
+
+    /**
+     * Finds the Y position of a part of the snake
+     *
+     * @param i The index of the part, 0 being the head
+     * @return Returns the Y position
+     */
+    public int getPartY(int i) {
+        if(path == null || i == 0) return snake.y(i);
+
+        long arc = path.arcOf(i);
+        return path.y(path.locate(arc), arc);
+    }
+
+    /**
+     * Calculates the boundary of a single part of the snake
+     *
+     * @param i The index of the part, 0 being the head
+     * @return The boundary of the part as a Rectangle
+     */
+    protected Rectangle getPartBounds(int i) {
+        return new Rectangle(getPartX(i), getPartY(i), partWidth, partHeight);
+    }
+
+    /**
+     * Calculates the boundary of the part of the snake that has been collided with
+     *
+     * @param hit The index of the part, 0 being the head
+     * @return The boundary of the part as a Rectangle
+     */
+    @Override
+    public Rectangle getHitBounds(int hit) {
+        return getPartBounds(hit);
+    }
+
+    /**
+     * Prove the collision with the part provided is with intent, and not just an incidental collision caused by the
+     * snake parts being close together.
      *
      * A collision is proven to have intent, if the head of the snake is heading TOWARDS the collision
      *
-     * @param sourceCollision The collision box to be tested
-     * @param infringedBoundary The collision box that has been collided with
+     * @param partX The X position of the part that has been collided with
+     * @param partY The Y position of the part that has been collided with
      * @return Returns true if the collision should be acted upon, false otherwise
      */
-    private boolean proveCollisionIntent(Rectangle sourceCollision, Rectangle infringedBoundary) {
-        SnakePart head = snake.getFirst();
-        Rectangle headBounds = head.getBounds();
+    private boolean proveCollisionIntent(int partX, int partY) {
+        DIRECTION headDirection = snake.direction(0);
+        int headX = snake.x(0);
+        int headY = snake.y(0);
 
-        if(head.direction == DIRECTION.UP && headBounds.y + headBounds.height <= infringedBoundary.y + infringedBoundary.height) {
+        if(headDirection == DIRECTION.UP && headY <= partY) {
             return false;
-        } else if(head.direction == DIRECTION.DOWN && headBounds.y >= infringedBoundary.y) {
+        } else if(headDirection == DIRECTION.DOWN && headY >= partY) {
             return false;
-        } else if(head.direction == DIRECTION.LEFT && headBounds.x + headBounds.width <= infringedBoundary.x + infringedBoundary.width) {
+        } else if(headDirection == DIRECTION.LEFT && headX <= partX) {
             return false;
-        } else return head.direction != DIRECTION.RIGHT || headBounds.x < infringedBoundary.x;
+        } else return headDirection != DIRECTION.RIGHT || headX < partX;
+    }
+
+    /**
+     * Tests if a part inside a run lies entirely in front of the collision box provided, in the direction the run is
+     * travelling. Parts further along the run are further behind, so once this is false it stays false.
+     *
+     * @param partX The X position of the part
+     * @param partY The Y position of the part
+     * @param dir The direction the run is travelling
+     * @param cX The X position of the collision box
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
+     * @return Returns true if the part is in front of the collision box
+     */
+    private boolean isPartAhead(int partX, int partY, DIRECTION dir, int cX, int cY, int cW, int cH) {
+        switch(dir) {
+            case UP:    return partY + partHeight <= cY;
+            case DOWN:  return partY >= cY + cH;
+            case LEFT:  return partX + partWidth <= cX;
+            default:    return partX >= cX + cW;
+        }
+    }
+
+    /**
+     * Tests if a part inside a run lies entirely behind the collision box provided, in the direction the run is
+     * travelling. Parts further along the run are further behind, so once this is true it stays true.
+     *
+     * @param partX The X position of the part
+     * @param partY The Y position of the part
+     * @param dir The direction the run is travelling
+     * @param cX The X position of the collision box
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
+     * @return Returns true if the part is behind the collision box
+     */
+    private boolean isPartBehind(int partX, int partY, DIRECTION dir, int cX, int cY, int cW, int cH) {
+        switch(dir) {
+            case UP:    return partY >= cY + cH;
+            case DOWN:  return partY + partHeight <= cY;
+            case LEFT:  return partX >= cX + cW;
+            default:    return partX + partWidth <= cX;
+        }
     }
 
     /**
      * Tests if the collision box provided is intersecting with the boundary of this snake
      *
-     * @param collision The collision box to test
+     * @param cX The X position of the collision box to test
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
      * @param source The source of the collision
-     * @return Returns true if the collision box is intersecting this snake, false otherwise
+     * @return Returns the index of the part collided with, or {@code NO_COLLISION} if the collision box isn't
+     *         intersecting this snake
      */
     @Override
-    public Rectangle isCollisionBoxIntersecting(Rectangle collision, CollisionElement source) {
-        if(!collision.intersects(getBounds())) return null;
-
-        // Check each part of the snake, return true as soon as collision occurs.
-        // Ignore the head as the heads movement will always 'collide' with it's own.. movement.. obviously.
-        for (SnakePart part : snake) {
-            if (part.getBounds().intersects(collision) && (!source.equals(this) || proveCollisionIntent(collision, part.getBounds()))) {
-                return part.getBounds();
+    public int findCollision(int cX, int cY, int cW, int cH, CollisionElement source) {
+        boolean self = source == this;
+
+        // Each straight run of parts is tested as a single strip, and only the parts of a strip that's hit are checked.
+        // When the head is testing it's own snake, the run the head is in is skipped; every part in it is directly
+        // behind the head, so could never be collided with intentionally.
+        for (int from = 0, snakeSize = getLength(), v = path == null ? 0 : path.newest(); from < snakeSize; v--) {
+            int to = getRunEnd(from, v);
+            if(to < from) continue;
+
+            int startX = getRunPartX(from, v);
+            int startY = getRunPartY(from, v);
+            int endX = getRunPartX(to, v);
+            int endY = getRunPartY(to, v);
+            if((self && from == 0)
+                    || Math.min(startX, endX) >= cX + cW || cX >= Math.max(startX, endX) + partWidth
+                    || Math.min(startY, endY) >= cY + cH || cY >= Math.max(startY, endY) + partHeight) {
+                from = to + 1;
+                continue;
+            }
+
+            // Skip the parts in front of the collision, then check each part until they're behind it
+            DIRECTION dir = path == null ? snake.direction(from) : path.direction(v);
+            int low = from;
+            int high = to + 1;
+            while(low < high) {
+                int mid = (low + high) >>> 1;
+                if(isPartAhead(getRunPartX(mid, v), getRunPartY(mid, v), dir, cX, cY, cW, cH)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            if(path == null) {
+                // The parts are stored, so the parts level with the collision box are tested as a batch
+                int behind = low;
+                high = to + 1;
+                while(behind < high) {
+                    int mid = (behind + high) >>> 1;
+                    if(isPartBehind(snake.x(mid), snake.y(mid), dir, cX, cY, cW, cH)) {
+                        high = mid;
+                    } else {
+                        behind = mid + 1;
+                    }
+                }
+
+                for(int i = snake.firstOverlap(low, behind, partWidth, partHeight, cX, cY, cW, cH); i >= 0;
+                        i = snake.firstOverlap(i + 1, behind, partWidth, partHeight, cX, cY, cW, cH)) {
+                    if(!self || proveCollisionIntent(snake.x(i), snake.y(i))) {
+                        return i;
+                    }
+                }
+
+                from = to + 1;
+                continue;
+            }
+
+            for(int i = low; i <= to; i++) {
+                int partX = getRunPartX(i, v);
+                int partY = getRunPartY(i, v);
+                if (partX < cX + cW && cX < partX + partWidth && partY < cY + cH && cY < partY + partHeight) {
+                    if(!self || proveCollisionIntent(partX, partY)) {
+                        return i;
+                    }
+                } else if(!isPartAhead(partX, partY, dir, cX, cY, cW, cH)) {
+                    // Behind the collision box; the rest of the run is too
+                    break;
+                }
+            }
+
+            from = to + 1;
+        }
+
+        return NO_COLLISION;
+    }
+
+    /**
+     * Finds the part of the snake whose position is closest to the position provided. Each straight run of parts is
+     * searched for the part level with the position, so the cost depends on the amount of turns in the snake rather
+     * than it's length.
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @return Returns the index of the closest part, or -1 if the snake has no parts
+     */
+    public int findNearestPart(int x, int y) {
+        int nearest = -1;
+        long nearestDistance = Long.MAX_VALUE;
+        for (int from = 0, snakeSize = getLength(), v = path == null ? 0 : path.newest(); from < snakeSize; v--) {
+            int to = getRunEnd(from, v);
+            if(to < from) continue;
+
+            // The run is straight, so the closest part is either side of the position
+            int level = findLevelPart(x, y, from, to, v);
+            for(int i = Math.max(from, level - 1); i <= Math.min(to, level); i++) {
+                long distance = getRunPartDistance(i, v, x, y);
+                if(distance < nearestDistance) {
+                    nearest = i;
+                    nearestDistance = distance;
+                }
+            }
+
+            from = to + 1;
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Offers the parts of the snake nearest to the position provided to the nearest parts found so far. The parts
+     * of a straight run get further away walking either way from the part level with the position, so each run is
+     * only walked until it's parts are further than those already found; the cost depends on the amount of turns in
+     * the snake and {@code k} rather than it's length.
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param k The most parts to find
+     * @param nearest The nearest parts found so far, nearest first
+     * @see SnakeParts#offer(SnakeEntity, int, long, int)
+     */
+    public void findNearestParts(int x, int y, int k, SnakeParts nearest) {
+        for (int from = 0, snakeSize = getLength(), v = path == null ? 0 : path.newest(); from < snakeSize; v--) {
+            int to = getRunEnd(from, v);
+            if(to < from) continue;
+
+            int level = findLevelPart(x, y, from, to, v);
+            for(int i = level; i <= to && nearest.offer(this, i, getRunPartDistance(i, v, x, y), k); i++);
+            for(int i = level - 1; i >= from && nearest.offer(this, i, getRunPartDistance(i, v, x, y), k); i--);
+
+            from = to + 1;
+        }
+    }
+
+    /**
+     * Finds the parts of the snake within the distance provided of the position provided. Each straight run is walked
+     * either way from the part level with the position until it's parts are out of reach, so the cost depends on the
+     * amount of turns in the snake and the parts found rather than it's length.
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param radius The distance from the position
+     * @param within Where to add the parts found, in no particular order
+     * @return Returns the amount of parts found
+     */
+    public int findPartsWithin(int x, int y, int radius, SnakeParts within) {
+        long limit = (long)radius * radius;
+        int found = 0;
+        for (int from = 0, snakeSize = getLength(), v = path == null ? 0 : path.newest(); from < snakeSize; v--) {
+            int to = getRunEnd(from, v);
+            if(to < from) continue;
+
+            int level = findLevelPart(x, y, from, to, v);
+            for(int i = level; i <= to; i++) {
+                long distance = getRunPartDistance(i, v, x, y);
+                if(distance > limit) break;
+                within.add(this, i, distance);
+                found++;
+            }
+            for(int i = level - 1; i >= from; i--) {
+                long distance = getRunPartDistance(i, v, x, y);
+                if(distance > limit) break;
+                within.add(this, i, distance);
+                found++;
+            }
+
+            from = to + 1;
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds the first part of a straight run that isn't in front of the position provided, using a binary search as
+     * parts further along the run are further behind
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param from The index of the first part of the run
+     * @param to The index of the last part of the run
+     * @param v The sequence number of the path vertex the run travels away from; ignored when moving every part
+     * @return Returns the index of the part, or {@code to + 1} if every part is in front of the position
+     * @see #getRunEnd(int, int)
+     */
+    private int findLevelPart(int x, int y, int from, int to, int v) {
+        DIRECTION dir = path == null ? snake.direction(from) : path.direction(v);
+        int target = getDistanceBehind(x, y, dir);
+        int low = from;
+        int high = to + 1;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(getDistanceBehind(getRunPartX(mid, v), getRunPartY(mid, v), dir) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
 
-        return null;
+        return low;
+    }
+
+    /**
+     * Finds the squared distance of a part inside a run from the position provided
+     *
+     * @param i The index of the part
+     * @param v The sequence number of the path vertex the run travels away from; ignored when moving every part
+     * @param x The X position
+     * @param y The Y position
+     * @return Returns the squared distance
+     * @see #getRunEnd(int, int)
+     */
+    private long getRunPartDistance(int i, int v, int x, int y) {
+        long dX = getRunPartX(i, v) - x;
+        long dY = getRunPartY(i, v) - y;
+        return dX * dX + dY * dY;
+    }
+
+    /**
+     * Measures how far behind a position is, relative to a run travelling in the direction provided; only the
+     * difference between two measurements is meaningful
+     *
+     * @param x The X position
+     * @param y The Y position
+     * @param dir The direction the run is travelling
+     * @return Returns a value that increases the further behind the position is
+     */
+    private static int getDistanceBehind(int x, int y, DIRECTION dir) {
+        switch(dir) {
+            case UP:    return y;
+            case DOWN:  return -y;
+            case LEFT:  return x;
+            default:    return -x;
+        }
     }
 
     /**
      * Informs the game that the snake has died due to a collision with the game boundary
      *
-     * @param collisionBox The collision box to test
+     * @param cX The X position of the collision box
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
      * @return Returns true to confirm that the collision has been consumed
      */
     @Override
-    public boolean collidedWithGameBoundary(Rectangle collisionBox) {
+    public boolean collidedWithGameBoundary(int cX, int cY, int cW, int cH) {
+        emitDeathParticles();
         gameInstance.snakeDeath(getPlayer());
         return true;
     }
 
+    /**
+     * Emits a burst of particles from the head of the snake, shown when it dies
+     */
+    protected void emitDeathParticles() {
+        Color color = DEATH_COLORS[Math.min(player.getId(), DEATH_COLORS.length - 1)];
+        gameInstance.getEffectsController().getParticles()
+                .burst(getHeadX() + partWidth / 2f, getHeadY() + partHeight / 2f, 400, 160, 1.5f, color);
+    }
+
     /**
      * Informs the snake that it's been collided with. This method will check if the collision originated
      * from itself (loss), or if another snake has collided with this entity (win). If both snakes collide head-on,
      * a tie condition is reached.
      *
-     * @param collision The collision box
+     * @param cX The X position of the collision box
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
      * @param source The source of the collision
-     * @param infringedBoundary The boundary that has been infringed
+     * @param hit The index of the part that has been collided with
      * @return Returns true if the collision was consumed, false otherwise
      */
     @Override
-    public boolean collidedWithBy(Rectangle collision, CollisionElement source, Rectangle infringedBoundary) {
-        if(source instanceof SnakeEntity) {
-            if(source.equals(this)) {
+    public boolean collidedWithBy(int cX, int cY, int cW, int cH, CollisionElement source, int hit) {
+        if(source.getKind() == KIND.SNAKE) {
+            if(source == this) {
+                emitDeathParticles();
                 gameInstance.snakeDeath(getPlayer());
             } else {
                 // Another player ran in to us
-                if(source.isCollisionBoxIntersecting(snake.getFirst().getBounds(), this) != null){
+                if(source.findCollision(snake.x(0), snake.y(0), partWidth, partHeight, this) != NO_COLLISION){
                     // We collided mutually; both players lose
+                    emitDeathParticles();
                     gameInstance.snakeDeath(getPlayer());
                 }
-                gameInstance.snakeDeath(((SnakeEntity) source).getPlayer());
+                SnakeEntity other = (SnakeEntity) source;
+                other.emitDeathParticles();
+                gameInstance.snakeDeath(other.getPlayer());
             }
 
             return true;
         }
 
-        return (source instanceof RandomPoint);
+        return source.getKind() == KIND.SPAWN_POINT;
     }
 
     /**
@@ -588,10 +1247,63 @@ public class SnakeEntity extends Entity implements CollisionElement {
     @Override
     public void update(double dt) {
         // Move depending on velocity
-        LinkedList<Rectangle> collisionBoxes = moveSnake();
-        SnakeTurn.destroyDwindling(turns);
+        TickProfiler profiler = gameInstance.getProfiler();
+        long start = profiler.start();
+        int boxCount = moveSnake();
+        profiler.record(TickProfiler.PHASE.MOVE_SNAKE, start);
+        publishMove();
+        retireTurns();
 
-        checkCollisions(collisionBoxes);
+        checkCollisions(boxCount);
+
+        getPlayer().update(dt);
+    }
+
+    /**
+     * The first phase of updating the snake in two phases; moves the snake and prepares it to be collided with. Only
+     * the snake itself is changed, so every snake can be advanced at once on different threads.
+     *
+     * @see #publishMove()
+     */
+    public void advance() {
+        moveSnake();
+        retireTurns();
+
+        // Calculated now, so that reading the bounds while collisions are found doesn't change the snake
+        updateBounds();
+    }
+
+    /**
+     * Informs the collision grid and the broad phase of the last move of the snake. Must be called, one snake at a
+     * time, before any collisions are checked against the new position.
+     */
+    public void publishMove() {
+        if(collisionGrid != null) {
+            gridChanges.applyTo(collisionGrid, collisionHandle);
+        } else {
+            gridChanges.clear();
+        }
+        gameInstance.getCollisionController().entityMoved(this);
+    }
+
+    /**
+     * Finds the collisions of the last move of the snake, without acting upon them. Nothing is changed but
+     * {@code collisionHits}, so every snake can find it's collisions at once on different threads.
+     *
+     * @see #resolveCollisions(double)
+     */
+    public void detectCollisions() {
+        gameInstance.getCollisionController().findCollisions(this, collisionBoxes, collisionBoxCount, collisionHits);
+    }
+
+    /**
+     * The last phase of updating the snake in two phases; acts upon the collisions found by
+     * {@link #detectCollisions()} and updates the attached {@code Player} instance
+     *
+     * @param dt Time since the last update
+     */
+    public void resolveCollisions(double dt) {
+        gameInstance.getCollisionController().resolveCollisions(this, collisionBoxes, collisionHits);
 
         getPlayer().update(dt);
     }
@@ -599,12 +1311,34 @@ public class SnakeEntity extends Entity implements CollisionElement {
     /**
      * Checks the collisions provided by handing them off to the {@code CollisionController} attached to the {@code gameInstance}
      *
-     * @param collisionBoxes A list of the collisions to be tested
+     * @param count The amount of collision boxes, from the start of {@code collisionBoxes}, to be tested
      */
-    private void checkCollisions(LinkedList<Rectangle> collisionBoxes) {
+    private void checkCollisions(int count) {
         CollisionController collisions = gameInstance.getCollisionController();
-        for(Rectangle bounds : collisionBoxes) {
-            collisions.checkCollision(this, bounds);
+        for(int b = 0; b < count * 4; b += 4) {
+            collisions.checkCollision(this, collisionBoxes[b], collisionBoxes[b + 1], collisionBoxes[b + 2], collisionBoxes[b + 3]);
+        }
+    }
+
+    /**
+     * Adds the head and body parts of the snake to the snapshot, in the same order they're drawn by
+     * {@code paintComponent()}
+     *
+     * @param frame The snapshot being built
+     */
+    @Override
+    public void snapshot(RenderSnapshot.Builder frame) {
+        if(path == null) {
+            for(int i = 0, snakeSize = snake.size(); i < snakeSize; i++) {
+                frame.addSprite(i == 0 ? headImage : bodyImage, snake.x(i), snake.y(i));
+            }
+        } else if(snake.size() > 0) {
+            frame.addSprite(headImage, snake.x(0), snake.y(0));
+            for(int i = 1, snakeSize = path.length(), v = path.newest(); i < snakeSize; i++) {
+                long arc = path.arcOf(i);
+                v = path.walkBack(v, arc);
+                frame.addSprite(bodyImage, path.x(v, arc), path.y(v, arc));
+            }
         }
     }
 
@@ -614,13 +1348,16 @@ public class SnakeEntity extends Entity implements CollisionElement {
     @Override
     public void paintComponent() {
         // Draw the snake head and tail
-        boolean head = true;
-        for(SnakePart part : snake) {
-            if(head) {
-                gameInstance.drawImage(headImage, part.x, part.y);
-                head = false;
-            } else {
-                gameInstance.drawImage(bodyImage, part.x, part.y);
+        if(path == null) {
+            for(int i = 0, snakeSize = snake.size(); i < snakeSize; i++) {
+                gameInstance.drawImage(i == 0 ? headImage : bodyImage, snake.x(i), snake.y(i));
+            }
+        } else if(snake.size() > 0) {
+            gameInstance.drawImage(headImage, snake.x(0), snake.y(0));
+            for(int i = 1, snakeSize = path.length(), v = path.newest(); i < snakeSize; i++) {
+                long arc = path.arcOf(i);
+                v = path.walkBack(v, arc);
+                gameInstance.drawImage(bodyImage, path.x(v, arc), path.y(v, arc));
             }
         }
     }
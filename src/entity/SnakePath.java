@@ -0,0 +1,390 @@
+package entity;
+
+/**
+ * Records the path taken by the head of a {@code SnakeEntity} as a polyline, so that the position of any part of the
+ * snake can be found without moving every part each tick.
+ *
+ * The path is stored as a ring buffer of vertices (the point the snake started from, and every turn since), each
+ * holding the direction travelled after leaving it and the arc length (distance along the path) at which it was
+ * reached and left. Every part of the snake follows the head at a fixed distance, so part {@code k} is always found at
+ * an arc length of {@code k * spacing} behind the head. Moving the snake only moves the arc length of the head;
+ * vertices that the tail has moved past are retired by advancing the start of the ring.
+ *
+ * A part making a turn stops on the turn for the rest of that tick, rather than carrying on around the corner. This
+ * is recorded as a gap between the arc length a turn is reached and left, during which any part is found on the turn
+ * itself; so every part pauses on the turn in the same way the head did.
+ *
+ * @author Harry Felton - 18032692
+ */
+class SnakePath {
+    /**
+     * The capacity used when the ring is first created. Must be a power of two
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Cached copy of {@code DIRECTION.values()}, used to turn the stored ordinals back in to directions
+     */
+    private static final SnakeEntity.DIRECTION[] DIRECTIONS = SnakeEntity.DIRECTION.values();
+
+    /**
+     * The X position of each vertex
+     */
+    private int[] xs = new int[INITIAL_CAPACITY];
+
+    /**
+     * The Y position of each vertex
+     */
+    private int[] ys = new int[INITIAL_CAPACITY];
+
+    /**
+     * The arc length at which the head reached each vertex
+     */
+    private long[] arcs = new long[INITIAL_CAPACITY];
+
+    /**
+     * The arc length at which the head left each vertex
+     */
+    private long[] leaves = new long[INITIAL_CAPACITY];
+
+    /**
+     * The ordinal of the direction travelled after leaving each vertex
+     */
+    private byte[] dirs = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Used to wrap vertex sequence numbers in to the arrays; always {@code capacity - 1}
+     */
+    private int mask = INITIAL_CAPACITY - 1;
+
+    /**
+     * The sequence number of the oldest vertex still stored
+     */
+    private int first = 0;
+
+    /**
+     * The sequence number the next vertex added will be given
+     */
+    private int end = 0;
+
+    /**
+     * The distance along the path between each part of the snake
+     */
+    private final int spacing;
+
+    /**
+     * The arc length the head of the snake has reached
+     */
+    private long headArc = 0;
+
+    /**
+     * The amount of parts making up the snake, including the head
+     */
+    private int length = 0;
+
+    /**
+     * Constructs an empty path
+     *
+     * @param spacing The distance along the path between each part of the snake
+     */
+    SnakePath(int spacing) {
+        this.spacing = spacing;
+    }
+
+    /**
+     * Clears the path, and starts it again from the position of the head provided. The snake is given a length of 1.
+     *
+     * @param x The X position of the head
+     * @param y The Y position of the head
+     * @param dir The direction the head is travelling
+     */
+    void start(int x, int y, SnakeEntity.DIRECTION dir) {
+        first = end;
+        headArc = 0;
+        length = 1;
+        add(x, y, 0, 0, dir);
+    }
+
+    /**
+     * Fetch the amount of parts making up the snake
+     *
+     * @return Returns the length, including the head
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Adds parts to the end of the snake. As the position of each part is found from the path, this costs nothing
+     * regardless of the amount.
+     *
+     * If the new tail is further back than the oldest vertex, the path is extended straight backwards from it by
+     * adding a new oldest vertex, so that every part always lies between two stored vertices.
+     *
+     * @param amount The amount of parts to add
+     */
+    void lengthen(int amount) {
+        length += amount;
+
+        long tailArc = arcOf(length - 1);
+        int s = first & mask;
+        if(tailArc < arcs[s]) {
+            if(end - first == xs.length) grow();
+
+            int x = x(first, tailArc);
+            int y = y(first, tailArc);
+            byte dir = dirs[first & mask];
+            s = --first & mask;
+            xs[s] = x;
+            ys[s] = y;
+            arcs[s] = tailArc;
+            leaves[s] = tailArc;
+            dirs[s] = dir;
+        }
+    }
+
+    /**
+     * Records a turn made by the head. The turn must lie on the path ahead of the newest vertex.
+     *
+     * @param x The X position of the turn
+     * @param y The Y position of the turn
+     * @param dir The direction the head travels after the turn
+     */
+    void turn(int x, int y, SnakeEntity.DIRECTION dir) {
+        int last = (end - 1) & mask;
+        long arc = leaves[last] + Math.abs(x - xs[last]) + Math.abs(y - ys[last]);
+        add(x, y, arc, arc, dir);
+    }
+
+    /**
+     * Moves the head along the path, and retires any vertices the tail of the snake has now moved past
+     *
+     * @param distance The distance moved by the head
+     * @param x The X position the head moved to, which must lie on the path ahead of the newest vertex
+     * @param y The Y position the head moved to
+     */
+    void advance(int distance, int x, int y) {
+        headArc += distance;
+
+        // Any distance not covered by the head since the newest vertex was spent stopped on it
+        int last = (end - 1) & mask;
+        leaves[last] = Math.max(arcs[last], headArc - Math.abs(x - xs[last]) - Math.abs(y - ys[last]));
+
+        // The vertex the tail is travelling away from is kept, as the position of the tail is measured from it
+        long tailArc = arcOf(length - 1);
+        while(end - first > 1 && arcs[(first + 1) & mask] <= tailArc) first++;
+    }
+
+    /**
+     * Finds the arc length at which a part of the snake sits
+     *
+     * @param part The index of the part, 0 being the head
+     * @return Returns the arc length of the part
+     */
+    long arcOf(int part) {
+        return headArc - (long)part * spacing;
+    }
+
+    /**
+     * Fetch the sequence number of the oldest vertex still stored
+     *
+     * @return Returns the sequence number
+     */
+    int first() {
+        return first;
+    }
+
+    /**
+     * Fetch the sequence number of the newest vertex
+     *
+     * @return Returns the sequence number
+     */
+    int newest() {
+        return end - 1;
+    }
+
+    /**
+     * Fetch the direction travelled after leaving a vertex
+     *
+     * @param v The sequence number of the vertex
+     * @return Returns the direction
+     */
+    SnakeEntity.DIRECTION direction(int v) {
+        return DIRECTIONS[dirs[v & mask]];
+    }
+
+    /**
+     * Finds the last part of the snake (furthest from the head) that has reached a vertex. The parts between this and
+     * the last part to reach the following vertex form a straight run, travelling away from the vertex.
+     *
+     * @param v The sequence number of the vertex
+     * @return Returns the index of the part, or -1 if even the head hasn't reached the vertex
+     */
+    int lastPartReaching(int v) {
+        // Parts behind the oldest vertex are extended backwards from it, so are part of its run
+        if(v == first) return length - 1;
+
+        long behind = headArc - arcs[v & mask];
+        return behind < 0 ? -1 : (int)Math.min(length - 1, behind / spacing);
+    }
+
+    /**
+     * Fetch the X position of a vertex
+     *
+     * @param v The sequence number of the vertex
+     * @return Returns the X position
+     */
+    int vertexX(int v) {
+        return xs[v & mask];
+    }
+
+    /**
+     * Fetch the Y position of a vertex
+     *
+     * @param v The sequence number of the vertex
+     * @return Returns the Y position
+     */
+    int vertexY(int v) {
+        return ys[v & mask];
+    }
+
+    /**
+     * Finds the vertex that the arc length provided travels away from, using a binary search over the stored vertices
+     *
+     * @param arc The arc length to find
+     * @return Returns the sequence number of the vertex
+     */
+    int locate(long arc) {
+        int low = first;
+        int high = end - 1;
+        while(low < high) {
+            int mid = low + (high - low + 1) / 2;
+            if(arcs[mid & mask] <= arc) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Finds the vertex that the arc length provided travels away from, by walking backwards from a vertex at or
+     * after it. Used when sampling the parts of the snake in order from head to tail, where the total cost of walking
+     * is the amount of vertices rather than the amount of parts.
+     *
+     * @param v The sequence number of the vertex to start from
+     * @param arc The arc length to find
+     * @return Returns the sequence number of the vertex
+     */
+    int walkBack(int v, long arc) {
+        while(v > first && arcs[v & mask] > arc) v--;
+        return v;
+    }
+
+    /**
+     * Finds the X position of the point on the path at the arc length provided
+     *
+     * @param v The sequence number of the vertex the point travels away from, as found by {@link #locate(long)}
+     * @param arc The arc length of the point
+     * @return Returns the X position
+     */
+    int x(int v, long arc) {
+        int s = v & mask;
+        return xs[s] + offset(s, arc) * xStep(DIRECTIONS[dirs[s]]);
+    }
+
+    /**
+     * Finds the Y position of the point on the path at the arc length provided
+     *
+     * @param v The sequence number of the vertex the point travels away from, as found by {@link #locate(long)}
+     * @param arc The arc length of the point
+     * @return Returns the Y position
+     */
+    int y(int v, long arc) {
+        int s = v & mask;
+        return ys[s] + offset(s, arc) * yStep(DIRECTIONS[dirs[s]]);
+    }
+
+    /**
+     * Finds the distance of the point at the arc length provided from a vertex, in the direction travelled after
+     * leaving it. Points between reaching and leaving the vertex are on it, and points before reaching it (only
+     * possible for the oldest vertex, when the snake extends behind the stored path) are extended backwards.
+     *
+     * @param s The index of the vertex in the arrays
+     * @param arc The arc length of the point
+     * @return Returns the distance, negative if the point is behind the vertex
+     */
+    private int offset(int s, long arc) {
+        return (int)(Math.max(0, arc - leaves[s]) + Math.min(0, arc - arcs[s]));
+    }
+
+    /**
+     * Fetch the movement along the X-axis caused by travelling one unit in the direction provided
+     *
+     * @param dir The direction of travel
+     * @return Returns -1, 0 or 1
+     */
+    private static int xStep(SnakeEntity.DIRECTION dir) {
+        return dir == SnakeEntity.DIRECTION.LEFT ? -1 : (dir == SnakeEntity.DIRECTION.RIGHT ? 1 : 0);
+    }
+
+    /**
+     * Fetch the movement along the Y-axis caused by travelling one unit in the direction provided
+     *
+     * @param dir The direction of travel
+     * @return Returns -1, 0 or 1
+     */
+    private static int yStep(SnakeEntity.DIRECTION dir) {
+        return dir == SnakeEntity.DIRECTION.UP ? -1 : (dir == SnakeEntity.DIRECTION.DOWN ? 1 : 0);
+    }
+
+    /**
+     * Adds a vertex to the end of the path, growing the ring if it's full
+     *
+     * @param x The X position of the vertex
+     * @param y The Y position of the vertex
+     * @param arc The arc length the vertex is reached at
+     * @param leave The arc length the vertex is left at
+     * @param dir The direction travelled after leaving the vertex
+     */
+    private void add(int x, int y, long arc, long leave, SnakeEntity.DIRECTION dir) {
+        if(end - first == xs.length) grow();
+
+        int s = end & mask;
+        xs[s] = x;
+        ys[s] = y;
+        arcs[s] = arc;
+        leaves[s] = leave;
+        dirs[s] = (byte)dir.ordinal();
+        end++;
+    }
+
+    /**
+     * Doubles the capacity of the ring, moving each stored vertex to its slot in the larger arrays
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+        int[] grownXs = new int[capacity];
+        int[] grownYs = new int[capacity];
+        long[] grownArcs = new long[capacity];
+        long[] grownLeaves = new long[capacity];
+        byte[] grownDirs = new byte[capacity];
+
+        for(int v = first; v != end; v++) {
+            grownXs[v & (capacity - 1)] = xs[v & mask];
+            grownYs[v & (capacity - 1)] = ys[v & mask];
+            grownArcs[v & (capacity - 1)] = arcs[v & mask];
+            grownLeaves[v & (capacity - 1)] = leaves[v & mask];
+            grownDirs[v & (capacity - 1)] = dirs[v & mask];
+        }
+
+        xs = grownXs;
+        ys = grownYs;
+        arcs = grownArcs;
+        leaves = grownLeaves;
+        dirs = grownDirs;
+        mask = capacity - 1;
+    }
+}
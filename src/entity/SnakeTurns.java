@@ -0,0 +1,203 @@
+package entity;
+
+/**
+ * Stores the turns made by a {@code SnakeEntity} in a ring buffer, ordered from oldest to newest.
+ *
+ * Each turn is identified by a sequence number, which increases by one for every turn added. As every part of the
+ * snake follows the same path, every part meets the turns in the same order; so each part only needs to remember the
+ * sequence number of the next turn it has to make. Once the tail of the snake has made a turn, no part will ever need
+ * it again, and it's retired by advancing the start of the ring.
+ *
+ * The head can run back in to a turn it has already made, if it doubles back on itself before the tail has made it.
+ * When it does, the turn is repeated at the end of the ring, so the rest of the snake still meets the turns in the
+ * order the head made them.
+ *
+ * @author Harry Felton - 18032692
+ */
+class SnakeTurns {
+    /**
+     * The capacity used when the ring is first created. Must be a power of two
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Cached copy of {@code DIRECTION.values()}, used to turn the stored ordinals back in to directions
+     */
+    private static final SnakeEntity.DIRECTION[] DIRECTIONS = SnakeEntity.DIRECTION.values();
+
+    /**
+     * The X position of each turn
+     */
+    private int[] xs = new int[INITIAL_CAPACITY];
+
+    /**
+     * The Y position of each turn
+     */
+    private int[] ys = new int[INITIAL_CAPACITY];
+
+    /**
+     * The ordinal of the direction each turn changes the snake to
+     */
+    private byte[] dirs = new byte[INITIAL_CAPACITY];
+
+    /**
+     * The sequence number of the turn each turn repeats, or it's own sequence number if it isn't a repeat
+     */
+    private int[] sources = new int[INITIAL_CAPACITY];
+
+    /**
+     * Used to wrap sequence numbers in to the arrays; always {@code capacity - 1}
+     */
+    private int mask = INITIAL_CAPACITY - 1;
+
+    /**
+     * The sequence number of the oldest turn still stored
+     */
+    private int first = 0;
+
+    /**
+     * The sequence number the next turn added will be given
+     */
+    private int end = 0;
+
+    /**
+     * Fetch the sequence number of the oldest turn still stored
+     *
+     * @return Returns the sequence number
+     */
+    int first() {
+        return first;
+    }
+
+    /**
+     * Fetch the sequence number the next turn added will be given. Any part of the snake with this cursor has made
+     * every turn.
+     *
+     * @return Returns the sequence number
+     */
+    int end() {
+        return end;
+    }
+
+    /**
+     * Fetch the X position of a turn
+     *
+     * @param seq The sequence number of the turn
+     * @return Returns the X position
+     */
+    int x(int seq) {
+        return xs[seq & mask];
+    }
+
+    /**
+     * Fetch the Y position of a turn
+     *
+     * @param seq The sequence number of the turn
+     * @return Returns the Y position
+     */
+    int y(int seq) {
+        return ys[seq & mask];
+    }
+
+    /**
+     * Fetch the direction a turn changes the snake to
+     *
+     * @param seq The sequence number of the turn
+     * @return Returns the new direction
+     */
+    SnakeEntity.DIRECTION direction(int seq) {
+        return DIRECTIONS[dirs[seq & mask]];
+    }
+
+    /**
+     * Checks if a turn was added by the snake, rather than repeated because the head ran back in to it
+     *
+     * @param seq The sequence number of the turn
+     * @return Returns true if the turn isn't a repeat, false otherwise
+     */
+    boolean isOriginal(int seq) {
+        return sources[seq & mask] == seq;
+    }
+
+    /**
+     * Changes the direction of a turn that hasn't been made yet
+     *
+     * @param seq The sequence number of the turn
+     * @param dir The new direction
+     */
+    void setDirection(int seq, SnakeEntity.DIRECTION dir) {
+        dirs[seq & mask] = (byte)dir.ordinal();
+    }
+
+    /**
+     * Adds a new turn, after every turn currently stored
+     *
+     * @param x The X position of the turn
+     * @param y The Y position of the turn
+     * @param dir The direction the turn changes the snake to
+     * @return Returns the sequence number of the new turn
+     */
+    int add(int x, int y, SnakeEntity.DIRECTION dir) {
+        if(end - first == xs.length) grow();
+
+        int s = end & mask;
+        xs[s] = x;
+        ys[s] = y;
+        dirs[s] = (byte)dir.ordinal();
+        sources[s] = end;
+        return end++;
+    }
+
+    /**
+     * Repeats a turn already stored, after every turn currently stored
+     *
+     * @param seq The sequence number of the turn to repeat
+     * @return Returns the sequence number of the repeat
+     */
+    int repeat(int seq) {
+        int source = sources[seq & mask];
+        int repeat = add(x(seq), y(seq), direction(seq));
+        sources[repeat & mask] = source;
+        return repeat;
+    }
+
+    /**
+     * Retires every turn older than the sequence number provided
+     *
+     * @param seq The sequence number of the oldest turn that is still needed
+     */
+    void retireBefore(int seq) {
+        if(seq > first) first = Math.min(seq, end);
+    }
+
+    /**
+     * Removes every turn
+     */
+    void clear() {
+        first = end;
+    }
+
+    /**
+     * Doubles the capacity of the ring, moving each stored turn to its slot in the larger arrays
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+        int[] grownXs = new int[capacity];
+        int[] grownYs = new int[capacity];
+        byte[] grownDirs = new byte[capacity];
+        int[] grownSources = new int[capacity];
+
+        for(int seq = first; seq != end; seq++) {
+            grownXs[seq & (capacity - 1)] = xs[seq & mask];
+            grownYs[seq & (capacity - 1)] = ys[seq & mask];
+            grownDirs[seq & (capacity - 1)] = dirs[seq & mask];
+            grownSources[seq & (capacity - 1)] = sources[seq & mask];
+        }
+
+        xs = grownXs;
+        ys = grownYs;
+        dirs = grownDirs;
+        sources = grownSources;
+        mask = capacity - 1;
+    }
+}
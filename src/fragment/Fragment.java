@@ -1,6 +1,7 @@
 package fragment;
 
 import interfaces.UIMouseReactive;
+import main.RenderSnapshot;
 import main.SnakeGame;
 import ui.Component;
 
@@ -86,6 +87,18 @@ public abstract class Fragment {
         }
     }
 
+    /**
+     * Records the components registered into the snapshot provided
+     *
+     * @param frame The builder of the snapshot being published
+     */
+    public void snapshot(RenderSnapshot.Builder frame) {
+        if(!active) return;
+        for(Component c : components) {
+            c.snapshot(frame);
+        }
+    }
+
     /**
      * Checks if the mouse event provided has landed within the component provided
      *
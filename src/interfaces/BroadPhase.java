@@ -0,0 +1,50 @@
+package interfaces;
+
+import controllers.CollisionCandidates;
+import entity.Entity;
+
+/**
+ * A broad phase is used by the {@code CollisionController} to quickly find the entities that a collision box could be
+ * touching, so that only those entities need to run their own (more expensive) collision tests.
+ *
+ * @author Harry Felton - 18032692
+ */
+public interface BroadPhase {
+    /**
+     * Adds an entity to the broad phase
+     *
+     * @param entity The entity to add
+     */
+    void add(Entity entity);
+
+    /**
+     * Removes an entity from the broad phase
+     *
+     * @param entity The entity to remove
+     */
+    void remove(Entity entity);
+
+    /**
+     * Informs the broad phase that an entity has moved
+     *
+     * @param entity The entity that has moved
+     */
+    void update(Entity entity);
+
+    /**
+     * Removes every entity from the broad phase
+     */
+    void clear();
+
+    /**
+     * Finds the entities that could be touching the box provided
+     *
+     * @param x The X position of the box to search
+     * @param y The Y position of the box to search
+     * @param width The width of the box to search
+     * @param height The height of the box to search
+     * @param results Where to store the entities found, in the order they were added
+     * @return Returns the amount of entities found
+     */
+    int query(int x, int y, int width, int height, CollisionCandidates results);
+}
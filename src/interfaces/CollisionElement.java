@@ -2,38 +2,154 @@ package interfaces;
 
 import java.awt.*;
 
+/**
+ * An element that can take part in collision testing. Collision boxes and boundaries are passed as primitive
+ * {@code x, y, width, height} values, so that no objects need to be created while testing collisions; the methods
+ * taking a {@code Rectangle} are adapters for code that already has one.
+ *
+ * @author Harry Felton - 18032692
+ */
 public interface CollisionElement {
     /**
-     * Called by the {@code CollisionController} when the {@code collisionBox} is colliding with the boundary of the game
+     * Returned by {@link #findCollision(int, int, int, int, CollisionElement)} when the collision box isn't colliding
+     * with the element
+     */
+    int NO_COLLISION = -1;
+
+    /**
+     * The kinds of element that can take part in collision testing, used to find out what a collision is with without
+     * testing the class of the element
+     */
+    enum KIND {
+        SNAKE,
+        PICKUP,
+        SPAWN_POINT
+    }
+
+    /**
+     * Fetch the kind of element this is
      *
-     * @param collisionBox The collision box intersecting the boundary
+     * @return Returns the kind of element
+     */
+    KIND getKind();
+
+    /**
+     * Called by the {@code CollisionController} when the collision box is colliding with the boundary of the game
+     *
+     * @param x The X position of the collision box
+     * @param y The Y position of the collision box
+     * @param width The width of the collision box
+     * @param height The height of the collision box
      * @return Returns true if the collision event is consumed, false otherwise
      */
-    boolean collidedWithGameBoundary(Rectangle collisionBox);
+    boolean collidedWithGameBoundary(int x, int y, int width, int height);
 
     /**
-     * Called by the {@code CollisionController} when the {@code collisionBox} has collided with this entity.
+     * Called by the {@code CollisionController} when the collision box has collided with this entity.
      *
-     * @param collisionBox The collision box
+     * @param x The X position of the collision box
+     * @param y The Y position of the collision box
+     * @param width The width of the collision box
+     * @param height The height of the collision box
      * @param source The source of the collision
-     * @param infringedBoundary The boundary infringed by the collision
+     * @param hit The part of this element that was collided with, as found by
+     *            {@link #findCollision(int, int, int, int, CollisionElement)}
      * @return Returns true if the collision event is consumed, false otherwise
      */
-    boolean collidedWithBy(Rectangle collisionBox, CollisionElement source, Rectangle infringedBoundary);
+    boolean collidedWithBy(int x, int y, int width, int height, CollisionElement source, int hit);
 
     /**
      * Used to test if the collision box has collided with this entity
      *
+     * @param x The X position of the collision box
+     * @param y The Y position of the collision box
+     * @param width The width of the collision box
+     * @param height The height of the collision box
+     * @param source The source of the collision box
+     * @return Returns the index of the part of this element that was collided with, or {@link #NO_COLLISION}
+     */
+    int findCollision(int x, int y, int width, int height, CollisionElement source);
+
+    /**
+     * Calculates the boundary of a part of this element that has been collided with
+     *
+     * @param hit The index of the part, as returned by {@link #findCollision(int, int, int, int, CollisionElement)}
+     * @return Returns the boundary of the part
+     */
+    Rectangle getHitBounds(int hit);
+
+    /**
+     * Fetch the position of the left of the boundary of this element
+     *
+     * @return Returns the X position
+     */
+    int getBoundsX();
+
+    /**
+     * Fetch the position of the top of the boundary of this element
+     *
+     * @return Returns the Y position
+     */
+    int getBoundsY();
+
+    /**
+     * Fetch the width of the boundary of this element
+     *
+     * @return Returns the width
+     */
+    int getBoundsWidth();
+
+    /**
+     * Fetch the height of the boundary of this element
+     *
+     * @return Returns the height
+     */
+    int getBoundsHeight();
+
+    /**
+     * Adapter for {@link #collidedWithGameBoundary(int, int, int, int)}
+     *
+     * @param collisionBox The collision box intersecting the boundary
+     * @return Returns true if the collision event is consumed, false otherwise
+     */
+    default boolean collidedWithGameBoundary(Rectangle collisionBox) {
+        return collidedWithGameBoundary(collisionBox.x, collisionBox.y, collisionBox.width, collisionBox.height);
+    }
+
+    /**
+     * Adapter for {@link #collidedWithBy(int, int, int, int, CollisionElement, int)}, taking the part collided with as
+     * it's boundary rather than it's index. The index is found by testing the boundary against the parts of this
+     * element, or the collision box if no boundary is provided.
+     *
+     * @param collisionBox The collision box that has collided with this element
+     * @param source The source of the collision
+     * @param infringedBoundary The boundary infringed by the collision, or null if it isn't known
+     * @return Returns true if the collision event is consumed, false otherwise
+     */
+    default boolean collidedWithBy(Rectangle collisionBox, CollisionElement source, Rectangle infringedBoundary) {
+        Rectangle part = infringedBoundary == null ? collisionBox : infringedBoundary;
+        int hit = findCollision(part.x, part.y, part.width, part.height, source);
+        return collidedWithBy(collisionBox.x, collisionBox.y, collisionBox.width, collisionBox.height, source, hit);
+    }
+
+    /**
+     * Adapter for {@link #findCollision(int, int, int, int, CollisionElement)}
+     *
      * @param collision The collision box to test against
      * @param source The source of the collision box
-     * @return Returns true if the collision box is intersecting this entity, false otherwise
+     * @return Returns the boundary infringed by the collision box, or null if it's not intersecting this entity
      */
-    Rectangle isCollisionBoxIntersecting(Rectangle collision, CollisionElement source);
+    default Rectangle isCollisionBoxIntersecting(Rectangle collision, CollisionElement source) {
+        int hit = findCollision(collision.x, collision.y, collision.width, collision.height, source);
+        return hit == NO_COLLISION ? null : getHitBounds(hit);
+    }
 
     /**
      * Calculates the boundary of this entity
      *
      * @return Returns the boundary
      */
-    Rectangle getBounds();
+    default Rectangle getBounds() {
+        return new Rectangle(getBoundsX(), getBoundsY(), getBoundsWidth(), getBoundsHeight());
+    }
 }
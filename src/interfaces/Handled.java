@@ -0,0 +1,28 @@
+package interfaces;
+
+/**
+ * An object that can be stored in a {@code DenseStore}, which gives it a handle to be found and removed by
+ *
+ * @author Harry Felton - 18032692
+ * @see controllers.DenseStore
+ */
+public interface Handled {
+    /**
+     * The handle of an object that isn't stored
+     */
+    long NO_HANDLE = -1;
+
+    /**
+     * Fetch the handle this object was given when it was stored
+     *
+     * @return Returns the handle, or {@code NO_HANDLE} if the object isn't stored
+     */
+    long getHandle();
+
+    /**
+     * Sets the handle of this object; called by the {@code DenseStore} storing it
+     *
+     * @param handle The new handle
+     */
+    void setHandle(long handle);
+}
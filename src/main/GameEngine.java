@@ -10,6 +10,8 @@ import java.io.*;
 
 import java.util.Stack;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 
 import javax.imageio.*;
 import javax.sound.sampled.*;
@@ -20,10 +22,15 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 	//-------------------------------------------------------
 	JFrame mFrame;
 	GamePanel mPanel;
+	GameCanvas mCanvas;
 	int mWidth, mHeight;
 	Graphics2D mGraphics;
 	boolean initialised = false;
 
+	// When true the game runs without a window; nothing is drawn and
+	// the game is advanced on its own thread (or by calling runSteps)
+	boolean mHeadless = false;
+
 	//-------------------------------------------------------
 	// Time-Related functions
 	//-------------------------------------------------------
@@ -61,6 +68,101 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 		return passed;
 	}
 
+	//-------------------------------------------------------
+	// Fixed timestep simulation
+	//-------------------------------------------------------
+	// The modes the main loop can run in. VARIABLE passes the measured frame time straight
+	// to update(), FIXED_STEP advances the game in constant sized steps using System.nanoTime()
+	public enum LoopMode {
+		VARIABLE,
+		FIXED_STEP
+	}
+
+	// The mode the main loop is currently running in
+	LoopMode mLoopMode = LoopMode.VARIABLE;
+
+	// The rate (in updates per second) the game is advanced at when using FIXED_STEP
+	int mTickrate = 60;
+
+	// The length of one simulation step in nanoseconds
+	long mStepNanos = 1000000000L / 60;
+
+	// The most steps that will be run for a single frame. Any time left over after this
+	// is thrown away, so one slow frame can't make every frame after it slower too
+	int mMaxStepsPerFrame = 5;
+
+	// Time that has passed but has not been simulated yet, in nanoseconds
+	long mAccumulator = 0;
+
+	// The time the last frame was run at, in nanoseconds (0 if no frame has run yet)
+	long mLastFrameNanos = 0;
+
+	// Returns the time in nanoseconds. Only useful for measuring elapsed time
+	public long getTimeNanos() {
+		return System.nanoTime();
+	}
+
+	// Switches the main loop to the mode given. The tickrate is only used by FIXED_STEP
+	public void setLoopMode(LoopMode mode, int tickrate) {
+		if (tickrate < 1) tickrate = 1;
+
+		mLoopMode = mode;
+		mTickrate = tickrate;
+		mStepNanos = 1000000000L / tickrate;
+		mAccumulator = 0;
+		mLastFrameNanos = 0;
+	}
+
+	// Returns the mode the main loop is running in
+	public LoopMode getLoopMode() {
+		return mLoopMode;
+	}
+
+	// Returns the amount of fixed steps run per second
+	public int getTickrate() {
+		return mTickrate;
+	}
+
+	// Sets the most steps that can be run to catch up during a single frame
+	public void setMaxStepsPerFrame(int steps) {
+		mMaxStepsPerFrame = Math.max(1, steps);
+	}
+
+	// Returns how far (0 to 1) the game is between the last step and the next one.
+	// Can be used to interpolate positions when drawing
+	public double getStepAlpha() {
+		return (double)mAccumulator / mStepNanos;
+	}
+
+	// Runs as many fixed steps as the time since the last call allows, and returns
+	// the number of steps that were run
+	public int stepFixed() {
+		long now = getTimeNanos();
+		if(mLastFrameNanos == 0) {
+			mLastFrameNanos = now;
+		}
+		mAccumulator += now - mLastFrameNanos;
+		mLastFrameNanos = now;
+
+		double dt = mStepNanos / 1000000000.;
+		int steps = 0;
+		while(mAccumulator >= mStepNanos) {
+			if(steps == mMaxStepsPerFrame) {
+				// We've fallen too far behind to catch up; drop the backlog and carry on from here
+				mAccumulator %= mStepNanos;
+				break;
+			}
+
+			drainInput();
+			update(dt);
+			publishFrame();
+			mAccumulator -= mStepNanos;
+			steps++;
+		}
+
+		return steps;
+	}
+
 	//-------------------------------------------------------
 	// Functions for setting up the window
 	//-------------------------------------------------------
@@ -68,6 +170,7 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 	public void setupWindow(int width, int height, String title) {
 		mFrame = new JFrame();
 		mPanel = new GamePanel();
+		mCanvas = new GameCanvas();
 
 		mWidth = width;
 		mHeight = height;
@@ -77,12 +180,15 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 		mFrame.setLocation(200,200);
 		mFrame.setTitle(title);
 		mFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		mFrame.add(mPanel);
+		mFrame.add(getRenderSurface());
 		mFrame.setVisible(true);
 
 		mPanel.setDoubleBuffered(true);
-		mPanel.addMouseListener(this);
-		mPanel.addMouseMotionListener(this);
+		InputForwarder forwarder = new InputForwarder();
+		mPanel.addMouseListener(forwarder);
+		mPanel.addMouseMotionListener(forwarder);
+		mCanvas.addMouseListener(forwarder);
+		mCanvas.addMouseMotionListener(forwarder);
 
 		// Register a key event dispatcher to get a turn in handling all
 		// key events, independent of which component currently has the focus
@@ -92,13 +198,9 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 					public boolean dispatchKeyEvent(KeyEvent e) {
 						switch (e.getID()) {
 						case KeyEvent.KEY_PRESSED:
-							GameEngine.this.keyPressed(e);
-							return false;
 						case KeyEvent.KEY_RELEASED:
-							GameEngine.this.keyReleased(e);
-							return false;
 						case KeyEvent.KEY_TYPED:
-							GameEngine.this.keyTyped(e);
+							dispatchEvent(e);
 							return false;
 						default:
 							return false; // do not consume the event
@@ -120,11 +222,130 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 				mWidth = width;
 				mHeight = height;
 				mFrame.setSize(width + insets.left + insets.right, height + insets.top + insets.bottom);
-				mPanel.setSize(width, height);
+				getRenderSurface().setSize(width, height);
 			}
 		});
 	}
 
+	//-------------------------------------------------------
+	// Functions for choosing how the game is drawn
+	//-------------------------------------------------------
+	// The ways the game can be drawn. PASSIVE asks Swing to repaint the GamePanel and
+	// draws whenever Swing gets around to it. ACTIVE draws straight into a BufferStrategy
+	// on the GameCanvas every frame and shows it immediately
+	public enum RenderMode {
+		PASSIVE,
+		ACTIVE
+	}
+
+	// The way the game is currently being drawn
+	RenderMode mRenderMode = RenderMode.PASSIVE;
+
+	// Changes the way the game is drawn. Can be called before or after the window is created
+	public void setRenderMode(RenderMode mode) {
+		mRenderMode = mode;
+
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				// The window is created on this thread, so it will exist by now unless there isn't one
+				if(mFrame != null) {
+					attachRenderSurface();
+				}
+			}
+		});
+	}
+
+	// Returns the way the game is currently being drawn
+	public RenderMode getRenderMode() {
+		return mRenderMode;
+	}
+
+	// Returns the component the game is drawn on for the current render mode
+	java.awt.Component getRenderSurface() {
+		return mRenderMode == RenderMode.ACTIVE && mCanvas != null ? mCanvas : mPanel;
+	}
+
+	// Swaps the component inside the window to the one used by the current render mode
+	void attachRenderSurface() {
+		java.awt.Component surface = getRenderSurface();
+		if(surface.getParent() == mFrame.getContentPane()) return;
+
+		mFrame.getContentPane().removeAll();
+		mFrame.add(surface);
+		mFrame.validate();
+	}
+
+	// Draws a frame of the game using the current render mode
+	public void render() {
+		// Nothing to draw on without a window
+		if(mPanel == null) return;
+
+		if(mRenderMode == RenderMode.ACTIVE && mCanvas != null && mCanvas.isDisplayable()) {
+			try {
+				renderActive();
+				return;
+			} catch(Exception e) {
+				// Show Error Message
+				System.out.println("Error: active rendering failed, falling back to passive rendering\n");
+
+				// Go back to letting Swing paint the game
+				mRenderMode = RenderMode.PASSIVE;
+				attachRenderSurface();
+			}
+		}
+
+		// Ask Swing to paint the panel when it can
+		mPanel.repaint();
+	}
+
+	// Draws a frame in to the canvas back buffer and flips it on to the screen
+	void renderActive() {
+		// Create the back buffer the first time we draw
+		BufferStrategy strategy = mCanvas.getBufferStrategy();
+		if(strategy == null) {
+			mCanvas.createBufferStrategy(2);
+			strategy = mCanvas.getBufferStrategy();
+		}
+
+		// The buffer contents can be lost at any time (e.g. when the window is minimised),
+		// in which case the frame has to be drawn again
+		do {
+			do {
+				Graphics2D graphics = (Graphics2D)strategy.getDrawGraphics();
+				try {
+					paintFrame(graphics);
+				} finally {
+					graphics.dispose();
+				}
+			} while(strategy.contentsRestored());
+
+			// Flip (or copy) the back buffer on to the screen
+			strategy.show();
+		} while(strategy.contentsLost());
+
+		// Make sure the frame reaches the screen now rather than whenever the window system flushes
+		Toolkit.getDefaultToolkit().sync();
+	}
+
+	// Gets the graphics ready and paints a frame of the game with it
+	void paintFrame(Graphics2D graphics) {
+		// Get the graphics object
+		mGraphics = graphics;
+
+		// Reset all transforms
+		mTransforms.clear();
+		mTransforms.push(mGraphics.getTransform());
+
+		// Rendering settings
+		mGraphics.setRenderingHints(new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON));
+
+		// Paint the game
+		if (initialised) {
+			GameEngine.this.paintComponent();
+		}
+	}
+
 	// Return the width of the window
 	public int width() {
 		return mWidth;
@@ -143,6 +364,13 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 		// Create graphics transform stack
 		mTransforms = new Stack<AffineTransform>();
 
+		// Don't create a window when running headless
+		if(mHeadless) {
+			mWidth = width;
+			mHeight = height;
+			return;
+		}
+
 		// Create window
 		SwingUtilities.invokeLater(new Runnable() {
 			@Override
@@ -157,6 +385,10 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 	public GameEngine(int width, int height, String title) {
 		setupEngine(width, height, title);
 	}
+	public GameEngine(int width, int height, String title, boolean headless) {
+		mHeadless = headless;
+		setupEngine(width, height, title);
+	}
 	public GameEngine() {
 		setupEngine(500, 500, "Untitled Game");
 	}
@@ -170,6 +402,16 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 		game.gameLoop(framerate);
 	}
 
+	// Create Game Function, advancing the game at a fixed tickrate
+	// independent of the framerate it is drawn at
+	public static void createGame(GameEngine game, int framerate, int tickrate) {
+		// Use a fixed timestep
+		game.setLoopMode(LoopMode.FIXED_STEP, tickrate);
+
+		// Call CreateGame
+		createGame(game, framerate);
+	}
+
 	public static void createGame(GameEngine game) {
 		// Call CreateGame
 		createGame(game, 30);
@@ -205,15 +447,22 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 	GameTimer timer = new GameTimer(30, new ActionListener() {
 		@Override
 		public void actionPerformed(ActionEvent e) {
-			// Determine the time step
-			double passedTime = measureTime();
-			double dt = passedTime / 1000.;
-
-			// Update the Game
-			update(dt);
+			if(mSimulationThread != null) {
+				// The simulation thread is updating the game, we only need to draw it
+			} else if(mLoopMode == LoopMode.FIXED_STEP) {
+				// Catch the game up to the current time
+				stepFixed();
+			} else {
+				// Determine the time step
+				double passedTime = measureTime();
+				double dt = passedTime / 1000.;
+
+				// Update the Game
+				update(dt);
+			}
 
 			// Tell the Game to draw
-			mPanel.repaint();
+			render();
 		}
 	});
 
@@ -224,20 +473,18 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 		// This gets called any time the Operating System
 		// tells the program to paint itself
 		public void paintComponent(Graphics graphics) {
-			// Get the graphics object
-			mGraphics = (Graphics2D)graphics;
-
-			// Reset all transforms
-			mTransforms.clear();
-			mTransforms.push(mGraphics.getTransform());
+			// Paint the game
+			paintFrame((Graphics2D)graphics);
+		}
+	}
 
-			// Rendering settings
-			mGraphics.setRenderingHints(new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON));
+	// The GameEngine canvas, drawn to directly by render() when using active rendering
+	protected class GameCanvas extends Canvas {
+		private static final long serialVersionUID = 1L;
 
-			// Paint the game
-			if (initialised) {
-				GameEngine.this.paintComponent();
-			}
+		protected GameCanvas() {
+			// We draw this ourselves every frame, so ignore paint requests from the Operating System
+			setIgnoreRepaint(true);
 		}
 	}
 
@@ -245,6 +492,17 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 	public void gameLoop(int framerate) {
 		initialised = true; // assume init has been called or won't be called
 
+		// Without a window there is nothing for the timer to draw, so just run the simulation
+		if(mHeadless) {
+			startSimulationThread();
+			return;
+		}
+
+		// Update the game on its own thread, leaving the timer to draw it
+		if(mThreadedSimulation) {
+			startSimulationThread();
+		}
+
 		timer.setFramerate(framerate);
 		timer.setRepeats(true);
 
@@ -252,6 +510,141 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 		timer.start();
 	}
 
+	//-------------------------------------------------------
+	// Simulation thread
+	//-------------------------------------------------------
+
+	// The thread running the simulation when headless or threaded, null if not running
+	volatile Thread mSimulationThread;
+
+	// Set to false to stop the simulation thread
+	volatile boolean mSimulationRunning = false;
+
+	// When true, a windowed game is updated on the simulation thread and only drawn on the Swing thread
+	boolean mThreadedSimulation = false;
+
+	// Input events, and any other work, waiting to be run on the simulation thread. Events are queued as
+	// they are rather than wrapped in a Runnable, so queueing one creates nothing but the queue node.
+	// Filled by the Swing thread and emptied by the simulation thread at the start of every step
+	final ConcurrentLinkedQueue<Object> mInputQueue = new ConcurrentLinkedQueue<Object>();
+
+	// Sets whether a windowed game is updated on its own thread. Must be called before the game loop starts
+	public void setThreadedSimulation(boolean threaded) {
+		mThreadedSimulation = threaded;
+	}
+
+	// Returns true if the game is being updated on the simulation thread
+	public boolean isSimulationThreaded() {
+		return mSimulationThread != null;
+	}
+
+	// Runs the work given on the thread updating the game. If the simulation thread is running, the work is
+	// queued and run at the start of the next step, otherwise it is run straight away
+	public void dispatchInput(Runnable work) {
+		if(mSimulationThread != null) {
+			mInputQueue.offer(work);
+		} else {
+			work.run();
+		}
+	}
+
+	// Passes a key or mouse event to the game on the thread updating the game. If the simulation thread is
+	// running, the event is queued and handled at the start of the next step, otherwise it is handled straight away
+	public void dispatchEvent(AWTEvent event) {
+		if(mSimulationThread != null) {
+			mInputQueue.offer(event);
+		} else {
+			handleEvent(event);
+		}
+	}
+
+	// Calls the handler for the type of a key or mouse event
+	void handleEvent(AWTEvent event) {
+		switch(event.getID()) {
+		case KeyEvent.KEY_PRESSED: keyPressed((KeyEvent)event); break;
+		case KeyEvent.KEY_RELEASED: keyReleased((KeyEvent)event); break;
+		case KeyEvent.KEY_TYPED: keyTyped((KeyEvent)event); break;
+		case MouseEvent.MOUSE_CLICKED: mouseClicked((MouseEvent)event); break;
+		case MouseEvent.MOUSE_PRESSED: mousePressed((MouseEvent)event); break;
+		case MouseEvent.MOUSE_RELEASED: mouseReleased((MouseEvent)event); break;
+		case MouseEvent.MOUSE_ENTERED: mouseEntered((MouseEvent)event); break;
+		case MouseEvent.MOUSE_EXITED: mouseExited((MouseEvent)event); break;
+		case MouseEvent.MOUSE_MOVED: mouseMoved((MouseEvent)event); break;
+		case MouseEvent.MOUSE_DRAGGED: mouseDragged((MouseEvent)event); break;
+		default: break;
+		}
+	}
+
+	// Runs all of the work, and handles all of the events, queued for the simulation thread
+	void drainInput() {
+		Object work;
+		while((work = mInputQueue.poll()) != null) {
+			if(work instanceof AWTEvent) {
+				handleEvent((AWTEvent)work);
+			} else {
+				((Runnable)work).run();
+			}
+		}
+	}
+
+	// Called after every step of the simulation; override to hand the new state of the game to the renderer
+	public void publishFrame() {}
+
+	// Returns true if the game is running without a window
+	public boolean isHeadless() {
+		return mHeadless;
+	}
+
+	// Starts a thread which advances the game at the fixed tickrate without drawing anything
+	public void startSimulationThread() {
+		if(mSimulationThread != null) return;
+
+		// A variable timestep makes no sense without frames to measure, so always use fixed steps
+		if(mLoopMode != LoopMode.FIXED_STEP) {
+			setLoopMode(LoopMode.FIXED_STEP, mTickrate);
+		}
+
+		mSimulationRunning = true;
+		mSimulationThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while(mSimulationRunning) {
+					// Catch the game up to the current time
+					stepFixed();
+
+					// Wait until the next step is due. Parking takes nanoseconds, so a wait of under a millisecond
+					// isn't truncated to no wait at all, which would spin until the step is due.
+					LockSupport.parkNanos(mStepNanos - mAccumulator);
+				}
+			}
+		}, "Simulation");
+		mSimulationThread.start();
+	}
+
+	// Stops the simulation thread, waiting for the step in progress to finish
+	public void stopSimulationThread() {
+		if(mSimulationThread == null) return;
+
+		mSimulationRunning = false;
+		try {
+			mSimulationThread.join();
+		} catch(InterruptedException e) {
+			// Do Nothing
+		}
+		mSimulationThread = null;
+	}
+
+	// Advances the game by the given number of fixed steps straight away, without waiting
+	// for the time to pass. Used to run simulations faster than real time
+	public void runSteps(int steps) {
+		double dt = mStepNanos / 1000000000.;
+		for(int i = 0; i < steps; i++) {
+			drainInput();
+			update(dt);
+			publishFrame();
+		}
+	}
+
 	//-------------------------------------------------------
 	// Initialise function
 	//-------------------------------------------------------
@@ -306,6 +699,17 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 	// Called whenever the mouse is moved with the mouse button held down
 	public void mouseDragged(MouseEvent event) {}
 
+	// Passes mouse events from the window on to the game, via the simulation thread if it's running
+	protected class InputForwarder implements MouseListener, MouseMotionListener {
+		public void mouseClicked(MouseEvent e) { dispatchEvent(e); }
+		public void mousePressed(MouseEvent e) { dispatchEvent(e); }
+		public void mouseReleased(MouseEvent e) { dispatchEvent(e); }
+		public void mouseEntered(MouseEvent e) { dispatchEvent(e); }
+		public void mouseExited(MouseEvent e) { dispatchEvent(e); }
+		public void mouseMoved(MouseEvent e) { dispatchEvent(e); }
+		public void mouseDragged(MouseEvent e) { dispatchEvent(e); }
+	}
+
 	//-------------------------------------------------------
 	// Graphics Functions
 	//-------------------------------------------------------
@@ -522,6 +926,21 @@ public abstract class GameEngine implements KeyListener, MouseListener, MouseMot
 		mGraphics.drawImage(image, (int)x, (int)y, null);
 	}
 
+	// Draws an image on the screen at each position (xs[i],ys[i]), for the first count positions
+	public void drawImages(Image image, int[] xs, int[] ys, int count) {
+		// Check if image is null
+		if(image == null) {
+			// Print Error message
+			System.out.println("Error: cannot draw null image.\n");
+			return;
+		}
+
+		// Draw a copy of the image at each position
+		for(int i = 0; i < count; i++) {
+			mGraphics.drawImage(image, xs[i], ys[i], null);
+		}
+	}
+
 	// Draws an image on the screen at position (x,y)
 	public void drawImage(Image image, double x, double y, double w, double h) {
 		// Check if image is null
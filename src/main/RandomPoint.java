@@ -1,10 +1,12 @@
 package main;
 
 import controllers.CollisionController;
+import controllers.SpatialGrid;
 import entity.Pickup;
 import interfaces.CollisionElement;
 
 import java.awt.*;
+import java.util.Random;
 
 /**
  * The RandomPoint is used to find a set of co-ordinates that is not colliding with any other entities or the game
@@ -41,45 +43,89 @@ public class RandomPoint extends Point implements CollisionElement {
         this.pickup = pickup;
     }
 
+    /**
+     * The amount of random points tried before giving up, when the free cells of the grid can't be used
+     */
+    protected static final int MAX_ATTEMPTS = 1000;
+
     /**
      * Selects a random and free point for use by the {@code Pickup} by querying the {@code CollisionController} and
-     * the pickup to ensure it's outside of the deadzone, and not in the way of any other entities
+     * the pickup to ensure it's outside of the deadzone, and not in the way of any other entities.
+     *
+     * The point is picked from a random free cell of the collision grid, so no searching is needed however full the
+     * game is; a cell is only free if nothing solid could overlap the pickup anywhere inside it.
+     *
+     * @return Returns true if a point was found, false if there is no free space for the pickup
      */
-    public void selectPoint() {
+    public boolean selectPoint() {
         SnakeGame g = SnakeGame.getGameInstance();
         CollisionController c = g.getCollisionController();
+        SpatialGrid grid = c.getGrid();
+        if(!grid.fitsInFreeCell(width, height)) return selectPointByRejection(c);
+
+        // Only cells where every position the pickup could take inside them passes checkSpawnPoint
+        Random r = g.generateRandom();
+        int slackX = SpatialGrid.CELL_SIZE - width;
+        int slackY = SpatialGrid.CELL_SIZE - height;
+        int deadzone = pickup.getSpawnDeadzone();
+        int cell = grid.randomFreeCell(r, deadzone, deadzone,
+                Math.min(SnakeGame.WIDTH - width, SnakeGame.WIDTH - deadzone - 1) - slackX,
+                Math.min(SnakeGame.HEIGHT - height, SnakeGame.HEIGHT - deadzone - 1) - slackY);
+        if(cell < 0) return false;
 
-        Point p;
-        do {
-            p = g.generateRandomPoint();
+        x = SpatialGrid.cellX(cell) + r.nextInt(slackX + 1);
+        y = SpatialGrid.cellY(cell) + r.nextInt(slackY + 1);
+        return true;
+    }
+
+    /**
+     * Selects a point by trying random points until one is found that isn't colliding with anything. Used when the
+     * pickup is too large to be placed using the free cells of the grid.
+     *
+     * @param c The collision controller used to test each point
+     * @return Returns true if a point was found, false if none was found within {@code MAX_ATTEMPTS} tries
+     */
+    protected boolean selectPointByRejection(CollisionController c) {
+        SnakeGame g = SnakeGame.getGameInstance();
+        for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Point p = g.generateRandomPoint();
             x = p.x;
             y = p.y;
-        } while (!pickup.checkSpawnPoint(x, y) || c.checkCollision(this, getBounds()));
+            if(pickup.checkSpawnPoint(x, y) && !c.checkCollision(this, x, y, width, height)) return true;
+        }
+
+        return false;
     }
 
     /**
      * Notifies this point that we've collided with the game boundary. Consume the collision event so that the
      * EntityController will return true during our collision testing
      *
-     * @param collisionBox The collision box intersecting the boundary
+     * @param cX The X position of the collision box intersecting the boundary
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
      * @return Return true to consume the collision
      * @see #selectPoint()
      */
     @Override
-    public boolean collidedWithGameBoundary(Rectangle collisionBox) {
+    public boolean collidedWithGameBoundary(int cX, int cY, int cW, int cH) {
         return true;
     }
 
     /**
      * Notifies us that we've been collided with. We're not interested in that so the collision is ignored
      *
-     * @param collisionBox The collision box
+     * @param cX The X position of the collision box
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
      * @param source The source of the collision
-     * @param infringedBoundary The boundary infringed by the collision
+     * @param hit The part of this point that was collided with
      * @return Returns false to allow the collision to continue to propagate
      */
     @Override
-    public boolean collidedWithBy(Rectangle collisionBox, CollisionElement source, Rectangle infringedBoundary) {
+    public boolean collidedWithBy(int cX, int cY, int cW, int cH, CollisionElement source, int hit) {
         return false;
     }
 
@@ -87,21 +133,76 @@ public class RandomPoint extends Point implements CollisionElement {
      * Test if the collision box provided is colliding with the random point. This entity doesn't exist in the
      * game, and cannot be collided with by other entities
      *
-     * @param collision The collision box to test against
+     * @param cX The X position of the collision box to test against
+     * @param cY The Y position of the collision box
+     * @param cW The width of the collision box
+     * @param cH The height of the collision box
      * @param source The source of the collision box
-     * @return Returns null to indicate no boundary has been infringed by this collision
+     * @return Returns {@code NO_COLLISION} to indicate no boundary has been infringed by this collision
      */
     @Override
-    public Rectangle isCollisionBoxIntersecting(Rectangle collision, CollisionElement source) {
-        return null;
+    public int findCollision(int cX, int cY, int cW, int cH, CollisionElement source) {
+        return NO_COLLISION;
     }
 
     /**
-     * Calculates the boundary of the {@code RandomPoint}
+     * Calculates the boundary of the {@code RandomPoint}; as it can't be collided with, this is the whole point
+     *
+     * @param hit The part collided with
      * @return Returns the boundary
      */
     @Override
-    public Rectangle getBounds() {
-        return new Rectangle(x, y, width, height);
+    public Rectangle getHitBounds(int hit) {
+        return getBounds();
+    }
+
+    /**
+     * Fetch the kind of collision element this is
+     *
+     * @return Returns {@code KIND.SPAWN_POINT}
+     */
+    @Override
+    public KIND getKind() {
+        return KIND.SPAWN_POINT;
+    }
+
+    /**
+     * Fetch the position of the left of the boundary of the {@code RandomPoint}
+     *
+     * @return Returns the X position
+     */
+    @Override
+    public int getBoundsX() {
+        return x;
+    }
+
+    /**
+     * Fetch the position of the top of the boundary of the {@code RandomPoint}
+     *
+     * @return Returns the Y position
+     */
+    @Override
+    public int getBoundsY() {
+        return y;
+    }
+
+    /**
+     * Fetch the width of the boundary of the {@code RandomPoint}
+     *
+     * @return Returns the width
+     */
+    @Override
+    public int getBoundsWidth() {
+        return width;
+    }
+
+    /**
+     * Fetch the height of the boundary of the {@code RandomPoint}
+     *
+     * @return Returns the height
+     */
+    @Override
+    public int getBoundsHeight() {
+        return height;
     }
 }
@@ -0,0 +1,414 @@
+package main;
+
+import interfaces.EffectFrame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * An immutable record of everything that needs to be drawn for a single tick of the game. When the game is updated
+ * on the simulation thread, a new snapshot is published at the end of each tick, and the renderer draws the latest
+ * one without needing to lock (or even look at) the live entities, effects and UI. The UI is recorded as a list of
+ * simple drawing commands, added by each component of the active fragments.
+ *
+ * @author Harry Felton - 18032692
+ * @see SnakeGame#publishFrame()
+ */
+public class RenderSnapshot {
+    /**
+     * The images of the sprites to be drawn, in the order they should be drawn
+     */
+    private final BufferedImage[] spriteImages;
+
+    /**
+     * The X position of each sprite
+     */
+    private final int[] spriteXs;
+
+    /**
+     * The Y position of each sprite
+     */
+    private final int[] spriteYs;
+
+    /**
+     * The amount of sprites stored
+     */
+    private final int spriteCount;
+
+    /**
+     * The frame each effect is showing
+     */
+    private final EffectFrame[] effectFrames;
+
+    /**
+     * The X position of each effect
+     */
+    private final int[] effectXs;
+
+    /**
+     * The Y position of each effect
+     */
+    private final int[] effectYs;
+
+    /**
+     * The amount of effects stored
+     */
+    private final int effectCount;
+
+    /**
+     * The position of each particle
+     */
+    private final int[] particleXs, particleYs;
+
+    /**
+     * The colour of each particle, as premultiplied ARGB
+     */
+    private final int[] particleColors;
+
+    /**
+     * The amount of particles stored
+     */
+    private final int particleCount;
+
+    /**
+     * The kinds of UI drawing command
+     */
+    private static final byte UI_TEXT = 0, UI_RECT = 1, UI_FILL = 2;
+
+    /**
+     * The kind of each UI drawing command
+     */
+    private final byte[] uiKinds;
+
+    /**
+     * The string drawn by each text command
+     */
+    private final String[] uiStrings;
+
+    /**
+     * The font used by each text command
+     */
+    private final Font[] uiFonts;
+
+    /**
+     * The colour used by each UI command
+     */
+    private final Color[] uiColors;
+
+    /**
+     * The position of each UI command, and the size of each rectangle
+     */
+    private final int[] uiXs, uiYs, uiWidths, uiHeights;
+
+    /**
+     * The amount of UI commands stored
+     */
+    private final int uiCount;
+
+    /**
+     * The state of the game at the time of the snapshot
+     */
+    private final SnakeGame.STATE gameState;
+
+    /**
+     * Constructs the snapshot from the builder provided, copying the builders arrays so it can be reused
+     *
+     * @param b The {@code Builder} holding the contents of the snapshot
+     */
+    private RenderSnapshot(Builder b) {
+        spriteCount = b.spriteCount;
+        spriteImages = Arrays.copyOf(b.spriteImages, spriteCount);
+        spriteXs = Arrays.copyOf(b.spriteXs, spriteCount);
+        spriteYs = Arrays.copyOf(b.spriteYs, spriteCount);
+
+        effectCount = b.effectCount;
+        effectFrames = Arrays.copyOf(b.effectFrames, effectCount);
+        effectXs = Arrays.copyOf(b.effectXs, effectCount);
+        effectYs = Arrays.copyOf(b.effectYs, effectCount);
+
+        particleCount = b.particleCount;
+        particleXs = Arrays.copyOf(b.particleXs, particleCount);
+        particleYs = Arrays.copyOf(b.particleYs, particleCount);
+        particleColors = Arrays.copyOf(b.particleColors, particleCount);
+
+        uiCount = b.uiCount;
+        uiKinds = Arrays.copyOf(b.uiKinds, uiCount);
+        uiStrings = Arrays.copyOf(b.uiStrings, uiCount);
+        uiFonts = Arrays.copyOf(b.uiFonts, uiCount);
+        uiColors = Arrays.copyOf(b.uiColors, uiCount);
+        uiXs = Arrays.copyOf(b.uiXs, uiCount);
+        uiYs = Arrays.copyOf(b.uiYs, uiCount);
+        uiWidths = Arrays.copyOf(b.uiWidths, uiCount);
+        uiHeights = Arrays.copyOf(b.uiHeights, uiCount);
+
+        gameState = b.gameState;
+    }
+
+    /**
+     * Draws the sprites (entities) stored in this snapshot
+     *
+     * @param game The {@code SnakeGame} to draw with
+     */
+    public void drawSprites(SnakeGame game) {
+        for(int i = 0; i < spriteCount; i++) {
+            game.drawImage(spriteImages[i], spriteXs[i], spriteYs[i]);
+        }
+    }
+
+    /**
+     * Draws the effects and particles stored in this snapshot
+     *
+     * @param game The {@code SnakeGame} to draw with
+     */
+    public void drawEffects(SnakeGame game) {
+        Graphics2D g = game.getGameGraphics();
+        for(int i = 0; i < effectCount; i++) {
+            effectFrames[i].drawFrame(g, effectXs[i], effectYs[i]);
+        }
+
+        game.getEffectsController().getParticleLayer().draw(g, particleXs, particleYs, particleColors, particleCount);
+    }
+
+    /**
+     * Draws the UI stored in this snapshot, in the order it was added
+     *
+     * @param game The {@code SnakeGame} to draw with
+     */
+    public void drawUI(SnakeGame game) {
+        Graphics2D g = game.getGameGraphics();
+        for(int i = 0; i < uiCount; i++) {
+            g.setColor(uiColors[i]);
+            switch(uiKinds[i]) {
+                case UI_TEXT -> {
+                    g.setFont(uiFonts[i]);
+                    g.drawString(uiStrings[i], uiXs[i], uiYs[i]);
+                }
+                case UI_RECT -> g.drawRect(uiXs[i], uiYs[i], uiWidths[i], uiHeights[i]);
+                default -> g.fillRect(uiXs[i], uiYs[i], uiWidths[i], uiHeights[i]);
+            }
+        }
+    }
+
+    /**
+     * Fetch the state the game was in when the snapshot was taken
+     *
+     * @return Returns the game state
+     */
+    public SnakeGame.STATE getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Collects the sprites, effects and UI that make up a snapshot. A single builder is reused for every tick, so
+     * that only the finished snapshot needs allocating.
+     */
+    public static class Builder {
+        private BufferedImage[] spriteImages = new BufferedImage[64];
+        private int[] spriteXs = new int[64];
+        private int[] spriteYs = new int[64];
+        private int spriteCount;
+
+        private EffectFrame[] effectFrames = new EffectFrame[16];
+        private int[] effectXs = new int[16];
+        private int[] effectYs = new int[16];
+        private int effectCount;
+
+        private int[] particleXs = new int[0];
+        private int[] particleYs = new int[0];
+        private int[] particleColors = new int[0];
+        private int particleCount;
+
+        private byte[] uiKinds = new byte[16];
+        private String[] uiStrings = new String[16];
+        private Font[] uiFonts = new Font[16];
+        private Color[] uiColors = new Color[16];
+        private int[] uiXs = new int[16];
+        private int[] uiYs = new int[16];
+        private int[] uiWidths = new int[16];
+        private int[] uiHeights = new int[16];
+        private int uiCount;
+
+        private SnakeGame.STATE gameState;
+
+        /**
+         * Clears the builder, ready for the next snapshot
+         *
+         * @param state The current state of the game
+         * @return Returns the builder to enable method chaining
+         */
+        public Builder reset(SnakeGame.STATE state) {
+            spriteCount = 0;
+            effectCount = 0;
+            particleCount = 0;
+            Arrays.fill(uiStrings, 0, uiCount, null);
+            uiCount = 0;
+            gameState = state;
+
+            return this;
+        }
+
+        /**
+         * Adds an image to be drawn at the position provided
+         *
+         * @param image The image to draw
+         * @param x The X position of the image
+         * @param y The Y position of the image
+         */
+        public void addSprite(BufferedImage image, int x, int y) {
+            if(spriteCount == spriteImages.length) {
+                int capacity = spriteCount * 2;
+                spriteImages = Arrays.copyOf(spriteImages, capacity);
+                spriteXs = Arrays.copyOf(spriteXs, capacity);
+                spriteYs = Arrays.copyOf(spriteYs, capacity);
+            }
+
+            spriteImages[spriteCount] = image;
+            spriteXs[spriteCount] = x;
+            spriteYs[spriteCount] = y;
+            spriteCount++;
+        }
+
+        /**
+         * Adds an image to be drawn at each of the positions provided
+         *
+         * @param image The image to draw
+         * @param xs The X position of each copy of the image
+         * @param ys The Y position of each copy of the image
+         * @param count The amount of positions, from the start of {@code xs} and {@code ys}
+         */
+        public void addSprites(BufferedImage image, int[] xs, int[] ys, int count) {
+            if(spriteCount + count > spriteImages.length) {
+                int capacity = Math.max(spriteCount + count, spriteCount * 2);
+                spriteImages = Arrays.copyOf(spriteImages, capacity);
+                spriteXs = Arrays.copyOf(spriteXs, capacity);
+                spriteYs = Arrays.copyOf(spriteYs, capacity);
+            }
+
+            Arrays.fill(spriteImages, spriteCount, spriteCount + count, image);
+            System.arraycopy(xs, 0, spriteXs, spriteCount, count);
+            System.arraycopy(ys, 0, spriteYs, spriteCount, count);
+            spriteCount += count;
+        }
+
+        /**
+         * Adds an effect frame to be drawn at the position provided. The frame must not change after being added.
+         *
+         * @param frame The frame to draw
+         * @param x The X position of the effect
+         * @param y The Y position of the effect
+         */
+        public void addEffect(EffectFrame frame, int x, int y) {
+            if(effectCount == effectFrames.length) {
+                int capacity = effectCount * 2;
+                effectFrames = Arrays.copyOf(effectFrames, capacity);
+                effectXs = Arrays.copyOf(effectXs, capacity);
+                effectYs = Arrays.copyOf(effectYs, capacity);
+            }
+
+            effectFrames[effectCount] = frame;
+            effectXs[effectCount] = x;
+            effectYs[effectCount] = y;
+            effectCount++;
+        }
+
+        /**
+         * Sets the particles to be drawn, replacing any added before
+         *
+         * @param xs The X position of each particle
+         * @param ys The Y position of each particle
+         * @param colors The colour of each particle, as premultiplied ARGB
+         * @param count The amount of particles, from the start of each array
+         */
+        public void addParticles(int[] xs, int[] ys, int[] colors, int count) {
+            if(count > particleColors.length) {
+                particleXs = new int[count];
+                particleYs = new int[count];
+                particleColors = new int[count];
+            }
+
+            System.arraycopy(xs, 0, particleXs, 0, count);
+            System.arraycopy(ys, 0, particleYs, 0, count);
+            System.arraycopy(colors, 0, particleColors, 0, count);
+            particleCount = count;
+        }
+
+        /**
+         * Adds a line of UI text, with the start of it's baseline at the position provided
+         *
+         * @param text The text to draw
+         * @param font The font to draw the text in
+         * @param color The colour of the text
+         * @param x The X position of the text
+         * @param y The Y position of the baseline of the text
+         */
+        public void addText(String text, Font font, Color color, int x, int y) {
+            int i = addUI(UI_TEXT, color, x, y, 0, 0);
+            uiStrings[i] = text;
+            uiFonts[i] = font;
+        }
+
+        /**
+         * Adds the outline of a UI rectangle
+         *
+         * @param color The colour of the outline
+         * @param x The X position of the rectangle
+         * @param y The Y position of the rectangle
+         * @param width The width of the rectangle
+         * @param height The height of the rectangle
+         */
+        public void addRect(Color color, int x, int y, int width, int height) {
+            addUI(UI_RECT, color, x, y, width, height);
+        }
+
+        /**
+         * Adds a filled UI rectangle
+         *
+         * @param color The colour of the rectangle
+         * @param x The X position of the rectangle
+         * @param y The Y position of the rectangle
+         * @param width The width of the rectangle
+         * @param height The height of the rectangle
+         */
+        public void addFilledRect(Color color, int x, int y, int width, int height) {
+            addUI(UI_FILL, color, x, y, width, height);
+        }
+
+        /**
+         * Adds a UI command, growing the arrays if they're full
+         *
+         * @return Returns the index of the command
+         */
+        private int addUI(byte kind, Color color, int x, int y, int width, int height) {
+            if(uiCount == uiKinds.length) {
+                int capacity = uiCount * 2;
+                uiKinds = Arrays.copyOf(uiKinds, capacity);
+                uiStrings = Arrays.copyOf(uiStrings, capacity);
+                uiFonts = Arrays.copyOf(uiFonts, capacity);
+                uiColors = Arrays.copyOf(uiColors, capacity);
+                uiXs = Arrays.copyOf(uiXs, capacity);
+                uiYs = Arrays.copyOf(uiYs, capacity);
+                uiWidths = Arrays.copyOf(uiWidths, capacity);
+                uiHeights = Arrays.copyOf(uiHeights, capacity);
+            }
+
+            int i = uiCount++;
+            uiKinds[i] = kind;
+            uiColors[i] = color;
+            uiXs[i] = x;
+            uiYs[i] = y;
+            uiWidths[i] = width;
+            uiHeights[i] = height;
+            return i;
+        }
+
+        /**
+         * Creates the immutable snapshot from the contents of the builder
+         *
+         * @return Returns the snapshot
+         */
+        public RenderSnapshot build() {
+            return new RenderSnapshot(this);
+        }
+    }
+}
@@ -3,12 +3,15 @@ package main;
 import controllers.CollisionController;
 import controllers.EffectController;
 import controllers.EntityController;
+import controllers.TimerWheel;
 import controllers.UIController;
 import entity.ApplePickup;
+import entity.SnakeEntity;
 import fragment.DeathFragment;
 import fragment.GameFragment;
 import fragment.MenuFragment;
 import fragment.PauseFragment;
+import profiling.TickProfiler;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
@@ -40,6 +43,17 @@ public class SnakeGame extends GameEngine {
      */
     public static final int    HEIGHT = WIDTH / 12 * 9;
 
+    /**
+     * The rate at which the game is drawn, in frames per second
+     */
+    public static final int    FRAMERATE = 60;
+
+    /**
+     * The rate at which the game is updated, in ticks per second. The snake moves a fixed distance each tick, so
+     * this also controls the speed of the game.
+     */
+    public static final int    TICKRATE = 30;
+
     /**
      * The possible game states
      */
@@ -49,6 +63,34 @@ public class SnakeGame extends GameEngine {
         DEATH
     }
 
+    /**
+     * The possible game modes
+     *
+     * @see #setGameMode(GAME_MODE)
+     */
+    public enum GAME_MODE {
+        /**
+         * A single apple is on the board at a time
+         */
+        CLASSIC,
+
+        /**
+         * {@code FRENZY_APPLES} apples are on the board at a time, each replaced {@code FRENZY_RESPAWN_DELAY} seconds
+         * after it's eaten
+         */
+        FRENZY
+    }
+
+    /**
+     * The amount of apples kept on the board in {@code GAME_MODE.FRENZY}
+     */
+    public static final int FRENZY_APPLES = 1000;
+
+    /**
+     * The time an apple eaten in {@code GAME_MODE.FRENZY} takes to be replaced, in seconds
+     */
+    public static final double FRENZY_RESPAWN_DELAY = 0.5;
+
     /**
      * The image of the apple
      */
@@ -95,6 +137,20 @@ public class SnakeGame extends GameEngine {
      */
     protected Random randomGenerator;
 
+    /**
+     * The engine used to move the snakes created from now on
+     *
+     * @see #setSnakeMovement(SnakeEntity.MOVEMENT)
+     */
+    protected SnakeEntity.MOVEMENT snakeMovement = SnakeEntity.MOVEMENT.PER_PART;
+
+    /**
+     * The mode of the games started from now on
+     *
+     * @see #setGameMode(GAME_MODE)
+     */
+    protected GAME_MODE gameMode = GAME_MODE.CLASSIC;
+
     /**
      * The UIController to manage the fragments
      *
@@ -123,10 +179,48 @@ public class SnakeGame extends GameEngine {
      */
     protected EntityController entity;
 
+    /**
+     * The TimerWheel used to run timed game events, advanced only while a game is being played
+     *
+     * @see #getTimers()
+     */
+    protected TimerWheel timers;
+
+    /**
+     * Spawns an apple; kept so that scheduling a respawn doesn't create a new callback each time
+     *
+     * @see #respawnApple()
+     */
+    private final Runnable spawnApple = this::spawnApple;
+
+    /**
+     * The TickProfiler used to time each phase of the update and draw cycles
+     *
+     * @see #getProfiler()
+     */
+    protected TickProfiler profiler;
+
     /**
      * Used to indicate whether or not the graphics are initialised
      */
-    private boolean isGraphicsInitialised = false;
+    private volatile boolean isGraphicsInitialised = false;
+
+    /**
+     * Set once the first frame has been painted, and the fragments have been requested
+     */
+    private boolean isGraphicsRequested = false;
+
+    /**
+     * The builder reused to create a {@code RenderSnapshot} at the end of every tick
+     */
+    protected final RenderSnapshot.Builder snapshotBuilder = new RenderSnapshot.Builder();
+
+    /**
+     * The latest snapshot of the game published by the simulation thread, ready to be drawn
+     *
+     * @see #publishFrame()
+     */
+    protected volatile RenderSnapshot snapshot;
 
     /**
      * The fragment used when the game is in MENU state
@@ -159,11 +253,18 @@ public class SnakeGame extends GameEngine {
      * Private constructor as this class is a singleton and can only be initialised
      * from inside this class
      *
+     * @param headless If true, the game is created without a window
      * @see #getGameInstance()
+     * @see #createHeadlessInstance()
      */
-    private SnakeGame() {
-        super(WIDTH, HEIGHT, TITLE);
+    private SnakeGame(boolean headless) {
+        super(WIDTH, HEIGHT, TITLE, headless);
+        if(!headless) {
+            setRenderMode(RenderMode.ACTIVE);
+            setThreadedSimulation(true);
+        }
 
+        // The images are still loaded when headless, as the size of the entities is taken from them
         appleImage = loadImage("resources/apple.png");
         snakeHeadImage = loadImage("resources/head.png");
         snakeGreenBodyImage = loadImage("resources/dot.png");
@@ -187,10 +288,12 @@ public class SnakeGame extends GameEngine {
     public void init() {
         super.init();
 
+        profiler = new TickProfiler().register();
         ui = new UIController(this);
         entity = new EntityController(this);
         collision = new CollisionController(this);
         fx = new EffectController(this);
+        timers = new TimerWheel(TICKRATE);
     }
 
     /**
@@ -217,44 +320,108 @@ public class SnakeGame extends GameEngine {
      */
     @Override
     public void update(double dt) {
+        long tickStart = profiler.start();
         if(nextState != null) {
             changeGameState(nextState);
             nextState = null;
         }
 
-        if(paused)
+        if(paused && isGraphicsInitialised)
             pauseFragment.activate();
 
         if(gameState == STATE.GAME && !paused) {
+            timers.advance(dt);
+
+            long start = profiler.start();
             entity.update(dt);
+            profiler.record(TickProfiler.PHASE.ENTITY_UPDATE, start);
+
+            start = profiler.start();
             fx.update(dt);
+            profiler.record(TickProfiler.PHASE.EFFECT_UPDATE, start);
         }
 
+        long start = profiler.start();
         ui.update(dt);
+        profiler.record(TickProfiler.PHASE.UI_UPDATE, start);
+        profiler.record(TickProfiler.PHASE.TICK, tickStart);
+    }
+
+    /**
+     * Called at the end of every tick. If the game is being updated on the simulation thread, a snapshot of the
+     * entities, effects and UI is published for the renderer to draw.
+     *
+     * @see #paintComponent()
+     */
+    @Override
+    public void publishFrame() {
+        // Nothing to publish if the renderer is reading the entities directly, or if there is no renderer at all
+        if( !isSimulationThreaded() || isHeadless() ) return;
+
+        snapshotBuilder.reset(gameState);
+        if(gameState == STATE.GAME) {
+            entity.snapshot(snapshotBuilder);
+            fx.snapshot(snapshotBuilder);
+        }
+        ui.snapshot(snapshotBuilder);
+
+        snapshot = snapshotBuilder.build();
     }
 
     /**
      * Called when the game requests a repaint. If the graphics are ready, and the fragments aren't initialised, initialise
-     * them.
+     * them. The fragments are created on the thread updating the game, as that is the thread that will be using them.
      *
-     * Clear the game screen, and redraw the entities, effects and UI.
+     * Clear the game screen, and redraw the entities, effects and UI. If the game is being updated on the simulation
+     * thread, everything is drawn from the latest published snapshot instead.
      */
     @Override
     public void paintComponent() {
-        if( !isGraphicsInitialised ) {
-            isGraphicsInitialised = true;
-            graphicsReady();
+        if( !isGraphicsRequested ) {
+            isGraphicsRequested = true;
+            dispatchInput(() -> {
+                isGraphicsInitialised = true;
+                graphicsReady();
+            });
         }
 
+        long frameStart = profiler.start();
         changeBackgroundColor(black);
         clearBackground(WIDTH, HEIGHT);
 
-        if(gameState == STATE.GAME) {
-            entity.redraw();
-            fx.redraw();
+        if( isSimulationThreaded() ) {
+            RenderSnapshot frame = snapshot;
+            if(frame != null) {
+                if(frame.getGameState() == STATE.GAME) {
+                    long start = profiler.start();
+                    frame.drawSprites(this);
+                    profiler.record(TickProfiler.PHASE.ENTITY_REDRAW, start);
+
+                    start = profiler.start();
+                    frame.drawEffects(this);
+                    profiler.record(TickProfiler.PHASE.EFFECT_REDRAW, start);
+                }
+
+                long start = profiler.start();
+                frame.drawUI(this);
+                profiler.record(TickProfiler.PHASE.UI_REDRAW, start);
+            }
+        } else {
+            if(gameState == STATE.GAME) {
+                long start = profiler.start();
+                entity.redraw();
+                profiler.record(TickProfiler.PHASE.ENTITY_REDRAW, start);
+
+                start = profiler.start();
+                fx.redraw();
+                profiler.record(TickProfiler.PHASE.EFFECT_REDRAW, start);
+            }
+
+            long start = profiler.start();
+            ui.redraw();
+            profiler.record(TickProfiler.PHASE.UI_REDRAW, start);
         }
-
-        ui.redraw();
+        profiler.record(TickProfiler.PHASE.FRAME, frameStart);
     }
 
     /**
@@ -311,6 +478,11 @@ public class SnakeGame extends GameEngine {
      * @param s The new game-state
      */
     public void changeGameState(STATE s) {
+        gameState = s;
+
+        // The fragments aren't created until the graphics are ready, which never happens when headless
+        if( !isGraphicsInitialised ) return;
+
         ui.deactivateAllFragments();
         if(s == STATE.MENU) {
             menuFragment.activate();
@@ -319,8 +491,15 @@ public class SnakeGame extends GameEngine {
         } else if(s == STATE.GAME) {
             gameFragment.activate();
         }
+    }
 
-        gameState = s;
+    /**
+     * Fetch the current game state
+     *
+     * @return Returns the current {@code STATE} of the game
+     */
+    public STATE getGameState() {
+        return gameState;
     }
 
     /**
@@ -355,25 +534,47 @@ public class SnakeGame extends GameEngine {
 
     /**
      * Start the game by creating the {@code Player} instances, and initialising the {@code EntityController} with the
-     * players. Spawn the initial {@code ApplePickup}, and schedule the game-state to change
+     * players. Spawn the initial {@code ApplePickup} instances, and schedule the game-state to change
      *
      * @param c The count of players
+     * @throws IllegalArgumentException If there are more players than can be placed in the game
+     * @see SnakeEntity#getMaxPlayers(int)
      */
     public void startGame(int c) {
+        int maxPlayers = SnakeEntity.getMaxPlayers(snakeHeadImage.getWidth());
+        if(c > maxPlayers) throw new IllegalArgumentException("Can't start a game with " + c + " players; at most " + maxPlayers + " fit in the game");
+
         players = new Player[c];
         for(int i = 0; i < c; i++) players[i] = new Player(i);
 
         entity.initWithPlayers(players);
-        respawnApple();
+        fx.getParticles().clear();
+        timers.clear();
+        for(int i = 0, apples = gameMode == GAME_MODE.FRENZY ? FRENZY_APPLES : 1; i < apples; i++) spawnApple();
 
         scheduleGameStateChange(STATE.GAME);
     }
 
     /**
-     * Queue the respawn of another apple
+     * Replace an apple that has been eaten. In {@code GAME_MODE.FRENZY} the apple is spawned after
+     * {@code FRENZY_RESPAWN_DELAY} seconds, using the timer wheel, otherwise it's spawned straight away.
+     *
+     * @see #getTimers()
      */
     public void respawnApple() {
-        entity.spawnPickupRandom(new ApplePickup(this));
+        if(gameMode == GAME_MODE.FRENZY) {
+            timers.schedule(FRENZY_RESPAWN_DELAY, spawnApple);
+        } else {
+            spawnApple();
+        }
+    }
+
+    /**
+     * Queue the spawn of another apple, reusing an apple that has been eaten if there is one
+     */
+    public void spawnApple() {
+        ApplePickup apple = entity.obtainPickup(ApplePickup.class, ApplePickup::new);
+        if(!entity.spawnPickupRandom(apple)) entity.recyclePickup(apple);
     }
 
     /**
@@ -395,6 +596,52 @@ public class SnakeGame extends GameEngine {
         return randomGenerator;
     }
 
+    /**
+     * Seeds the random number generator, so that the game plays out the same way each time it's given the same input
+     *
+     * @param seed The seed to use
+     */
+    public void setRandomSeed(long seed) {
+        generateRandom().setSeed(seed);
+    }
+
+    /**
+     * Changes the engine used to move the snakes. Only affects snakes created after the change, so takes effect from
+     * the start of the next game.
+     *
+     * @param movement The movement engine to use
+     */
+    public void setSnakeMovement(SnakeEntity.MOVEMENT movement) {
+        snakeMovement = movement;
+    }
+
+    /**
+     * Fetch the engine used to move the snakes
+     *
+     * @return Returns the movement engine
+     */
+    public SnakeEntity.MOVEMENT getSnakeMovement() {
+        return snakeMovement;
+    }
+
+    /**
+     * Changes the mode of the game; takes effect from the start of the next game
+     *
+     * @param mode The game mode to use
+     */
+    public void setGameMode(GAME_MODE mode) {
+        gameMode = mode;
+    }
+
+    /**
+     * Fetch the mode of the game
+     *
+     * @return Returns the game mode
+     */
+    public GAME_MODE getGameMode() {
+        return gameMode;
+    }
+
     /**
      * Generates a random point within the boundary of the game
      *
@@ -413,14 +660,38 @@ public class SnakeGame extends GameEngine {
     public static SnakeGame getGameInstance() {
         // No game? No problem. Create a game instance and store it inside out protected static var.
         if( gameInstance == null ) {
-            gameInstance = new SnakeGame();
-            SnakeGame.createGame(gameInstance, 30);
+            gameInstance = new SnakeGame(false);
+            SnakeGame.createGame(gameInstance, FRAMERATE, TICKRATE);
         }
 
         // Return the newly created/previously existing game.
         return gameInstance;
     }
 
+    /**
+     * Creates the {@code SnakeGame} singleton without a window. The entities, collisions, pickups and players all
+     * work as normal, but nothing is drawn and no input is received from the keyboard or mouse.
+     *
+     * The game is not started automatically; either call {@code runSteps(int)} to advance it as fast as possible
+     * (for batch simulations and benchmarks), or {@code startSimulationThread()} to advance it in real time.
+     *
+     * @return Returns the headless {@code SnakeGame}
+     * @throws IllegalStateException if a game instance already exists
+     */
+    public static SnakeGame createHeadlessInstance() {
+        if( gameInstance != null )
+            throw new IllegalStateException("A SnakeGame instance already exists");
+
+        // Make sure nothing tries to talk to a display that isn't there
+        System.setProperty("java.awt.headless", "true");
+
+        gameInstance = new SnakeGame(true);
+        gameInstance.setLoopMode(LoopMode.FIXED_STEP, TICKRATE);
+        gameInstance.init();
+
+        return gameInstance;
+    }
+
     /**
      * Fetch the game graphics from the underlying game engine
      *
@@ -430,6 +701,25 @@ public class SnakeGame extends GameEngine {
         return mGraphics;
     }
 
+    /**
+     * Fetch the tick profiler from the game instance
+     *
+     * @return Returns the {@code TickProfiler}
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Fetch the timer wheel from the game instance, used to schedule timed game events. The timers are cleared when
+     * a game starts, and only advance while it's being played.
+     *
+     * @return Returns the {@code TimerWheel}
+     */
+    public TimerWheel getTimers() {
+        return timers;
+    }
+
     /**
      * Fetch the UI controller from the game instance
      *
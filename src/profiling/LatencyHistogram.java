@@ -0,0 +1,154 @@
+package profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size histogram of durations (in nanoseconds). Recording a value never allocates, so it's safe to use inside
+ * the game loop.
+ *
+ * Values are grouped in to buckets by their power of two, with each power of two split in to {@code SUB_BUCKETS}
+ * equal parts. This keeps the error of any percentile below ~7%, while covering every value from 1ns to several
+ * minutes in under a thousand buckets.
+ *
+ * @author Harry Felton - 18032692
+ */
+public class LatencyHistogram {
+    /**
+     * The amount of bits used to select a sub-bucket inside each power of two
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * The amount of sub-buckets inside each power of two
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The largest power of two that can be recorded; larger values are recorded in the last bucket
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    /**
+     * The amount of values recorded in each bucket
+     */
+    private final AtomicLongArray counts = new AtomicLongArray((MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS);
+
+    /**
+     * The amount of values recorded
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sum of all values recorded
+     */
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * The largest value recorded
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a single duration
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if(nanos < 0) nanos = 0;
+
+        counts.incrementAndGet(bucketFor(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+
+        long current;
+        while(nanos > (current = max.get()) && !max.compareAndSet(current, nanos));
+    }
+
+    /**
+     * Finds the bucket that the value provided belongs in
+     *
+     * @param nanos The value to find the bucket for
+     * @return Returns the index of the bucket
+     */
+    private int bucketFor(long nanos) {
+        if(nanos < SUB_BUCKETS) return (int)nanos;
+
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(nanos), MAX_EXPONENT);
+        int subBucket = (int)(nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Finds the largest value that would be placed in the bucket provided
+     *
+     * @param bucket The index of the bucket
+     * @return Returns the upper bound of the bucket
+     */
+    private long upperBoundOf(int bucket) {
+        if(bucket < SUB_BUCKETS) return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+
+    /**
+     * Calculates the value below which the percentage of recorded values provided fall
+     *
+     * @param percentile The percentile to find, between 0 and 100
+     * @return Returns the value at the percentile in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        long recorded = count.get();
+        if(recorded == 0) return 0;
+
+        long target = Math.max(1, (long)Math.ceil(recorded * Math.min(100, percentile) / 100.0));
+        long seen = 0;
+        for(int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if(seen >= target) return Math.min(upperBoundOf(i), max.get());
+        }
+
+        return max.get();
+    }
+
+    /**
+     * Fetch the amount of values recorded
+     *
+     * @return Returns the count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Fetch the mean of the values recorded
+     *
+     * @return Returns the mean in nanoseconds, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : (double)total.get() / recorded;
+    }
+
+    /**
+     * Fetch the largest value recorded
+     *
+     * @return Returns the largest value in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded values
+     */
+    public void reset() {
+        for(int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+}
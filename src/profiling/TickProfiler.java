@@ -0,0 +1,189 @@
+package profiling;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * The TickProfiler times each phase of the game update and draw cycles separately, recording the results in a
+ * {@code LatencyHistogram} per phase. The profiler can be registered as an MBean, allowing the timings to be read and
+ * reset at runtime by any JMX client.
+ *
+ * Timing a phase is done by fetching a start time via {@link #start()} and handing it back to
+ * {@link #record(PHASE, long)} when the phase is complete. Neither method allocates.
+ *
+ * @author Harry Felton - 18032692
+ */
+public class TickProfiler implements TickProfilerMBean {
+    /**
+     * The name the profiler is registered under with the platform MBean server
+     */
+    public static final String OBJECT_NAME = "snake:type=TickProfiler";
+
+    /**
+     * The phases of the game that are timed
+     */
+    public enum PHASE {
+        TICK,
+        ENTITY_UPDATE,
+        MOVE_SNAKE,
+        COLLISION_CHECK,
+        EFFECT_UPDATE,
+        UI_UPDATE,
+        FRAME,
+        ENTITY_REDRAW,
+        EFFECT_REDRAW,
+        UI_REDRAW
+    }
+
+    /**
+     * Cached copy of {@code PHASE.values()}, to avoid cloning the array on each lookup
+     */
+    private static final PHASE[] PHASES = PHASE.values();
+
+    /**
+     * The histogram of each phase, indexed by the ordinal of the phase
+     */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+
+    /**
+     * Represents whether or not timings are currently being recorded
+     */
+    private volatile boolean enabled = true;
+
+    /**
+     * Constructs the profiler, creating an empty histogram for each phase
+     */
+    public TickProfiler() {
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Registers this profiler with the platform MBean server. Failures are reported but otherwise ignored, as the
+     * game can run fine without it.
+     *
+     * @return Returns this profiler to enable method chaining
+     */
+    public TickProfiler register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(!server.isRegistered(name)) server.registerMBean(this, name);
+        } catch(Exception e) {
+            System.out.println("Error: could not register tick profiler - " + e.getMessage());
+        }
+
+        return this;
+    }
+
+    /**
+     * Fetches the start time of a phase
+     *
+     * @return Returns the current time in nanoseconds, or 0 if the profiler is disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time taken by a phase
+     *
+     * @param phase The phase being timed
+     * @param start The time returned by {@link #start()} when the phase began
+     */
+    public void record(PHASE phase, long start) {
+        if(start == 0 || !enabled) return;
+        histograms[phase.ordinal()].record(System.nanoTime() - start);
+    }
+
+    /**
+     * Fetch the histogram of the phase provided
+     *
+     * @param phase The phase to fetch
+     * @return Returns the histogram of the phase
+     */
+    public LatencyHistogram getHistogram(PHASE phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    @Override
+    public String[] getPhases() {
+        String[] names = new String[PHASES.length];
+        for(int i = 0; i < PHASES.length; i++) names[i] = PHASES[i].name();
+
+        return names;
+    }
+
+    @Override
+    public long[] getCounts() {
+        long[] counts = new long[PHASES.length];
+        for(int i = 0; i < PHASES.length; i++) counts[i] = histograms[i].getCount();
+
+        return counts;
+    }
+
+    @Override
+    public double[] getP50Micros() {
+        return getPercentilesMicros(50);
+    }
+
+    @Override
+    public double[] getP99Micros() {
+        return getPercentilesMicros(99);
+    }
+
+    @Override
+    public double[] getMaxMicros() {
+        double[] max = new double[PHASES.length];
+        for(int i = 0; i < PHASES.length; i++) max[i] = histograms[i].getMax() / 1000.0;
+
+        return max;
+    }
+
+    /**
+     * Finds the percentile provided of every phase
+     *
+     * @param percentile The percentile to find, between 0 and 100
+     * @return Returns the time at the percentile of each phase, in microseconds
+     */
+    private double[] getPercentilesMicros(double percentile) {
+        double[] values = new double[PHASES.length];
+        for(int i = 0; i < PHASES.length; i++) values[i] = histograms[i].getPercentile(percentile) / 1000.0;
+
+        return values;
+    }
+
+    @Override
+    public double getPercentileMicros(String phase, double percentile) {
+        return histograms[PHASE.valueOf(phase).ordinal()].getPercentile(percentile) / 1000.0;
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(String.format("%-16s %10s %10s %10s %10s%n", "phase", "count", "p50(us)", "p99(us)", "max(us)"));
+        for(int i = 0; i < PHASES.length; i++) {
+            LatencyHistogram h = histograms[i];
+            summary.append(String.format("%-16s %10d %10.1f %10.1f %10.1f%n", PHASES[i].name(), h.getCount(),
+                    h.getPercentile(50) / 1000.0, h.getPercentile(99) / 1000.0, h.getMax() / 1000.0));
+        }
+
+        return summary.toString();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void reset() {
+        for(LatencyHistogram h : histograms) h.reset();
+    }
+}
@@ -0,0 +1,65 @@
+package profiling;
+
+/**
+ * The management interface of the {@code TickProfiler}, exposed over JMX so that tools such as JConsole can read the
+ * tick timings of a running game.
+ *
+ * All timings are in microseconds, and the arrays are in the same order as {@link #getPhases()}.
+ *
+ * @author Harry Felton - 18032692
+ */
+public interface TickProfilerMBean {
+    /**
+     * @return Returns the names of the phases being timed
+     */
+    String[] getPhases();
+
+    /**
+     * @return Returns the amount of times each phase has been timed
+     */
+    long[] getCounts();
+
+    /**
+     * @return Returns the median time of each phase
+     */
+    double[] getP50Micros();
+
+    /**
+     * @return Returns the 99th percentile time of each phase
+     */
+    double[] getP99Micros();
+
+    /**
+     * @return Returns the longest time of each phase
+     */
+    double[] getMaxMicros();
+
+    /**
+     * @return Returns a human readable table of the timings of every phase
+     */
+    String getSummary();
+
+    /**
+     * @return Returns true if timings are currently being recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled True to record timings, false to stop recording them
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Finds a percentile of a single phase
+     *
+     * @param phase The name of the phase
+     * @param percentile The percentile to find, between 0 and 100
+     * @return Returns the time at the percentile in microseconds
+     */
+    double getPercentileMicros(String phase, double percentile);
+
+    /**
+     * Clears all recorded timings
+     */
+    void reset();
+}
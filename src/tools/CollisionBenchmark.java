@@ -0,0 +1,110 @@
+package tools;
+
+import controllers.BoxKernel;
+import entity.ApplePickup;
+import entity.SnakeEntity;
+import interfaces.CollisionElement;
+import main.SnakeGame;
+
+import java.util.Random;
+
+/**
+ * Compares the cost of the ways a collision box can be tested against the parts of a long snake: testing every part
+ * in turn, testing every part with the batched {@code BoxKernel}, and the run based test used by {@code SnakeEntity}.
+ * The results of the two kernels are also checked against each other.
+ *
+ * Usage: {@code java tools.CollisionBenchmark [parts] [queries]}
+ *
+ * @author Harry Felton - 18032692
+ */
+public class CollisionBenchmark {
+    /**
+     * The amount of times each test is repeated before being timed, so that it has been compiled by the JIT
+     */
+    protected static final int WARMUP_ROUNDS = 5;
+
+    /**
+     * The entry point of the benchmark
+     *
+     * @param args The amount of parts (default 100000), and the amount of collision boxes to test (default 2000)
+     */
+    public static void main(String[] args) {
+        int parts = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        Random random = new Random(1);
+        int[] xs = new int[parts];
+        int[] ys = new int[parts];
+        for(int i = 0; i < parts; i++) {
+            xs[i] = random.nextInt(SnakeGame.WIDTH * 20);
+            ys[i] = random.nextInt(SnakeGame.HEIGHT * 20);
+        }
+
+        int[] boxes = new int[queries * 2];
+        for(int q = 0; q < boxes.length; q += 2) {
+            boxes[q] = random.nextInt(SnakeGame.WIDTH * 20);
+            boxes[q + 1] = random.nextInt(SnakeGame.HEIGHT * 20);
+        }
+
+        // The kernels must agree before their timings mean anything
+        int mismatches = 0;
+        for(int q = 0; q < boxes.length; q += 2) {
+            int from = random.nextInt(parts);
+            if(BoxKernel.firstHit(xs, ys, from, parts, 10, 10, boxes[q], boxes[q + 1], 10, 10)
+                    != BoxKernel.firstHitScalar(xs, ys, from, parts, 10, 10, boxes[q], boxes[q + 1], 10, 10)) mismatches++;
+        }
+        System.out.printf("Kernels disagreed on %d of %d boxes%n", mismatches, queries);
+
+        for(int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long sum = 0;
+            long start = System.nanoTime();
+            for(int q = 0; q < boxes.length; q += 2) {
+                sum += BoxKernel.firstHitScalar(xs, ys, 0, parts, 10, 10, boxes[q], boxes[q + 1], 10, 10);
+            }
+            long scalar = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(int q = 0; q < boxes.length; q += 2) {
+                sum -= BoxKernel.firstHit(xs, ys, 0, parts, 10, 10, boxes[q], boxes[q + 1], 10, 10);
+            }
+            long batched = System.nanoTime() - start;
+
+            if(round == WARMUP_ROUNDS) {
+                System.out.printf("%d parts: every part %.1fus/box, batched %.1fus/box (checksum %d)%n",
+                        parts, scalar / 1e3 / queries, batched / 1e3 / queries, sum);
+            }
+        }
+
+        SnakeGame game = SnakeGame.createHeadlessInstance();
+        CollisionElement source = new ApplePickup(game);
+        for(SnakeEntity.MOVEMENT movement : SnakeEntity.MOVEMENT.values()) {
+            game.setSnakeMovement(movement);
+            game.startGame(1);
+            game.runSteps(1);
+
+            SnakeEntity snake = game.getEntityController().getPlayer(0);
+            snake.increaseLength(parts - snake.getLength());
+            int headX = snake.getHeadX();
+            int headY = snake.getHeadY();
+
+            for(int round = 0; round <= WARMUP_ROUNDS; round++) {
+                long hits = 0;
+                long start = System.nanoTime();
+                for(int q = 0; q < boxes.length; q += 2) {
+                    // Boxes around the body of the snake, which trails straight behind the head
+                    int x = headX - 20 + boxes[q] % 40;
+                    int y = headY + boxes[q + 1] % (parts * 10);
+                    if(snake.findCollision(x, y, 10, 10, source) != CollisionElement.NO_COLLISION) hits++;
+                }
+                long elapsed = System.nanoTime() - start;
+
+                if(round == WARMUP_ROUNDS) {
+                    System.out.printf("%d parts: %s runs %.2fus/box (%d hits)%n",
+                            parts, movement, elapsed / 1e3 / queries, hits);
+                }
+            }
+        }
+
+        System.exit(0);
+    }
+}
@@ -0,0 +1,111 @@
+package tools;
+
+import controllers.CollisionController;
+import controllers.EntityController;
+import entity.SnakeEntity;
+import main.Player;
+import main.SnakeGame;
+
+import java.util.Random;
+
+/**
+ * Runs the game without a window as fast as possible, with simple bots steering the snakes. Used for batch
+ * simulation and load testing on machines without a display.
+ *
+ * Usage: {@code java tools.HeadlessSimulation [ticks] [players] [movement] [broadPhase] [updateMode] [gameMode]}
+ *
+ * @author Harry Felton - 18032692
+ */
+public class HeadlessSimulation {
+    /**
+     * How close (in pixels) a bot will let the head of it's snake get to the edge of the game before turning away
+     */
+    protected static final int WALL_MARGIN = 30;
+
+    /**
+     * The chance of a bot turning on any given tick, even when not near a wall
+     */
+    protected static final double TURN_CHANCE = 0.03;
+
+    /**
+     * The entry point of the simulation
+     *
+     * @param args The amount of ticks to run (default 100000), the amount of players (default 1), the snake
+     *             movement engine to use (default PER_PART), the collision broad phase to use (default GRID), the way
+     *             the snakes are updated (default SERIAL), and the game mode (default CLASSIC)
+     */
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        SnakeEntity.MOVEMENT movement = args.length > 2 ? SnakeEntity.MOVEMENT.valueOf(args[2]) : SnakeEntity.MOVEMENT.PER_PART;
+        CollisionController.BROAD_PHASE broadPhase = args.length > 3 ? CollisionController.BROAD_PHASE.valueOf(args[3]) : CollisionController.BROAD_PHASE.GRID;
+        EntityController.UPDATE_MODE updateMode = args.length > 4 ? EntityController.UPDATE_MODE.valueOf(args[4]) : EntityController.UPDATE_MODE.SERIAL;
+        SnakeGame.GAME_MODE gameMode = args.length > 5 ? SnakeGame.GAME_MODE.valueOf(args[5]) : SnakeGame.GAME_MODE.CLASSIC;
+
+        SnakeGame game = SnakeGame.createHeadlessInstance();
+        game.setRandomSeed(1);
+        game.setSnakeMovement(movement);
+        game.getCollisionController().setBroadPhase(broadPhase);
+        game.getEntityController().setUpdateMode(updateMode);
+        game.setGameMode(gameMode);
+        Random random = new Random(1);
+
+        int games = 0;
+        long totalScore = 0;
+        long start = System.nanoTime();
+        for(int tick = 0; tick < ticks; tick++) {
+            if(game.getGameState() != SnakeGame.STATE.GAME) {
+                // Game over (or not started yet); record the scores and start another
+                if(game.getPlayers() != null) {
+                    for(Player p : game.getPlayers()) totalScore += p.getScore();
+                }
+                game.startGame(playerCount);
+                games++;
+            }
+
+            steerBots(game, random);
+            game.runSteps(1);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Ran %d ticks (%d games, %d total score) in %.1fms, %.0f ticks/s%n",
+                ticks, games, totalScore, elapsed / 1e6, ticks / (elapsed / 1e9));
+        System.out.print(game.getProfiler().getSummary());
+        System.exit(0);
+    }
+
+    /**
+     * Steers every snake in the game away from the edges of the game, occasionally making a random turn
+     *
+     * @param game The game containing the snakes
+     * @param random The random number generator used to decide when to turn
+     */
+    protected static void steerBots(SnakeGame game, Random random) {
+        EntityController entities = game.getEntityController();
+        for(int i = 0; i < game.getPlayers().length; i++) {
+            SnakeEntity snake = entities.getPlayer(i);
+            if(snake == null) continue;
+
+            int x = snake.getHeadX();
+            int y = snake.getHeadY();
+            SnakeEntity.DIRECTION dir = snake.getDirection();
+            boolean vertical = dir == SnakeEntity.DIRECTION.UP || dir == SnakeEntity.DIRECTION.DOWN;
+
+            boolean nearWall = switch(dir) {
+                case UP -> y < WALL_MARGIN;
+                case DOWN -> y > SnakeGame.HEIGHT - WALL_MARGIN;
+                case LEFT -> x < WALL_MARGIN;
+                case RIGHT -> x > SnakeGame.WIDTH - WALL_MARGIN;
+            };
+
+            if(nearWall || random.nextDouble() < TURN_CHANCE) {
+                // Turn towards the middle of the game
+                if(vertical) {
+                    snake.changeDirection(x < SnakeGame.WIDTH / 2 ? SnakeEntity.DIRECTION.RIGHT : SnakeEntity.DIRECTION.LEFT);
+                } else {
+                    snake.changeDirection(y < SnakeGame.HEIGHT / 2 ? SnakeEntity.DIRECTION.DOWN : SnakeEntity.DIRECTION.UP);
+                }
+            }
+        }
+    }
+}
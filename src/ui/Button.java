@@ -1,6 +1,7 @@
 package ui;
 
 import interfaces.UIMouseReactive;
+import main.RenderSnapshot;
 import main.SnakeGame;
 
 import java.awt.*;
@@ -233,22 +234,7 @@ public class Button extends Component implements UIMouseReactive {
      */
     @Override
     public void paintComponent() {
-        // Figure out what colours we're using based on the 'state'.
-        Color fg, bg;
-        switch(state){
-            case HOVERED -> {
-                fg = hoveredFgColour;
-                bg = hoveredBgColour;
-            }
-            case ACTIVE -> {
-                fg = activeFgColour;
-                bg = activeBgColour;
-            }
-            default -> {
-                fg = fgColour;
-                bg = bgColour;
-            }
-        }
+        Color fg = getForeground(), bg = getBackground();
 
         // Draw the button
         Graphics2D g = gameInstance.getGameGraphics();
@@ -260,6 +246,46 @@ public class Button extends Component implements UIMouseReactive {
         g.drawString( text.getText(), (int)x + padding, (int)y + g.getFontMetrics().getHeight() + (int)(padding*0.5) );
     }
 
+    /**
+     * Records the button into the snapshot provided, using the correct colours based on the state of the Button at
+     * the time of the snapshot.
+     *
+     * @param frame The builder of the snapshot being published
+     * @see #state
+     */
+    @Override
+    public void snapshot(RenderSnapshot.Builder frame) {
+        frame.addRect(getBackground(), (int)x, (int)y, (int)getWidth(), (int)getHeight());
+        frame.addText(text.getText(), text.getFontInstance(), getForeground(),
+                (int)x + padding, (int)y + text.getRenderedHeight() + (int)(padding*0.5));
+    }
+
+    /**
+     * Fetch the colour the text of the button is drawn in, based on it's current state
+     *
+     * @return Returns the foreground colour
+     */
+    private Color getForeground() {
+        return switch(state) {
+            case HOVERED -> hoveredFgColour;
+            case ACTIVE -> activeFgColour;
+            default -> fgColour;
+        };
+    }
+
+    /**
+     * Fetch the colour the outline of the button is drawn in, based on it's current state
+     *
+     * @return Returns the background colour
+     */
+    private Color getBackground() {
+        return switch(state) {
+            case HOVERED -> hoveredBgColour;
+            case ACTIVE -> activeBgColour;
+            default -> bgColour;
+        };
+    }
+
     /**
      * Sets the padding of this Button to the provided integer value
      *
@@ -1,6 +1,7 @@
 package ui;
 
 import interfaces.EngineComponent;
+import main.RenderSnapshot;
 import main.SnakeGame;
 
 /**
@@ -132,6 +133,14 @@ public abstract class Component implements EngineComponent {
         return height;
     }
 
+    /**
+     * Records what the component would draw into the snapshot being built, so it can be drawn later without
+     * reading the component itself.
+     *
+     * @param frame The builder of the snapshot being published
+     */
+    public abstract void snapshot(RenderSnapshot.Builder frame);
+
     /**
      * Centers the component either horizontally, vertically, or both. Offsets the position of
      * the component using the offsets provided
@@ -1,5 +1,6 @@
 package ui;
 
+import main.RenderSnapshot;
 import main.SnakeGame;
 
 import java.awt.*;
@@ -62,6 +63,16 @@ public class Label extends ColouredComponent {
         g.drawString(text.getText(), (int)x, (int)y);
     }
 
+    /**
+     * Records the text of the label, as it currently stands, into the snapshot provided
+     *
+     * @param frame The builder of the snapshot being published
+     */
+    @Override
+    public void snapshot(RenderSnapshot.Builder frame) {
+        frame.addText(text.getText(), text.getFontInstance(), color, (int)x, (int)y);
+    }
+
     /**
      * Fetches the effective width of the Label class by finding the rendered width of the underlying Text
      *
@@ -1,5 +1,6 @@
 package ui;
 
+import main.RenderSnapshot;
 import main.SnakeGame;
 
 import java.awt.*;
@@ -54,4 +55,19 @@ public class Panel extends ColouredComponent {
             g.draw(rect);
         }
     }
+
+    /**
+     * Records the panel into the snapshot provided, either as a solid filled block or an outline.
+     *
+     * @param frame The builder of the snapshot being published
+     * @see #filled
+     */
+    @Override
+    public void snapshot(RenderSnapshot.Builder frame) {
+        if(filled) {
+            frame.addFilledRect(color, (int)x, (int)y, (int)width, (int)height);
+        } else {
+            frame.addRect(color, (int)x, (int)y, (int)width, (int)height);
+        }
+    }
 }
@@ -1,8 +1,8 @@
 package ui;
 
-import main.SnakeGame;
-
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
 
 /**
  * A simple class that allows the encapsulation of text information for easier transport of this information
@@ -26,10 +26,33 @@ public class Text {
      */
     protected static final int      DEFAULT_STYLE = Font.PLAIN;
 
+    /**
+     * The graphics used to measure text. Text is measured against this rather than the graphics of the game, so that it
+     * can be measured before the first frame is painted, and without touching the graphics being drawn with. It uses
+     * the same rendering hints as the graphics of the game, so the measurements match.
+     */
+    private static final Graphics2D measuringGraphics = createMeasuringGraphics();
+
+    /**
+     * The font instance described by the font, size and style, or null if it needs creating
+     *
+     * @see #getFontInstance()
+     */
+    private volatile Font fontInstance;
+
+    /**
+     * The measurements of the rendered text, or null if they need measuring. The text may be measured on one thread
+     * while it's changed on another, so the measurements record the text and font they were taken for, and are only
+     * used while those still match.
+     *
+     * @see #getMetrics()
+     */
+    private volatile Metrics metrics;
+
     /**
      * The text being stored
      */
-    protected String text;
+    protected volatile String text;
 
     /**
      * The font to be used when displaying
@@ -97,7 +120,9 @@ public class Text {
      * @return Returns the {@code Text} instance to enable method chaining
      */
     public Text setText(String t) {
+        String previous = text;
         text = t;
+        if(!Objects.equals(previous, t)) metrics = null;
         return this;
     }
 
@@ -118,6 +143,7 @@ public class Text {
      */
     public Text setFont(String f) {
         font = f;
+        invalidateFont();
         return this;
     }
 
@@ -138,6 +164,7 @@ public class Text {
      */
     public Text setSize(int s) {
         size = s;
+        invalidateFont();
         return this;
     }
 
@@ -151,56 +178,105 @@ public class Text {
     }
 
     /**
-     * Creates a {@code Font} instance containing the typeface, style and size to use when setting the font
-     * via the {@code Graphics2D} instance
+     * Fetch the font style being used
+     *
+     * @return Returns the font style
+     */
+    public int getStyle() {
+        return style;
+    }
+
+    /**
+     * Fetch the {@code Font} instance containing the typeface, style and size to use when setting the font via the
+     * {@code Graphics2D} instance. The instance is created once, and again only after the font or size is changed.
      *
      * @return Returns the font information using a {@code Font} instance
      */
     public Font getFontInstance() {
-        return new Font(font, style, size);
+        Font f = fontInstance;
+        if(f == null) {
+            f = new Font(font, style, size);
+            fontInstance = f;
+        }
+
+        return f;
     }
 
     /**
-     * Calculates the width of the text when rendered using the font information provided
+     * Calculates the width of the text when rendered using the font information provided. The width is measured once,
+     * and again only after the text, font or size is changed.
      *
      * @return Returns the width of the rendered text
      */
     public int getRenderedWidth() {
-        // Get the graphics renderer from our engine
-        SnakeGame game = SnakeGame.getGameInstance();
-        Graphics g = game.getGameGraphics();
-
-        // Store the old font here for later
-        Font oldFont = g.getFont();
-        // Set the font used by the renderer to the one specified by this Text instance
-        g.setFont(new Font(font, Font.PLAIN, size));
-        // Find the width
-        int width = g.getFontMetrics().stringWidth(text);
-        // Restore the font
-        g.setFont(oldFont);
-
-        return width;
+        return getMetrics().width;
     }
 
     /**
-     * Calculates the height of the text when rendered using the font information provided
+     * Calculates the height of the text when rendered using the font information provided. The height is measured
+     * once, and again only after the text, font or size is changed.
      *
      * @return Returns the height of the rendered text
      */
     public int getRenderedHeight() {
-        // Get the graphics renderer from our engine
-        SnakeGame game = SnakeGame.getGameInstance();
-        Graphics g = game.getGameGraphics();
-
-        // Store the old font here for later
-        Font oldFont = g.getFont();
-        // Set the font used by the renderer to the one specified by this Text instance
-        g.setFont(new Font(font, Font.PLAIN, size));
-        // Find the height
-        int height = g.getFontMetrics().getHeight();
-        // Restore the font
-        g.setFont(oldFont);
-
-        return height;
+        return getMetrics().height;
+    }
+
+    /**
+     * Fetch the measurements of the rendered text, measuring it if the text or font has changed since it was last
+     * measured
+     *
+     * @return Returns the measurements
+     */
+    private Metrics getMetrics() {
+        String t = text;
+        Font f = getFontInstance();
+        Metrics m = metrics;
+        if(m != null && m.font == f && Objects.equals(m.text, t)) return m;
+
+        FontMetrics fontMetrics;
+        synchronized(measuringGraphics) {
+            fontMetrics = measuringGraphics.getFontMetrics(f);
+        }
+
+        m = new Metrics(t, f, t == null ? 0 : fontMetrics.stringWidth(t), fontMetrics.getHeight());
+        metrics = m;
+        return m;
+    }
+
+    /**
+     * Forgets the font instance and measurements, after the font information is changed
+     */
+    private void invalidateFont() {
+        fontInstance = null;
+        metrics = null;
+    }
+
+    /**
+     * Creates the graphics used to measure text
+     *
+     * @return Returns the graphics
+     */
+    private static Graphics2D createMeasuringGraphics() {
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        g.setRenderingHints(new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON));
+        return g;
+    }
+
+    /**
+     * The width and height of a string rendered in a font
+     */
+    private static class Metrics {
+        private final String text;
+        private final Font font;
+        private final int width;
+        private final int height;
+
+        Metrics(String text, Font font, int width, int height) {
+            this.text = text;
+            this.font = font;
+            this.width = width;
+            this.height = height;
+        }
     }
 }